@@ -1,9 +1,12 @@
 package core.framework.internal.kafka;
 
 import core.framework.internal.validate.Validator;
+import core.framework.kafka.Message;
 import core.framework.kafka.MessagePublisher;
 import org.jspecify.annotations.Nullable;
 
+import java.util.List;
+
 
 /**
  * @author neo
@@ -19,4 +22,11 @@ public class MockMessagePublisher<T> implements MessagePublisher<T> {
     public void publish(@Nullable String key, T value) {
         validator.validate(value, false);
     }
+
+    @Override
+    public void publishAll(List<Message<T>> messages) {
+        for (Message<T> message : messages) {
+            validator.validate(message.value, false);
+        }
+    }
 }
@@ -1,9 +1,13 @@
 package core.framework.module;
 
+import core.framework.internal.kafka.MessageProducer;
+import core.framework.internal.kafka.MessageRetry;
 import core.framework.internal.kafka.MockMessagePublisher;
 import core.framework.kafka.MessagePublisher;
 import org.mockito.Mockito;
 
+import java.time.Duration;
+
 /**
  * @author neo
  */
@@ -14,4 +18,9 @@ public class TestKafkaConfig extends KafkaConfig {
         // as well as leveraging mockito feature on test
         return Mockito.spy(new MockMessagePublisher<>(messageClass));
     }
+
+    @Override
+    MessageRetry createMessageRetry(String topic, int maxAttempts, Duration retryDelay) {
+        return new MessageRetry(Mockito.mock(MessageProducer.class), topic, maxAttempts, retryDelay.toMillis());     // not to create kafka producer in test
+    }
 }
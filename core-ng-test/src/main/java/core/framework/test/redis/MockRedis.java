@@ -11,7 +11,9 @@ import core.framework.util.Maps;
 import org.jspecify.annotations.Nullable;
 
 import java.time.Duration;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -98,6 +100,15 @@ public final class MockRedis implements Redis {
         values.forEach(this::set);
     }
 
+    @Override
+    public Set<String> multiSet(Map<String, String> values, Duration expiration, boolean onlyIfAbsent) {
+        Set<String> updatedKeys = new HashSet<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (set(entry.getKey(), entry.getValue(), expiration, onlyIfAbsent)) updatedKeys.add(entry.getKey());
+        }
+        return updatedKeys;
+    }
+
     @Override
     public RedisHash hash() {
         return hash;
@@ -80,4 +80,10 @@ public interface Repository<T> {
     // use Transaction if size of primaryKeys is too large, to avoid mysql create transaction for each statement
     // refer to com.mysql.cj.jdbc.ClientPreparedStatement.executePreparedBatchAsMultiStatement, mysql driver simply sends multiple queries with ';' as one statement
     boolean batchDelete(List<?> primaryKeys);
+
+    // load large amount of entities, e.g. nightly data refresh, return number of rows loaded
+    // PostgreSQL: stream all entities via single COPY FROM STDIN, much faster than batchInsert, but fails entirely on any conflict, and no generated ids returned
+    // MySQL: fallback to chunked batch insert
+    // entities can be lazy iterable, to avoid holding all entities in memory
+    long bulkLoad(Iterable<T> entities);
 }
@@ -34,6 +34,10 @@ class ExecutorTask<T> implements Callable<T> {
     private final String refId;
     @Nullable
     private final Trace trace;
+    @Nullable
+    private final Boolean sampled;
+    @Nullable
+    private final String traceId;
     private final PerformanceWarning @Nullable [] warnings;
 
     ExecutorTask(Callable<T> task, LogManager logManager, TaskContext context, @Nullable ActionLog parentActionLog) {
@@ -46,12 +50,16 @@ class ExecutorTask<T> implements Callable<T> {
             correlationId = parentActionLog.correlationId();
             refId = parentActionLog.id;
             trace = parentActionLog.trace == Trace.CASCADE ? Trace.CASCADE : null;  // trace only with parent.cascade
+            sampled = parentActionLog.sampled;
+            traceId = parentActionLog.traceId;
             warnings = parentActionLog.warnings();
         } else {
             rootAction = null;
             correlationId = null;
             refId = null;
             trace = null;
+            sampled = null;
+            traceId = null;
             warnings = null;
         }
     }
@@ -78,6 +86,8 @@ class ExecutorTask<T> implements Callable<T> {
                 LOGGER.debug("refId={}", refId);
                 actionLog.refIds = List.of(Objects.requireNonNull(refId));
                 if (trace != null) actionLog.trace = trace;
+                if (sampled != null) actionLog.sampled = sampled;
+                actionLog.traceId = traceId;    // parent span is derived from refId
                 if (warnings != null) actionLog.initializeWarnings(warnings);
             }
             LOGGER.debug("taskClass={}", CallableTask.taskClass(task).getName());
@@ -0,0 +1,63 @@
+package core.framework.internal.db;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static core.framework.util.Strings.format;
+
+/**
+ * encode insert params as PostgreSQL COPY csv row, refer to https://www.postgresql.org/docs/current/sql-copy.html#COPY-CSV-FORMAT
+ * unquoted empty value is NULL, and all strings are quoted to distinguish empty string from NULL
+ *
+ * @author neo
+ */
+final class CopyRowEncoder {
+    private final EnumDBMapper enumMapper;
+
+    CopyRowEncoder(EnumDBMapper enumMapper) {
+        this.enumMapper = enumMapper;
+    }
+
+    void encode(StringBuilder builder, Object[] params) {
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) builder.append(',');
+            encode(builder, params[i]);
+        }
+        builder.append('\n');
+    }
+
+    private void encode(StringBuilder builder, @Nullable Object param) {
+        if (param == null) return;  // NULL is unquoted empty value
+        switch (param) {
+            case String value -> quote(builder, value);
+            case Enum<?> value -> quote(builder, enumMapper.getDBValue(value));
+            case LocalDate value -> builder.append(DateTimeFormatter.ISO_LOCAL_DATE.format(value));
+            case LocalDateTime value -> builder.append(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+            case ZonedDateTime value -> builder.append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value));
+            case Boolean value -> builder.append(value ? 't' : 'f');
+            case Integer value -> builder.append(value.intValue());
+            case Long value -> builder.append(value.longValue());
+            case Double value -> builder.append(value.doubleValue());
+            case BigDecimal value -> builder.append(value.toPlainString());
+            case UUID value -> builder.append(value);
+            default -> throw new Error(format("unsupported param type, type={}, value={}", param.getClass().getCanonicalName(), param));
+        }
+    }
+
+    private void quote(StringBuilder builder, String value) {
+        builder.append('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') builder.append('"');
+            builder.append(ch);
+        }
+        builder.append('"');
+    }
+}
@@ -164,6 +164,10 @@ public final class DatabaseImpl implements Database {
         pool.checkoutTimeout(timeout);
     }
 
+    public void memoizeQueries(boolean memoize) {
+        operation.memoizeQueries = memoize;
+    }
+
     public void url(String url) {
         this.url = url;
         driver = driver(url);
@@ -16,6 +16,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
@@ -31,6 +32,7 @@ public class DatabaseOperation {
     private final TransactionManager transactionManager;
     Dialect dialect;
     int queryTimeoutInSeconds;
+    boolean memoizeQueries;
 
     DatabaseOperation(TransactionManager transactionManager) {
         this.transactionManager = transactionManager;
@@ -39,6 +41,7 @@ public class DatabaseOperation {
     // as for the boilerplate code, it is mainly for performance and maintainability purpose, as framework code it's more important to keep straightforward than DRY
     // it's harder to trace and read if creating a lot of lambda or template pattern, also impact the mem usage and GC
     int update(String sql, Object... params) {
+        clearMemo();
         PoolItem<Connection> connection = transactionManager.getConnection();
         try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
             statement.setQueryTimeout(queryTimeoutInSeconds);
@@ -55,6 +58,7 @@ public class DatabaseOperation {
     // mysql jdbc driver will adjust batch size according to max_allowed_packet param, check this value by "SHOW VARIABLES LIKE '%max_allowed_packet'"
     // refer to com.mysql.cj.jdbc.ClientPreparedStatement.executeBatchedInserts, com.mysql.cj.AbstractPreparedQuery.computeBatchSize
     int[] batchUpdate(String sql, List<Object[]> params) {
+        clearMemo();
         PoolItem<Connection> connection = transactionManager.getConnection();
         try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
             statement.setQueryTimeout(queryTimeoutInSeconds);
@@ -72,6 +76,20 @@ public class DatabaseOperation {
     }
 
     <T> Optional<T> selectOne(String sql, RowMapper<T> mapper, Object... params) {
+        QueryMemo memo = memo();
+        if (memo == null) return selectOneFromDB(sql, mapper, params);
+
+        QueryMemo.Key key = memo.key(sql, mapper, true, params);
+        @SuppressWarnings("unchecked")
+        Optional<T> result = (Optional<T>) memo.get(key);
+        if (result == null) {
+            result = selectOneFromDB(sql, mapper, params);
+            memo.put(key, result);
+        }
+        return result.map(QueryMemo::copy);
+    }
+
+    private <T> Optional<T> selectOneFromDB(String sql, RowMapper<T> mapper, Object... params) {
         PoolItem<Connection> connection = transactionManager.getConnection();
         try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
             statement.setQueryTimeout(queryTimeoutInSeconds);
@@ -86,6 +104,20 @@ public class DatabaseOperation {
     }
 
     public <T> List<T> select(String sql, RowMapper<T> mapper, Object... params) {
+        QueryMemo memo = memo();
+        if (memo == null) return selectFromDB(sql, mapper, params);
+
+        QueryMemo.Key key = memo.key(sql, mapper, false, params);
+        @SuppressWarnings("unchecked")
+        List<T> results = (List<T>) memo.get(key);
+        if (results == null) {
+            results = selectFromDB(sql, mapper, params);
+            memo.put(key, results);
+        }
+        return QueryMemo.copy(results);    // return copy, as caller may change the list or entities
+    }
+
+    private <T> List<T> selectFromDB(String sql, RowMapper<T> mapper, Object... params) {
         PoolItem<Connection> connection = transactionManager.getConnection();
         try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
             statement.setQueryTimeout(queryTimeoutInSeconds);
@@ -100,6 +132,7 @@ public class DatabaseOperation {
     }
 
     OptionalLong insert(String sql, Object[] params, @Nullable String generatedColumn) {
+        clearMemo();
         PoolItem<Connection> connection = transactionManager.getConnection();
         try (PreparedStatement statement = insertStatement(connection.resource, sql, generatedColumn)) {
             statement.setQueryTimeout(queryTimeoutInSeconds);
@@ -116,6 +149,7 @@ public class DatabaseOperation {
     }
 
     Optional<long[]> batchInsert(String sql, List<Object[]> params, @Nullable String generatedColumn) {
+        clearMemo();
         PoolItem<Connection> connection = transactionManager.getConnection();
         try (PreparedStatement statement = insertStatement(connection.resource, sql, generatedColumn)) {
             statement.setQueryTimeout(queryTimeoutInSeconds);
@@ -137,6 +171,33 @@ public class DatabaseOperation {
         }
     }
 
+    // only for PostgreSQL, stream rows via COPY protocol, refer to https://www.postgresql.org/docs/current/sql-copy.html
+    // COPY doesn't support query timeout, it's bounded by socketTimeout
+    long copyIn(String sql, Iterator<Object[]> rows) {
+        clearMemo();
+        PoolItem<Connection> connection = transactionManager.getConnection();
+        try {
+            return PostgreSQLCopyIn.copyIn(connection.resource, sql, rows, new CopyRowEncoder(enumMapper));
+        } catch (SQLException e) {
+            Connections.checkConnectionState(connection, e);
+            throw new UncheckedSQLException(e);
+        } finally {
+            transactionManager.returnConnection(connection);
+        }
+    }
+
+    // memo is not used within transaction, to keep isolation level semantics
+    @Nullable
+    private QueryMemo memo() {
+        if (!memoizeQueries || transactionManager.inTransaction()) return null;
+        return QueryMemo.current(this);
+    }
+
+    // any write clears memo, even within transaction, since the memo could be stale after commit
+    private void clearMemo() {
+        if (memoizeQueries) QueryMemo.clear(this);
+    }
+
     private PreparedStatement insertStatement(Connection connection, String sql, @Nullable String generatedColumn) throws SQLException {
         if (generatedColumn == null) return connection.prepareStatement(sql);
         return connection.prepareStatement(sql, new String[]{generatedColumn});
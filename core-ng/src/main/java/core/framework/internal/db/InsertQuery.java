@@ -10,13 +10,16 @@ final class InsertQuery<T> {
     final String insertIgnoreSQL;
     final String upsertSQL;
     @Nullable
+    final String copySQL;     // only for PostgreSQL
+    @Nullable
     final String generatedColumn;
     private final InsertQueryParamBuilder<T> paramBuilder;
 
-    InsertQuery(String insertSQL, String insertIgnoreSQL, String upsertSQL, @Nullable String generatedColumn, InsertQueryParamBuilder<T> paramBuilder) {
+    InsertQuery(String insertSQL, String insertIgnoreSQL, String upsertSQL, @Nullable String copySQL, @Nullable String generatedColumn, InsertQueryParamBuilder<T> paramBuilder) {
         this.insertSQL = insertSQL;
         this.insertIgnoreSQL = insertIgnoreSQL;
         this.upsertSQL = upsertSQL;
+        this.copySQL = copySQL;
         this.generatedColumn = generatedColumn;
         this.paramBuilder = paramBuilder;
     }
@@ -33,6 +33,8 @@ class InsertQueryBuilder<T> {
     private String insertSQL;
     private String insertIgnoreSQL;
     private String upsertSQL;
+    @Nullable
+    private String copySQL;
 
     InsertQueryBuilder(Class<T> entityClass, Dialect dialect) {
         this.entityClass = entityClass;
@@ -44,7 +46,7 @@ class InsertQueryBuilder<T> {
         buildSQL();
         builder.addMethod(applyMethod());
         InsertQueryParamBuilder<T> paramBuilder = builder.build();
-        return new InsertQuery<>(insertSQL, insertIgnoreSQL, upsertSQL, generatedColumn, paramBuilder);
+        return new InsertQuery<>(insertSQL, insertIgnoreSQL, upsertSQL, copySQL, generatedColumn, paramBuilder);
     }
 
     private void buildSQL() {
@@ -89,6 +91,13 @@ class InsertQueryBuilder<T> {
             .append(") VALUES (").appendCommaSeparatedValues(params).append(')');
         insertSQL = builder.build();
 
+        if (dialect == Dialect.POSTGRESQL) {
+            // refer to https://www.postgresql.org/docs/current/sql-copy.html, json values are encoded as text, and casted to jsonb by column type
+            copySQL = new CodeBuilder()
+                .append("COPY {} (", entityClass.getDeclaredAnnotation(Table.class).name()).appendCommaSeparatedValues(columns)
+                .append(") FROM STDIN WITH (FORMAT csv)").build();
+        }
+
         if (generatedColumn != null) return;  // auto-increment entity doesn't need insert ignore and upsert, refer to core.framework.internal.db.RepositoryImpl.insertIgnore
         buildInsertIgnore();
         buildUpsert(builder, updates);
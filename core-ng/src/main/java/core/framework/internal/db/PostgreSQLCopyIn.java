@@ -0,0 +1,127 @@
+package core.framework.internal.db;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * postgres driver is runtime dependency, so to access COPY api via method handles,
+ * refer to org.postgresql.PGConnection.getCopyAPI() and org.postgresql.copy.CopyIn
+ *
+ * @author neo
+ */
+final class PostgreSQLCopyIn {
+    private static final int BUFFER_SIZE = 64 * 1024;     // flush to driver every 64k chars, driver sends CopyData message on each write
+
+    static long copyIn(Connection connection, String sql, Iterator<Object[]> rows, CopyRowEncoder encoder) throws SQLException {
+        Object copyManager = invoke(API.GET_COPY_API, connection.unwrap(API.PG_CONNECTION));
+        return copyIn(new DriverCopyOperation(invoke(API.COPY_IN, copyManager, sql)), rows, encoder);
+    }
+
+    static long copyIn(CopyOperation copyIn, Iterator<Object[]> rows, CopyRowEncoder encoder) throws SQLException {
+        try {
+            var builder = new StringBuilder(BUFFER_SIZE + 1024);
+            while (rows.hasNext()) {
+                encoder.encode(builder, rows.next());   // rows iterator validates entity, it may throw error in middle
+                if (builder.length() >= BUFFER_SIZE) write(copyIn, builder);
+            }
+            if (!builder.isEmpty()) write(copyIn, builder);
+            return copyIn.end();
+        } catch (Throwable e) {
+            cancel(copyIn, e);
+            throw e;
+        }
+    }
+
+    // if failed in middle, must cancel copy to bring connection back to normal state, otherwise connection can not be reused,
+    // failure of cancel must not hide original error
+    private static void cancel(CopyOperation copyIn, Throwable error) {
+        try {
+            if (copyIn.active()) copyIn.cancel();
+        } catch (Throwable e) {
+            error.addSuppressed(e);
+        }
+    }
+
+    private static void write(CopyOperation copyIn, StringBuilder builder) throws SQLException {
+        byte[] bytes = builder.toString().getBytes(UTF_8);
+        copyIn.write(bytes);
+        builder.setLength(0);
+    }
+
+    private static Object invoke(MethodHandle handle, Object... arguments) throws SQLException {
+        try {
+            return handle.invokeWithArguments(arguments);
+        } catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new Error(e);
+        }
+    }
+
+    interface CopyOperation {
+        void write(byte[] bytes) throws SQLException;
+
+        long end() throws SQLException;
+
+        boolean active() throws SQLException;
+
+        void cancel() throws SQLException;
+    }
+
+    private record DriverCopyOperation(Object copyIn) implements CopyOperation {
+        @Override
+        public void write(byte[] bytes) throws SQLException {
+            invoke(API.WRITE_TO_COPY, copyIn, bytes, 0, bytes.length);
+        }
+
+        @Override
+        public long end() throws SQLException {
+            return (long) invoke(API.END_COPY, copyIn);
+        }
+
+        @Override
+        public boolean active() throws SQLException {
+            return (boolean) invoke(API.IS_ACTIVE, copyIn);
+        }
+
+        @Override
+        public void cancel() throws SQLException {
+            invoke(API.CANCEL_COPY, copyIn);
+        }
+    }
+
+    // only load driver classes when bulk load on PostgreSQL
+    private static final class API {
+        static final Class<?> PG_CONNECTION;
+        static final MethodHandle GET_COPY_API;
+        static final MethodHandle COPY_IN;
+        static final MethodHandle WRITE_TO_COPY;
+        static final MethodHandle END_COPY;
+        static final MethodHandle CANCEL_COPY;
+        static final MethodHandle IS_ACTIVE;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                PG_CONNECTION = Class.forName("org.postgresql.PGConnection");
+                Class<?> copyManagerClass = Class.forName("org.postgresql.copy.CopyManager");
+                Class<?> copyInClass = Class.forName("org.postgresql.copy.CopyIn");
+                GET_COPY_API = lookup.findVirtual(PG_CONNECTION, "getCopyAPI", methodType(copyManagerClass));
+                COPY_IN = lookup.findVirtual(copyManagerClass, "copyIn", methodType(copyInClass, String.class));
+                WRITE_TO_COPY = lookup.findVirtual(copyInClass, "writeToCopy", methodType(void.class, byte[].class, int.class, int.class));
+                END_COPY = lookup.findVirtual(copyInClass, "endCopy", methodType(long.class));
+                Class<?> copyOperationClass = Class.forName("org.postgresql.copy.CopyOperation");
+                CANCEL_COPY = lookup.findVirtual(copyOperationClass, "cancelCopy", methodType(void.class));
+                IS_ACTIVE = lookup.findVirtual(copyOperationClass, "isActive", methodType(boolean.class));
+            } catch (ReflectiveOperationException e) {
+                throw new Error("postgres driver does not support copy api", e);
+            }
+        }
+    }
+}
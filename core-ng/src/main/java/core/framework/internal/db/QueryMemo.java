@@ -0,0 +1,117 @@
+package core.framework.internal.db;
+
+import core.framework.db.Column;
+import core.framework.internal.log.ActionLog;
+import core.framework.internal.log.LogManager;
+import core.framework.internal.reflect.Classes;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * action scoped select results, held by current action log, so it will be released once action ends,
+ * memoized results are never returned directly, each caller gets its own copies, so modifying returned entities doesn't affect other callers
+ *
+ * @author neo
+ */
+final class QueryMemo {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryMemo.class);
+    private static final int MAX_ENTRIES = 1000;
+    // view fields are immutable values, except @Column(json = true) fields (List<T> of enum/value, or bean), refer to DatabaseClassValidator
+    private static final ClassValue<CopyField[]> FIELDS = new ClassValue<>() {
+        @Override
+        protected CopyField[] computeValue(Class<?> type) {
+            return Classes.instanceFields(type).stream()
+                .map(field -> {
+                    Column column = field.getDeclaredAnnotation(Column.class);
+                    return new CopyField(field, column != null && column.json());
+                })
+                .toArray(CopyField[]::new);
+        }
+    };
+
+    @Nullable
+    static QueryMemo current(DatabaseOperation operation) {
+        ActionLog actionLog = LogManager.currentActionLog();
+        if (actionLog == null) return null;
+        if (actionLog.memo == null) actionLog.memo = new HashMap<>();
+        return (QueryMemo) actionLog.memo.computeIfAbsent(operation, key -> new QueryMemo(actionLog));     // each database has its own memo
+    }
+
+    static void clear(DatabaseOperation operation) {
+        ActionLog actionLog = LogManager.currentActionLog();
+        if (actionLog == null || actionLog.memo == null) return;
+        Object memo = actionLog.memo.remove(operation);
+        if (memo != null) LOGGER.debug("clear query memo");
+    }
+
+    static <T> List<T> copy(List<T> results) {
+        List<T> copies = new ArrayList<>(results.size());
+        for (T result : results) {
+            copies.add(copy(result));
+        }
+        return copies;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T copy(T result) {
+        Class<?> type = result.getClass();
+        if (type.getName().startsWith("java.")) return result;     // single column value, e.g. String, Integer, LocalDateTime, all immutable
+        try {
+            Object copy = type.getDeclaredConstructor().newInstance();
+            for (CopyField field : FIELDS.get(type)) {
+                Object value = field.field.get(result);
+                if (value != null && field.json) value = copyJSON(value, field.field);
+                field.field.set(copy, value);
+            }
+            return (T) copy;
+        } catch (ReflectiveOperationException e) {
+            throw new Error("failed to copy memoized result, class=" + type.getCanonicalName(), e);
+        }
+    }
+
+    // json list only contains enum or value, so copy list is enough, json bean may have nested beans, so copy via json as it is read from db
+    private static Object copyJSON(Object value, Field field) {
+        if (value instanceof List<?> list) return new ArrayList<>(list);
+        return JSONHelper.fromJSON(JSONHelper.toJSON(value), field.getGenericType());
+    }
+
+    private final ActionLog actionLog;
+    private final Map<Key, Object> results = new HashMap<>();
+
+    private QueryMemo(ActionLog actionLog) {
+        this.actionLog = actionLog;
+    }
+
+    Key key(String sql, RowMapper<?> mapper, boolean one, Object @Nullable [] params) {
+        return new Key(sql, mapper, one, params == null ? List.of() : Arrays.asList(params.clone()));    // caller may reuse params array
+    }
+
+    @Nullable
+    Object get(Key key) {
+        Object result = results.get(key);
+        if (result != null) {
+            LOGGER.debug("found memoized query result, sql={}", key.sql());
+            actionLog.stats.compute("db_memo_hits", (k, oldValue) -> (oldValue == null) ? 1 : oldValue + 1);
+        }
+        return result;
+    }
+
+    void put(Key key, Object result) {
+        if (results.size() < MAX_ENTRIES) results.put(key, result);     // limit memory usage, e.g. for long-running batch job
+    }
+
+    private record CopyField(Field field, boolean json) {
+    }
+
+    // all params are immutable values, refer to DatabaseOperation.setParam
+    record Key(String sql, RowMapper<?> mapper, boolean one, List<Object> params) {
+    }
+}
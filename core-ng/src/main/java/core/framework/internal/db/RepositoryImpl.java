@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
@@ -23,6 +24,8 @@ import static core.framework.log.Markers.errorCode;
  * @author neo
  */
 public final class RepositoryImpl<T> implements Repository<T> {
+    private static final int BULK_LOAD_CHUNK_SIZE = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(RepositoryImpl.class);
     private final DatabaseImpl database;
     private final Validator<T> validator;
@@ -278,6 +281,42 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
     }
 
+    @Override
+    public long bulkLoad(Iterable<T> entities) {
+        var watch = new StopWatch();
+        String sql = insertQuery.copySQL != null ? insertQuery.copySQL : insertQuery.insertSQL;
+        long rows = 0;
+        int queries = 0;
+        try {
+            if (insertQuery.copySQL != null) {
+                rows = database.operation.copyIn(insertQuery.copySQL, new BulkLoadRows(entities.iterator()));
+                queries = 1;
+            } else {
+                List<Object[]> params = new ArrayList<>(BULK_LOAD_CHUNK_SIZE);
+                for (T entity : entities) {
+                    validator.validate(entity, false);
+                    params.add(insertQuery.params(entity));
+                    if (params.size() == BULK_LOAD_CHUNK_SIZE) {
+                        database.operation.batchUpdate(sql, params);
+                        rows += params.size();
+                        queries++;
+                        params.clear();
+                    }
+                }
+                if (!params.isEmpty()) {
+                    database.operation.batchUpdate(sql, params);
+                    rows += params.size();
+                    queries++;
+                }
+            }
+            return rows;
+        } finally {
+            long elapsed = watch.elapsed();
+            logger.debug("bulkLoad, sql={}, rows={}, elapsed={}", sql, rows, elapsed);    // not to log params, it can be millions of rows
+            database.track(elapsed, 0, (int) Math.min(rows, Integer.MAX_VALUE), queries);     // rows of copy in can exceed int
+        }
+    }
+
     List<Object[]> batchDeleteParams(List<?> primaryKeys) {
         List<Object[]> params = new ArrayList<>(primaryKeys.size());
         for (Object primaryKey : primaryKeys) {
@@ -293,4 +332,24 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
         return params;
     }
+
+    private final class BulkLoadRows implements Iterator<Object[]> {
+        private final Iterator<T> entities;
+
+        BulkLoadRows(Iterator<T> entities) {
+            this.entities = entities;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entities.hasNext();
+        }
+
+        @Override
+        public Object[] next() {
+            T entity = entities.next();
+            validator.validate(entity, false);
+            return insertQuery.params(entity);
+        }
+    }
 }
@@ -44,6 +44,10 @@ public final class TransactionManager {
             returnConnectionToPool(connection, false);
     }
 
+    boolean inTransaction() {
+        return CURRENT_CONNECTION.get() != null;
+    }
+
     Transaction beginTransaction() {
         if (CURRENT_CONNECTION.get() != null) throw new Error("nested transaction is not supported");
 
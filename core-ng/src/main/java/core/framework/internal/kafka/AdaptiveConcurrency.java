@@ -0,0 +1,70 @@
+package core.framework.internal.kafka;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AIMD concurrency limit, adjusted after each poll batch,
+ * increase additively when consumer is lagging, decrease multiplicatively when handlers wait on resource pool or latency doubles,
+ * and shrink slowly when consumer catches up, to release idle capacity of shared resources
+ *
+ * @author neo
+ */
+final class AdaptiveConcurrency {
+    private final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrency.class);
+    private final int minLimit;
+    private final int maxLimit;
+    private final int step;
+
+    private volatile int limit;
+    private double baselineLatency;     // only accessed by listener thread
+
+    // window stats of current poll batch, recorded by handler threads
+    private int count;
+    private long totalElapsed;
+    private int saturatedCount;
+
+    AdaptiveConcurrency(int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        step = Math.max(1, (maxLimit - minLimit) / 16);
+        limit = minLimit;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    synchronized void record(long elapsed, boolean saturated) {
+        count++;
+        totalElapsed += elapsed;
+        if (saturated) saturatedCount++;
+    }
+
+    // called by listener thread when all permits are acquired, i.e. no handler is running
+    synchronized int adjust(double lag, int backlogThreshold) {
+        if (count == 0) return limit;
+
+        double latency = (double) totalElapsed / count;
+        boolean saturated = saturatedCount * 10 > count;    // more than 10% actions waited on resource pool
+        int previousLimit = limit;
+        if (saturated || baselineLatency > 0 && latency > baselineLatency * 2) {
+            limit = Math.max(minLimit, limit / 2);
+        } else if (lag > backlogThreshold) {
+            limit = Math.min(maxLimit, limit + step);
+        } else {
+            limit = Math.max(minLimit, limit - 1);
+        }
+        if (!saturated) {
+            // baseline follows lowest latency, and drifts slowly to current latency, to adapt to workload change
+            baselineLatency = baselineLatency == 0 ? latency : Math.min(latency, baselineLatency * 0.99 + latency * 0.01);
+        }
+        if (limit != previousLimit)
+            logger.debug("adjust concurrency, limit={}, previous={}, lag={}, latency={}, baseline={}, saturated={}", limit, previousLimit, lag, latency, baselineLatency, saturated);
+
+        count = 0;
+        totalElapsed = 0;
+        saturatedCount = 0;
+        return limit;
+    }
+}
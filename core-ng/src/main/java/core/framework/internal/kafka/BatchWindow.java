@@ -0,0 +1,99 @@
+package core.framework.internal.kafka;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * accumulate bulk messages across polls, flush when reaching min size or max bytes, or lingering too long,
+ * buffered messages are excluded from committed offsets until handled, only accessed by listener thread
+ *
+ * @author neo
+ */
+final class BatchWindow {
+    final String topic;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxBytes;
+    private final long maxLingerInMs;
+    private final List<KafkaMessage> messages = new ArrayList<>();
+    private long bytes;
+    private long startTime;
+
+    BatchWindow(String topic, int minSize, int maxSize, long maxBytes, long maxLingerInMs) {
+        this.topic = topic;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        this.maxLingerInMs = maxLingerInMs;
+    }
+
+    void add(List<KafkaMessage> messages, long now) {
+        if (this.messages.isEmpty()) startTime = now;
+        for (KafkaMessage message : messages) {
+            this.messages.add(message);
+            bytes += message.value.length;
+        }
+    }
+
+    boolean ready(long now) {
+        if (messages.isEmpty()) return false;
+        return messages.size() >= minSize || bytes >= maxBytes || now - startTime >= maxLingerInMs;
+    }
+
+    // used as poll timeout, to flush lingering messages in time
+    long remainingTime(long now) {
+        if (messages.isEmpty()) return Long.MAX_VALUE;
+        return Math.max(0, startTime + maxLingerInMs - now);
+    }
+
+    // split buffered messages into batches within max size and max bytes, each batch has at least one message
+    List<List<KafkaMessage>> flush() {
+        List<List<KafkaMessage>> batches = new ArrayList<>();
+        List<KafkaMessage> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (KafkaMessage message : messages) {
+            if (!batch.isEmpty() && (batch.size() >= maxSize || batchBytes + message.value.length > maxBytes)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(message);
+            batchBytes += message.value.length;
+        }
+        if (!batch.isEmpty()) batches.add(batch);
+        messages.clear();
+        bytes = 0;
+        return batches;
+    }
+
+    // commit offset must not pass buffered messages
+    void offsets(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        for (KafkaMessage message : messages) {
+            var partition = new TopicPartition(topic, message.partition);
+            OffsetAndMetadata offset = offsets.get(partition);
+            if (offset != null && message.offset < offset.offset()) offsets.put(partition, new OffsetAndMetadata(message.offset));
+        }
+    }
+
+    // discard buffered messages of revoked partition, return min offset of discarded messages, which should be committed
+    @Nullable
+    Long revoke(TopicPartition partition) {
+        if (!topic.equals(partition.topic())) return null;
+        Long minOffset = null;
+        Iterator<KafkaMessage> iterator = messages.iterator();
+        while (iterator.hasNext()) {
+            KafkaMessage message = iterator.next();
+            if (message.partition != partition.partition()) continue;
+            if (minOffset == null || message.offset < minOffset) minOffset = message.offset;
+            bytes -= message.value.length;
+            iterator.remove();
+        }
+        return minOffset;
+    }
+}
@@ -0,0 +1,10 @@
+package core.framework.internal.kafka;
+
+/**
+ * @author neo
+ */
+public interface BinaryCodec {
+    void encode(BinaryWriter writer, Object bean);
+
+    Object decode(BinaryReader reader);
+}
@@ -0,0 +1,201 @@
+package core.framework.internal.kafka;
+
+import core.framework.crypto.Hash;
+import core.framework.internal.asm.CodeBuilder;
+import core.framework.internal.asm.DynamicInstanceBuilder;
+import core.framework.internal.reflect.Classes;
+import core.framework.internal.reflect.GenericTypes;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static core.framework.internal.asm.Literal.type;
+
+/**
+ * generate binary codec from message class, fields are encoded in declaration order without names,
+ * so class structure is hashed as fingerprint to detect incompatible changes
+ *
+ * @author neo
+ */
+final class BinaryCodecBuilder<T> {
+    private static final Set<Class<?>> VALUE_CLASSES = Set.of(String.class, Boolean.class,
+        Integer.class, Long.class, Double.class, BigDecimal.class,
+        LocalDate.class, LocalDateTime.class, ZonedDateTime.class, Instant.class, LocalTime.class, UUID.class);
+
+    private final Class<T> messageClass;
+    private final String writer = type(BinaryWriter.class);
+    private final String reader = type(BinaryReader.class);
+    private final Map<Class<?>, String> encodeMethods = new HashMap<>();
+    private final Map<Class<?>, String> decodeMethods = new HashMap<>();
+    private final Map<Class<?>, String> enumFields = new HashMap<>();
+    private final StringBuilder schema = new StringBuilder();
+    DynamicInstanceBuilder<BinaryCodec> builder;
+    private int index;
+
+    BinaryCodecBuilder(Class<T> messageClass) {
+        this.messageClass = messageClass;
+    }
+
+    BinaryCodec build() {
+        builder = new DynamicInstanceBuilder<>(BinaryCodec.class, messageClass.getSimpleName());
+        String encodeMethod = encodeMethod(messageClass);
+        String decodeMethod = decodeMethod(messageClass);
+
+        builder.addMethod(new CodeBuilder().append("public void encode({} writer, Object bean) {\n", writer)
+            .indent(1).append("{}(writer, ({}) bean);\n", encodeMethod, type(messageClass))
+            .append('}').build());
+        builder.addMethod(new CodeBuilder().append("public Object decode({} reader) {\n", reader)
+            .indent(1).append("return {}(reader);\n", decodeMethod)
+            .append('}').build());
+        return builder.build();
+    }
+
+    String fingerprint() {
+        return Hash.sha256Hex(schema.toString()).substring(0, 16);
+    }
+
+    private String encodeMethod(Class<?> beanClass) {
+        String method = encodeMethods.get(beanClass);
+        if (method != null) return method;
+
+        schema.append(beanClass.getName()).append('{');
+        var code = new CodeBuilder();
+        for (Field field : Classes.instanceFields(beanClass)) {
+            schema.append(field.getName()).append(':').append(field.getGenericType().getTypeName()).append(';');
+            encodeValue(code, field.getGenericType(), "bean." + field.getName(), 1);
+        }
+        schema.append('}');
+
+        method = "encode" + beanClass.getSimpleName() + (index++);
+        builder.addMethod(new CodeBuilder().append("private void {}({} writer, {} bean) {\n", method, writer, type(beanClass))
+            .append(code.build())
+            .append('}').build());
+        encodeMethods.put(beanClass, method);
+        return method;
+    }
+
+    private void encodeValue(CodeBuilder code, Type valueType, String value, int indent) {
+        Class<?> valueClass = GenericTypes.rawClass(valueType);
+        if (VALUE_CLASSES.contains(valueClass)) {
+            code.indent(indent).append("writer.write{}(({}) {});\n", valueClass.getSimpleName(), type(valueClass), value);
+        } else if (valueClass.isEnum()) {
+            enumField(valueClass);
+            code.indent(indent).append("writer.writeEnum((java.lang.Enum) {});\n", value);
+        } else if (GenericTypes.isList(valueType)) {
+            String list = "list" + (index++);
+            String iterator = "iterator" + (index++);
+            code.indent(indent).append("java.util.List {} = (java.util.List) {};\n", list, value)
+                .indent(indent).append("if (writer.present({})) {\n", list)
+                .indent(indent + 1).append("writer.writeSize({}.size());\n", list)
+                .indent(indent + 1).append("for (java.util.Iterator {} = {}.iterator(); {}.hasNext(); ) {\n", iterator, list, iterator);
+            encodeValue(code, GenericTypes.listValueClass(valueType), iterator + ".next()", indent + 2);
+            code.indent(indent + 1).append("}\n")
+                .indent(indent).append("}\n");
+        } else if (GenericTypes.isMap(valueType)) {
+            String map = "map" + (index++);
+            String iterator = "iterator" + (index++);
+            String entry = "entry" + (index++);
+            code.indent(indent).append("java.util.Map {} = (java.util.Map) {};\n", map, value)
+                .indent(indent).append("if (writer.present({})) {\n", map)
+                .indent(indent + 1).append("writer.writeSize({}.size());\n", map)
+                .indent(indent + 1).append("for (java.util.Iterator {} = {}.entrySet().iterator(); {}.hasNext(); ) {\n", iterator, map, iterator)
+                .indent(indent + 2).append("java.util.Map.Entry {} = (java.util.Map.Entry) {}.next();\n", entry, iterator);
+            encodeValue(code, GenericTypes.mapKeyClass(valueType), entry + ".getKey()", indent + 2);
+            encodeValue(code, GenericTypes.mapValueType(valueType), entry + ".getValue()", indent + 2);
+            code.indent(indent + 1).append("}\n")
+                .indent(indent).append("}\n");
+        } else {
+            String method = encodeMethod(valueClass);
+            String bean = "bean" + (index++);
+            code.indent(indent).append("{} {} = ({}) {};\n", type(valueClass), bean, type(valueClass), value)
+                .indent(indent).append("if (writer.present({})) {}(writer, {});\n", bean, method, bean);
+        }
+    }
+
+    private String decodeMethod(Class<?> beanClass) {
+        String method = decodeMethods.get(beanClass);
+        if (method != null) return method;
+
+        var code = new CodeBuilder();
+        code.indent(1).append("{} bean = new {}();\n", type(beanClass), type(beanClass));
+        for (Field field : Classes.instanceFields(beanClass)) {
+            String value = decodeValue(code, field.getGenericType(), 1);
+            code.indent(1).append("bean.{} = {};\n", field.getName(), value);
+        }
+        code.indent(1).append("return bean;\n");
+
+        method = "decode" + beanClass.getSimpleName() + (index++);
+        builder.addMethod(new CodeBuilder().append("private {} {}({} reader) {\n", type(beanClass), method, reader)
+            .append(code.build())
+            .append('}').build());
+        decodeMethods.put(beanClass, method);
+        return method;
+    }
+
+    // return variable holds decoded value
+    private String decodeValue(CodeBuilder code, Type valueType, int indent) {
+        Class<?> valueClass = GenericTypes.rawClass(valueType);
+        String variable = "value" + (index++);
+        if (VALUE_CLASSES.contains(valueClass)) {
+            code.indent(indent).append("{} {} = reader.read{}();\n", type(valueClass), variable, valueClass.getSimpleName());
+        } else if (valueClass.isEnum()) {
+            code.indent(indent).append("{} {} = ({}) reader.readEnum(this.{});\n", type(valueClass), variable, type(valueClass), enumField(valueClass));
+        } else if (GenericTypes.isList(valueType)) {
+            String size = "size" + (index++);
+            String i = "i" + (index++);
+            code.indent(indent).append("java.util.List {} = null;\n", variable)
+                .indent(indent).append("if (reader.present()) {\n")
+                .indent(indent + 1).append("int {} = reader.readSize();\n", size)
+                .indent(indent + 1).append("{} = new java.util.ArrayList({});\n", variable, size)
+                .indent(indent + 1).append("for (int {} = 0; {} < {}; {}++) {\n", i, i, size, i);
+            String element = decodeValue(code, GenericTypes.listValueClass(valueType), indent + 2);
+            code.indent(indent + 2).append("{}.add({});\n", variable, element)
+                .indent(indent + 1).append("}\n")
+                .indent(indent).append("}\n");
+        } else if (GenericTypes.isMap(valueType)) {
+            String size = "size" + (index++);
+            String i = "i" + (index++);
+            code.indent(indent).append("java.util.Map {} = null;\n", variable)
+                .indent(indent).append("if (reader.present()) {\n")
+                .indent(indent + 1).append("int {} = reader.readSize();\n", size)
+                .indent(indent + 1).append("{} = new java.util.LinkedHashMap();\n", variable)
+                .indent(indent + 1).append("for (int {} = 0; {} < {}; {}++) {\n", i, i, size, i);
+            String key = decodeValue(code, GenericTypes.mapKeyClass(valueType), indent + 2);
+            String value = decodeValue(code, GenericTypes.mapValueType(valueType), indent + 2);
+            code.indent(indent + 2).append("{}.put({}, {});\n", variable, key, value)
+                .indent(indent + 1).append("}\n")
+                .indent(indent).append("}\n");
+        } else {
+            String method = decodeMethod(valueClass);
+            code.indent(indent).append("{} {} = null;\n", type(valueClass), variable)
+                .indent(indent).append("if (reader.present()) {} = {}(reader);\n", variable, method);
+        }
+        return variable;
+    }
+
+    private String enumField(Class<?> enumClass) {
+        String field = enumFields.get(enumClass);
+        if (field != null) return field;
+
+        schema.append(enumClass.getName()).append('[');
+        for (Object constant : enumClass.getEnumConstants()) {
+            schema.append(((Enum<?>) constant).name()).append(',');
+        }
+        schema.append(']');
+
+        field = "enum" + enumClass.getSimpleName() + (index++);
+        builder.addField("private final {}[] {} = {}.values();", type(enumClass), field, type(enumClass));
+        enumFields.put(enumClass, field);
+        return field;
+    }
+}
@@ -0,0 +1,150 @@
+package core.framework.internal.kafka;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * used by generated binary codec, refer to {@link BinaryWriter}
+ *
+ * @author neo
+ */
+public final class BinaryReader {
+    private final byte[] buffer;
+    private int position;
+
+    BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public boolean present() {
+        return read() != 0;
+    }
+
+    public int readSize() {
+        return (int) readVarLong();
+    }
+
+    @Nullable
+    public String readString() {
+        if (!present()) return null;
+        int length = (int) readVarLong();
+        var value = new String(buffer, position, length, UTF_8);
+        position += length;
+        return value;
+    }
+
+    @Nullable
+    public Boolean readBoolean() {
+        int value = read();
+        if (value == 0) return null;
+        return value == 2;
+    }
+
+    @Nullable
+    public Integer readInteger() {
+        if (!present()) return null;
+        return (int) unzigzag(readVarLong());
+    }
+
+    @Nullable
+    public Long readLong() {
+        if (!present()) return null;
+        return unzigzag(readVarLong());
+    }
+
+    @Nullable
+    public Double readDouble() {
+        if (!present()) return null;
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (buffer[position++] & 0xFFL) << (i * 8);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Nullable
+    public BigDecimal readBigDecimal() {
+        String value = readString();
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    @Nullable
+    public Object readEnum(Object[] constants) {
+        int value = (int) readVarLong();
+        if (value == 0) return null;
+        return constants[value - 1];
+    }
+
+    @Nullable
+    public LocalDate readLocalDate() {
+        if (!present()) return null;
+        return LocalDate.ofEpochDay(unzigzag(readVarLong()));
+    }
+
+    @Nullable
+    public LocalDateTime readLocalDateTime() {
+        if (!present()) return null;
+        long seconds = unzigzag(readVarLong());
+        return LocalDateTime.ofEpochSecond(seconds, (int) readVarLong(), ZoneOffset.UTC);
+    }
+
+    @Nullable
+    public LocalTime readLocalTime() {
+        if (!present()) return null;
+        return LocalTime.ofNanoOfDay(readVarLong());
+    }
+
+    @Nullable
+    public Instant readInstant() {
+        if (!present()) return null;
+        long seconds = unzigzag(readVarLong());
+        return Instant.ofEpochSecond(seconds, readVarLong());
+    }
+
+    @Nullable
+    public ZonedDateTime readZonedDateTime() {
+        if (!present()) return null;
+        long seconds = unzigzag(readVarLong());
+        long nanos = readVarLong();
+        String zone = readString();
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), zone == null ? ZoneOffset.UTC : ZoneId.of(zone));
+    }
+
+    @Nullable
+    public UUID readUUID() {
+        if (!present()) return null;
+        long mostSignificantBits = readVarLong();
+        return new UUID(mostSignificantBits, readVarLong());
+    }
+
+    private long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte current = buffer[position++];
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) return value;
+            shift += 7;
+            if (shift > 63) throw new Error("invalid varint, position=" + position);
+        }
+    }
+
+    private int read() {
+        return buffer[position++];
+    }
+}
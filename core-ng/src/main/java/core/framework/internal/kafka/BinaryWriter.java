@@ -0,0 +1,138 @@
+package core.framework.internal.kafka;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * used by generated binary codec, every nullable value starts with presence byte, integers are zigzag varint encoded
+ *
+ * @author neo
+ */
+public final class BinaryWriter {
+    private byte[] buffer;
+    private int position;
+
+    BinaryWriter(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public boolean present(@Nullable Object value) {
+        write(value == null ? 0 : 1);
+        return value != null;
+    }
+
+    public void writeSize(int size) {
+        writeVarLong(size);
+    }
+
+    public void writeString(@Nullable String value) {
+        if (!present(value)) return;
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    public void writeBoolean(@Nullable Boolean value) {
+        write(value == null ? 0 : value ? 2 : 1);
+    }
+
+    public void writeInteger(@Nullable Integer value) {
+        if (present(value)) writeVarLong(zigzag(value));
+    }
+
+    public void writeLong(@Nullable Long value) {
+        if (present(value)) writeVarLong(zigzag(value));
+    }
+
+    public void writeDouble(@Nullable Double value) {
+        if (!present(value)) return;
+        long bits = Double.doubleToRawLongBits(value);
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (bits >>> (i * 8));
+        }
+    }
+
+    public void writeBigDecimal(@Nullable BigDecimal value) {
+        writeString(value == null ? null : value.toString());
+    }
+
+    public void writeEnum(@Nullable Enum<?> value) {
+        writeVarLong(value == null ? 0 : value.ordinal() + 1);  // enum constants are part of schema fingerprint
+    }
+
+    public void writeLocalDate(@Nullable LocalDate value) {
+        if (present(value)) writeVarLong(zigzag(value.toEpochDay()));
+    }
+
+    public void writeLocalDateTime(@Nullable LocalDateTime value) {
+        if (!present(value)) return;
+        writeVarLong(zigzag(value.toEpochSecond(ZoneOffset.UTC)));
+        writeVarLong(value.getNano());
+    }
+
+    public void writeLocalTime(@Nullable LocalTime value) {
+        if (present(value)) writeVarLong(value.toNanoOfDay());
+    }
+
+    public void writeInstant(@Nullable Instant value) {
+        if (!present(value)) return;
+        writeVarLong(zigzag(value.getEpochSecond()));
+        writeVarLong(value.getNano());
+    }
+
+    public void writeZonedDateTime(@Nullable ZonedDateTime value) {
+        if (!present(value)) return;
+        writeVarLong(zigzag(value.toEpochSecond()));
+        writeVarLong(value.getNano());
+        writeString(value.getZone().getId());
+    }
+
+    public void writeUUID(@Nullable UUID value) {
+        if (!present(value)) return;
+        writeVarLong(value.getMostSignificantBits());
+        writeVarLong(value.getLeastSignificantBits());
+    }
+
+    private long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        long current = value;
+        while ((current & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((current & 0x7F) | 0x80);
+            current >>>= 7;
+        }
+        buffer[position++] = (byte) current;
+    }
+
+    private void write(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensureCapacity(int size) {
+        if (position + size > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + size));
+        }
+    }
+}
@@ -20,6 +20,8 @@ public class ConsumerMetrics implements Metrics {
     private final List<Metric> recordsConsumedRate = new CopyOnWriteArrayList<>();
     private final List<Metric> bytesConsumedRate = new CopyOnWriteArrayList<>();
     private final List<Metric> fetchRate = new CopyOnWriteArrayList<>();
+    @Nullable
+    AdaptiveConcurrency concurrency;
 
     ConsumerMetrics(@Nullable String name) {
         this.name = name;
@@ -31,6 +33,11 @@ public class ConsumerMetrics implements Metrics {
         stats.put(statName("records_consumed_rate"), sum(recordsConsumedRate));
         stats.put(statName("bytes_consumed_rate"), sum(bytesConsumedRate));
         stats.put(statName("fetch_rate"), sum(fetchRate));
+        if (concurrency != null) stats.put(statName("concurrency"), concurrency.limit());
+    }
+
+    double recordsMaxLag() {
+        return sum(recordsLagMax);
     }
 
     void add(Map<MetricName, ? extends Metric> kafkaMetrics) {
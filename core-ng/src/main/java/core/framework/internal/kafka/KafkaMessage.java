@@ -1,6 +1,7 @@
 package core.framework.internal.kafka;
 
 import core.framework.internal.log.Trace;
+import core.framework.internal.log.TraceParent;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
@@ -14,8 +15,10 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class KafkaMessage {
     public static final String HEADER_CORRELATION_ID = "correlationId";
     public static final String HEADER_TRACE = "trace";
+    public static final String HEADER_TRACE_SAMPLED = "traceSampled";
     public static final String HEADER_CLIENT = "client";
     public static final String HEADER_REF_ID = "refId";
+    public static final String HEADER_MESSAGE_ID = "messageId";
 
     @Nullable
     final String key;
@@ -23,12 +26,26 @@ public class KafkaMessage {
     @Nullable
     final Trace trace;
     @Nullable
+    final Boolean sampled;
+    @Nullable
     final String correlationId;
     @Nullable
     final String refId;
     @Nullable
     final String client;
+    @Nullable
+    final String schema;
+    @Nullable
+    final String messageId;
+    @Nullable
+    final String traceParent;
     final long timestamp;
+    final int partition;
+    final long offset;
+    final Headers headers;  // kept for retry, to republish with original headers
+
+    boolean duplicated;     // marked by listener thread before dispatching
+    boolean retryFailed;    // failed to republish to retry or dead letter topic, the offset must not be committed
 
     // one poll batch is small (~500) and short (~500ms), it doesn't expect many messages with same key (less than 3?)
     @Nullable
@@ -38,14 +55,21 @@ public class KafkaMessage {
         key = record.key();
         value = record.value();
 
-        Headers headers = record.headers();
+        headers = record.headers();
         refId = header(headers, HEADER_REF_ID);
         correlationId = header(headers, HEADER_CORRELATION_ID);
         client = header(headers, HEADER_CLIENT);
+        schema = header(headers, MessageCodec.HEADER_SCHEMA);
+        messageId = header(headers, HEADER_MESSAGE_ID);
+        traceParent = header(headers, TraceParent.HEADER);
         String trace = header(headers, HEADER_TRACE);
         this.trace = trace == null ? null : Trace.parse(trace);
+        String sampled = header(headers, HEADER_TRACE_SAMPLED);
+        this.sampled = sampled == null ? null : "true".equals(sampled);
 
         timestamp = record.timestamp();
+        partition = record.partition();
+        offset = record.offset();
     }
 
     @Nullable
@@ -35,6 +35,16 @@ class KafkaMessages {
         size += message.value.length;
     }
 
+    List<KafkaMessage> all() {
+        List<KafkaMessage> messages = new ArrayList<>(count);
+        messages.addAll(unordered);
+        for (KafkaMessage message : ordered.values()) {
+            messages.add(message);
+            if (message.subsequent != null) messages.addAll(message.subsequent);
+        }
+        return messages;
+    }
+
     void addUnordered(ConsumerRecord<String, byte[]> record) {
         var message = new KafkaMessage(record);
         unordered.add(message);
@@ -0,0 +1,28 @@
+package core.framework.internal.kafka;
+
+/**
+ * @author neo
+ */
+public final class MessageCodec<T> {
+    static final String HEADER_SCHEMA = "schema";   // binary message carries schema fingerprint, message without it is json
+
+    final String fingerprint;
+    private final BinaryCodec codec;
+
+    public MessageCodec(Class<T> messageClass) {
+        var builder = new BinaryCodecBuilder<>(messageClass);
+        codec = builder.build();
+        fingerprint = builder.fingerprint();
+    }
+
+    byte[] encode(T message) {
+        var writer = new BinaryWriter(256);
+        codec.encode(writer, message);
+        return writer.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    T decode(byte[] message) {
+        return (T) codec.decode(new BinaryReader(message));
+    }
+}
@@ -0,0 +1,57 @@
+package core.framework.internal.kafka;
+
+import core.framework.kafka.MessageIdempotencyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author neo
+ */
+final class MessageIdempotency {
+    private final Logger logger = LoggerFactory.getLogger(MessageIdempotency.class);
+    private final String topic;     // retry topic shares same process, so messages are always deduplicated by subscribed topic
+    private final MessageIdempotencyStore store;
+
+    MessageIdempotency(String topic, MessageIdempotencyStore store) {
+        this.topic = topic;
+        this.store = store;
+    }
+
+    // called by listener thread before dispatching, one store lookup per poll batch, handlers skip duplicated messages,
+    // same message id within batch (e.g. producer retried) is only processed once, messages being processed by other consumer are not skipped, store fails them in process()
+    void markDuplicated(List<KafkaMessage> messages) {
+        Set<String> messageIds = new LinkedHashSet<>(messages.size());
+        int duplicated = 0;
+        for (KafkaMessage message : messages) {
+            if (message.messageId == null) continue;     // message published by legacy publisher doesn't have message id
+            if (!messageIds.add(message.messageId)) {
+                message.duplicated = true;
+                duplicated++;
+            }
+        }
+        if (messageIds.isEmpty()) return;
+
+        Set<String> processed = store.processed(topic, new ArrayList<>(messageIds));
+        for (KafkaMessage message : messages) {
+            if (!message.duplicated && message.messageId != null && processed.contains(message.messageId)) {
+                message.duplicated = true;
+                duplicated++;
+            }
+        }
+        if (duplicated > 0) logger.info("skip duplicated messages, topic={}, count={}", topic, duplicated);
+    }
+
+    void process(List<KafkaMessage> messages, MessageIdempotencyStore.Handler handler) throws Exception {
+        List<String> messageIds = new ArrayList<>(messages.size());
+        for (KafkaMessage message : messages) {
+            if (message.messageId != null) messageIds.add(message.messageId);
+        }
+        if (messageIds.isEmpty()) handler.handle();
+        else store.process(topic, messageIds, handler);
+    }
+}
@@ -3,11 +3,13 @@ package core.framework.internal.kafka;
 import core.framework.internal.log.LogManager;
 import core.framework.kafka.BulkMessageHandler;
 import core.framework.kafka.MessageHandler;
+import core.framework.kafka.MessageIdempotencyStore;
 import core.framework.util.Maps;
 import core.framework.util.Network;
 import core.framework.util.StopWatch;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.jspecify.annotations.Nullable;
@@ -30,6 +32,7 @@ public class MessageListener {
     public final Set<String> topics = new HashSet<>();
     public final Map<String, MessageProcess<?>> processes = new HashMap<>();
     public final Map<String, MessageProcess<?>> bulkProcesses = new HashMap<>();
+    final Set<String> retryTopics = new HashSet<>();
     final LogManager logManager;
 
     private final Logger logger = LoggerFactory.getLogger(MessageListener.class);
@@ -44,9 +47,17 @@ public class MessageListener {
     public int minPollBytes = 1;                // default kafka setting
     public Duration maxWaitTime = Duration.ofMillis(500);
     public String groupId = LogManager.APP_NAME;
+    public boolean partitionPipeline;
+    @Nullable
+    public String groupInstanceId;     // static membership, restarted consumer with same id takes back its partitions without rebalance
+    public boolean cooperativeRebalance;
+    @Nullable
+    public MessageProducer transactionalProducer;
 
     long maxProcessTimeInNano;
     @Nullable
+    AdaptiveConcurrency adaptiveConcurrency;
+    @Nullable
     private MessageListenerThread thread;
 
     public MessageListener(KafkaURI uri, @Nullable String name, LogManager logManager, long maxProcessTimeInNano) {
@@ -67,6 +78,49 @@ public class MessageListener {
         }
     }
 
+    public void bulkParallelism(String topic, int parallelism) {
+        MessageProcess<?> process = bulkProcesses.get(topic);
+        if (process == null) throw new Error("bulk parallelism only supports bulk message handler, topic=" + topic);
+        process.bulkParallelism = parallelism;
+    }
+
+    public void batchWindow(String topic, int minSize, int maxSize, long maxBytes, Duration maxLinger) {
+        MessageProcess<?> process = bulkProcesses.get(topic);
+        if (process == null) throw new Error("batch window only supports bulk message handler, topic=" + topic);
+        process.batchWindow = new BatchWindow(topic, minSize, maxSize, maxBytes, maxLinger.toMillis());
+    }
+
+    public void idempotency(String topic, MessageIdempotencyStore store) {
+        MessageProcess<?> process = processes.get(topic);
+        if (process == null) process = bulkProcesses.get(topic);
+        if (process == null) throw new Error("topic is not subscribed, topic=" + topic);
+        process.idempotency = new MessageIdempotency(topic, store);
+    }
+
+    public void binaryCodec(String topic) {
+        MessageProcess<?> process = processes.get(topic);
+        if (process == null) process = bulkProcesses.get(topic);
+        if (process == null) throw new Error("topic is not subscribed, topic=" + topic);
+        process.binaryCodec();
+    }
+
+    public void adaptiveConcurrency(int minConcurrency, int maxConcurrency) {
+        concurrency = maxConcurrency;
+        adaptiveConcurrency = new AdaptiveConcurrency(minConcurrency, maxConcurrency);
+        consumerMetrics.concurrency = adaptiveConcurrency;
+    }
+
+    // retry topic is consumed by same handler, and failed message of retry topic is retried with increased attempts
+    public void retry(String topic, MessageRetry retry) {
+        MessageProcess<?> process = processes.get(topic);
+        if (process == null) throw new Error("retry only supports message handler, topic=" + topic);
+        boolean added = topics.add(retry.retryTopic);
+        if (!added) throw new Error("retry topic is already subscribed, topic=" + retry.retryTopic);
+        process.retry = retry;
+        processes.put(retry.retryTopic, process);
+        retryTopics.add(retry.retryTopic);
+    }
+
     public void start() {
         Consumer<String, byte[]> consumer = createConsumer();
         thread = new MessageListenerThread(threadName(name), consumer, this);
@@ -103,7 +157,7 @@ public class MessageListener {
     Consumer<String, byte[]> createConsumer() {
         var watch = new StopWatch();
         try {
-            Map<String, Object> config = Maps.newHashMapWithExpectedSize(13);
+            Map<String, Object> config = Maps.newHashMapWithExpectedSize(18);
             config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, uri.bootstrapURIs);
             config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
             config.put(ConsumerConfig.CLIENT_ID_CONFIG, Network.LOCAL_HOST_NAME + (name == null ? "" : "/" + name));      // will show in monitor metrics
@@ -118,10 +172,11 @@ public class MessageListener {
             config.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) maxWaitTime.toMillis());
             config.put(ConsumerConfig.METRIC_REPORTER_CLASSES_CONFIG, EmptyMetricsReporter.class.getName());
             config.put(ConsumerConfig.ENABLE_METRICS_PUSH_CONFIG, Boolean.FALSE);
+            if (groupInstanceId != null) config.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, groupInstanceId);    // static member doesn't leave group on close(), partitions are reassigned only if it doesn't rejoin within session timeout
+            if (cooperativeRebalance) config.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());     // only revoke partitions moved to other consumers, instead of stop-the-world
+            if (transactionalProducer != null) config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");    // only consume committed messages in exactly-once pipeline
             Consumer<String, byte[]> consumer = new KafkaConsumer<>(config, new KeyDeserializer(), new ByteArrayDeserializer());
             consumerMetrics.add(consumer.metrics());
-
-            consumer.subscribe(topics);
             return consumer;
         } finally {
             logger.info("create kafka consumer, topics={}, name={}, elapsed={}", topics, name, watch.elapsed());
@@ -2,10 +2,10 @@ package core.framework.internal.kafka;
 
 import core.framework.internal.async.ThreadPools;
 import core.framework.internal.async.VirtualThread;
-import core.framework.internal.json.JSONReader;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
 import core.framework.internal.log.PerformanceWarning;
+import core.framework.internal.log.TraceParent;
 import core.framework.internal.log.filter.BytesLogParam;
 import core.framework.kafka.Message;
 import core.framework.util.Sets;
@@ -14,15 +14,17 @@ import core.framework.util.Threads;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -39,15 +41,25 @@ import static core.framework.log.Markers.errorCode;
  * @author neo
  */
 class MessageListenerThread extends Thread {
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(30);
     private final Logger logger = LoggerFactory.getLogger(MessageListenerThread.class);
     private final MessageListener listener;
     private final LogManager logManager;
 
     private final Consumer<String, byte[]> consumer;
     private final Builder.OfVirtual thread;
+    @Nullable
+    private final PartitionPipeline pipeline;
+    @Nullable
+    private final RetryDelay retryDelay;
+    @Nullable
+    private final MessageTransaction transaction;
+    private final List<BatchWindow> batchWindows = new ArrayList<>();
 
     private final Semaphore semaphore;
-    private final int concurrency;
+    @Nullable
+    private final AdaptiveConcurrency adaptiveConcurrency;
+    private int concurrency;
 
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition notProcessing = lock.newCondition();
@@ -60,9 +72,19 @@ class MessageListenerThread extends Thread {
         this.consumer = consumer;
         this.listener = listener;
         logManager = listener.logManager;
-        concurrency = listener.concurrency;
+        adaptiveConcurrency = listener.partitionPipeline ? null : listener.adaptiveConcurrency;     // pipeline is bounded by partitions
+        concurrency = adaptiveConcurrency == null ? listener.concurrency : adaptiveConcurrency.limit();
         semaphore = new Semaphore(concurrency);
         thread = ThreadPools.virtualThreadBuilder(name + "-");   // used in single thread, no need to use factory()
+        retryDelay = listener.retryTopics.isEmpty() ? null : new RetryDelay(listener.retryTopics);
+        pipeline = listener.partitionPipeline ? new PartitionPipeline(name, consumer, this, listener, retryDelay) : null;
+        transaction = listener.transactionalProducer == null ? null : new MessageTransaction(listener.transactionalProducer);
+        if (pipeline != null && transaction != null) throw new Error("transactional listener does not support partition pipeline, name=" + name);
+        for (MessageProcess<?> process : listener.bulkProcesses.values()) {
+            if (process.batchWindow != null) batchWindows.add(process.batchWindow);
+        }
+        if (!batchWindows.isEmpty() && (pipeline != null || transaction != null))
+            throw new Error("batch window does not support partition pipeline or transactional listener, name=" + name);
     }
 
     @Override
@@ -86,10 +108,21 @@ class MessageListenerThread extends Thread {
     }
 
     private void process() {
+        if (pipeline != null) consumer.subscribe(listener.topics, pipeline);   // pipeline drains and commits revoked partitions
+        else if (transaction != null) consumer.subscribe(listener.topics);     // offsets are committed within transaction of each poll
+        else consumer.subscribe(listener.topics, new RebalanceListener(consumer, batchWindows));
+
         while (!shutdown) {
             try {
+                if (pipeline != null) {
+                    pipeline.poll();
+                    continue;
+                }
                 Collection<KafkaMessages> allMessages = poll();   // consumer should call poll at least once every MAX_POLL_INTERVAL_MS
-                if (allMessages == null) continue;
+                if (allMessages == null) {
+                    if (!batchReady(System.currentTimeMillis())) continue;
+                    allMessages = List.of();    // flush lingering batches
+                }
 
                 processAll(allMessages);
             } catch (Throwable e) {
@@ -100,30 +133,65 @@ class MessageListenerThread extends Thread {
             }
         }
 
+        if (pipeline != null) pipeline.close();
         logger.info("close kafka consumer, name={}", getName());
         consumer.close();   // refer to org.apache.kafka.clients.consumer.CloseOptions.GroupMembershipOperation, for dynamic membership, consumer will leave group on close()
     }
 
     @Nullable
     Collection<KafkaMessages> poll() {
-        ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofSeconds(30));
+        Duration timeout = POLL_TIMEOUT;
+        long now = System.currentTimeMillis();
+        if (retryDelay != null) {
+            retryDelay.resume(consumer, now);
+            timeout = retryDelay.pollTimeout(timeout, now);
+        }
+        for (BatchWindow window : batchWindows) {
+            long remainingTime = window.remainingTime(now);
+            if (remainingTime < timeout.toMillis()) timeout = Duration.ofMillis(remainingTime);
+        }
+        ConsumerRecords<String, byte[]> records = consumer.poll(timeout);
         if (records.isEmpty()) return null;
 
         // topic -> messages, use linked hash map to keep message in same order as polled from kafka
         Map<String, KafkaMessages> messageMappings = new LinkedHashMap<>();
-        for (ConsumerRecord<String, byte[]> record : records) {
-            String topic = record.topic();
-            KafkaMessages messages = messageMappings.computeIfAbsent(topic, KafkaMessages::new);
-            if (listener.bulkProcesses.containsKey(topic)) {
-                messages.addUnordered(record);  // bulk is processed in single thread
-                messages.bulk = true;
-            } else {
-                messages.addOrdered(record);
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(partition);
+            if (retryDelay != null) partitionRecords = retryDelay.due(consumer, partition, partitionRecords, System.currentTimeMillis());
+            for (ConsumerRecord<String, byte[]> record : partitionRecords) {
+                String topic = record.topic();
+                KafkaMessages messages = messageMappings.computeIfAbsent(topic, KafkaMessages::new);
+                if (listener.bulkProcesses.containsKey(topic)) {
+                    messages.addUnordered(record);  // bulk is processed in single thread
+                    messages.bulk = true;
+                } else {
+                    messages.addOrdered(record);
+                }
             }
         }
+        if (messageMappings.isEmpty()) return null;     // all polled messages are retry messages not due yet
         return messageMappings.values();
     }
 
+    private boolean batchReady(long now) {
+        for (BatchWindow window : batchWindows) {
+            if (window.ready(now)) return true;
+        }
+        return false;
+    }
+
+    Map<TopicPartition, OffsetAndMetadata> offsets() {
+        Set<TopicPartition> assignment = consumer.assignment();
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(assignment.size());
+        for (TopicPartition partition : assignment) {
+            offsets.put(partition, new OffsetAndMetadata(consumer.position(partition)));
+        }
+        for (BatchWindow window : batchWindows) {
+            window.offsets(offsets);
+        }
+        return offsets;
+    }
+
     void shutdown() {
         shutdown = true;
         // do not call interrupt(), it will interrupt consumer coordinator,
@@ -153,62 +221,100 @@ class MessageListenerThread extends Thread {
         int count = 0;
         int size = 0;
 
-        for (KafkaMessages messages : allMessages) {
-            count += messages.count;
-            size += messages.size;
-
-            if (messages.bulk) {
-                MessageProcess<?> bulkProcess = listener.bulkProcesses.get(messages.topic);
-                processBulk(bulkProcess, messages);
-            } else {
-                MessageProcess<?> process = listener.processes.get(messages.topic);
-                processSingle(process, messages);
+        if (transaction != null) transaction.begin();
+        try {
+            for (KafkaMessages messages : allMessages) {
+                count += messages.count;
+                size += messages.size;
+
+                if (messages.bulk) {
+                    MessageProcess<?> bulkProcess = listener.bulkProcesses.get(messages.topic);
+                    if (bulkProcess.idempotency != null) bulkProcess.idempotency.markDuplicated(messages.unordered);
+                    if (bulkProcess.batchWindow != null) bulkProcess.batchWindow.add(messages.unordered, System.currentTimeMillis());
+                    else processBulk(bulkProcess, messages.topic, messages.unordered);
+                } else {
+                    MessageProcess<?> process = listener.processes.get(messages.topic);
+                    if (process.idempotency != null) process.idempotency.markDuplicated(messages.all());
+                    processSingle(process, messages);
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            for (BatchWindow window : batchWindows) {
+                if (!window.ready(now)) continue;
+                MessageProcess<?> bulkProcess = listener.bulkProcesses.get(window.topic);
+                for (List<KafkaMessage> batch : window.flush()) {
+                    processBulk(bulkProcess, window.topic, batch);
+                }
             }
-        }
 
-        semaphore.acquire(concurrency);
+            semaphore.acquire(concurrency);
+        } catch (Throwable e) {
+            if (transaction != null) transaction.rollback(consumer);
+            throw e;
+        }
         try {
-            consumer.commitAsync();
+            rewindRetryFailed(allMessages);
+            if (transaction != null) transaction.commit(consumer);
+            else if (batchWindows.isEmpty()) consumer.commitAsync();
+            else consumer.commitAsync(offsets(), null);     // not to commit buffered messages
         } finally {
+            // all permits are held here, so it's safe to change number of permits
+            if (adaptiveConcurrency != null) concurrency = adaptiveConcurrency.adjust(listener.consumerMetrics.recordsMaxLag(), listener.maxPollRecords);
             semaphore.release(concurrency);
         }
 
         logger.info("process kafka messages, count={}, size={}, elapsed={}", count, size, watch.elapsed());
     }
 
+    // seek back to first message failed to republish for retry, so it's redelivered instead of committed
+    private void rewindRetryFailed(Collection<KafkaMessages> allMessages) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (KafkaMessages messages : allMessages) {
+            if (messages.bulk) continue;    // bulk doesn't support retry
+            for (KafkaMessage message : messages.all()) {
+                if (message.retryFailed) offsets.merge(new TopicPartition(messages.topic, message.partition), message.offset, Math::min);
+            }
+        }
+        for (Map.Entry<TopicPartition, Long> entry : offsets.entrySet()) {
+            logger.warn(errorCode("FAILED_TO_RETRY_MESSAGE"), "rewind partition to redeliver message failed to retry, partition={}, offset={}", entry.getKey(), entry.getValue());
+            consumer.seek(entry.getKey(), entry.getValue());
+        }
+    }
+
     private void processSingle(MessageProcess<?> process, KafkaMessages messages) throws InterruptedException {
         for (KafkaMessage message : messages.unordered) {
-            semaphore.acquire();
-            thread.start(() -> {
-                try {
-                    VirtualThread.COUNT.increase();
-                    handleSingle(messages.topic, process, message);
-                } finally {
-                    VirtualThread.COUNT.decrease();
-                    semaphore.release();
-                }
-            });
+            start(() -> handleSingle(messages.topic, process, message));
         }
         for (KafkaMessage message : messages.ordered.values()) {
-            semaphore.acquire();
-            thread.start(() -> {
-                try {
-                    VirtualThread.COUNT.increase();
-                    handleSingle(messages.topic, process, message);
-                    if (message.subsequent != null) {
-                        for (KafkaMessage subsequent : message.subsequent) {
-                            handleSingle(messages.topic, process, subsequent);
-                        }
+            start(() -> {
+                handleSingle(messages.topic, process, message);
+                if (message.subsequent != null) {
+                    for (KafkaMessage subsequent : message.subsequent) {
+                        handleSingle(messages.topic, process, subsequent);
                     }
-                } finally {
-                    VirtualThread.COUNT.decrease();
-                    semaphore.release();
                 }
             });
         }
     }
 
+    private void start(Runnable task) throws InterruptedException {
+        semaphore.acquire();
+        thread.start(() -> {
+            VirtualThread.COUNT.increase();
+            if (transaction != null) transaction.enter();
+            try {
+                task.run();
+            } finally {
+                if (transaction != null) transaction.exit();
+                VirtualThread.COUNT.decrease();
+                semaphore.release();
+            }
+        });
+    }
+
     <T> void handleSingle(String topic, MessageProcess<T> process, KafkaMessage message) {
+        if (message.duplicated) return;
         logManager.run("message", null, actionLog -> {
             try {
                 initAction(actionLog, topic, process.handler.getClass().getCanonicalName(), process.warnings);
@@ -216,6 +322,8 @@ class MessageListenerThread extends Thread {
                 actionLog.track("kafka", 0, 1, 0, message.value.length, 0);
 
                 if (message.trace != null) actionLog.trace = message.trace;
+                if (message.sampled != null) actionLog.sampled = message.sampled;
+                if (message.traceParent != null) TraceParent.parse(actionLog, message.traceParent);
                 if (message.correlationId != null) actionLog.correlationIds = List.of(message.correlationId);
                 if (message.client != null) actionLog.clients = List.of(message.client);
                 if (message.refId != null) actionLog.refIds = List.of(message.refId);
@@ -227,47 +335,73 @@ class MessageListenerThread extends Thread {
 
                 logger.debug("[message] key={}, value={}, timestamp={}", message.key, new BytesLogParam(message.value), message.timestamp);
 
-                T messageObject = process.reader.fromJSON(message.value);
+                T messageObject = process.read(message);
                 process.validator.validate(messageObject, false);
-                process.handler().handle(message.key, messageObject);
+                if (process.idempotency == null) process.handler().handle(message.key, messageObject);
+                else process.idempotency.process(List.of(message), () -> process.handler().handle(message.key, messageObject));
             } catch (Throwable e) {
                 logManager.logError(e);
+                if (process.retry != null) message.retryFailed = !process.retry.retry(message, e);
             }
+            record(actionLog);
             return null;
         });
     }
 
-    private void processBulk(MessageProcess<?> bulkProcess, KafkaMessages messages) throws InterruptedException {
-        semaphore.acquire();
-        thread.start(() -> {
-            VirtualThread.COUNT.increase();
-            try {
-                handleBulk(messages.topic, bulkProcess, messages.unordered);
-            } finally {
-                VirtualThread.COUNT.decrease();
-                semaphore.release();
-            }
-        });
+    private void processBulk(MessageProcess<?> bulkProcess, String topic, List<KafkaMessage> messages) throws InterruptedException {
+        if (bulkProcess.bulkParallelism <= 1) {
+            start(() -> handleBulk(topic, bulkProcess, messages));
+            return;
+        }
+        for (List<KafkaMessage> group : groups(messages, bulkProcess.bulkParallelism)) {
+            start(() -> handleBulk(topic, bulkProcess, group));    // each group is handled in its own action, all groups join by acquiring all permits before commit
+        }
+    }
+
+    // split by key hash to keep order of same key, messages without key are split by partition
+    Collection<List<KafkaMessage>> groups(List<KafkaMessage> messages, int parallelism) {
+        Map<Integer, List<KafkaMessage>> groups = new LinkedHashMap<>();
+        for (KafkaMessage message : messages) {
+            int hash = message.key == null ? message.partition : message.key.hashCode();
+            groups.computeIfAbsent(Math.floorMod(hash, parallelism), key -> new ArrayList<>()).add(message);
+        }
+        return groups.values();
     }
 
-    <T> void handleBulk(String topic, MessageProcess<T> process, List<KafkaMessage> messages) {
+    <T> void handleBulk(String topic, MessageProcess<T> process, List<KafkaMessage> allMessages) {
+        List<KafkaMessage> messages = process.idempotency == null ? allMessages : notDuplicated(allMessages);
+        if (messages.isEmpty()) return;
         logManager.run("message", null, actionLog -> {
             try {
                 initAction(actionLog, topic, process.handler.getClass().getCanonicalName(), process.warnings);
 
-                List<Message<T>> messageObjects = messages(messages, actionLog, process.reader);
+                List<Message<T>> messageObjects = messages(messages, actionLog, process);
                 for (Message<T> message : messageObjects) {   // validate after fromJSON, so it can track refId/correlationId
                     process.validator.validate(message.value, false);
                 }
 
-                process.bulkHandler().handle(messageObjects);
+                if (process.idempotency == null) process.bulkHandler().handle(messageObjects);
+                else process.idempotency.process(messages, () -> process.bulkHandler().handle(messageObjects));
             } catch (Throwable e) {
                 logManager.logError(e);
             }
+            record(actionLog);
             return null;
         });
     }
 
+    private List<KafkaMessage> notDuplicated(List<KafkaMessage> messages) {
+        List<KafkaMessage> results = new ArrayList<>(messages.size());
+        for (KafkaMessage message : messages) {
+            if (!message.duplicated) results.add(message);
+        }
+        return results;
+    }
+
+    private void record(ActionLog actionLog) {
+        if (adaptiveConcurrency != null) adaptiveConcurrency.record(actionLog.elapsed(), actionLog.stats.containsKey("pool_wait_time"));
+    }
+
     private void initAction(ActionLog actionLog, String topic, String handler, PerformanceWarning @Nullable [] warnings) {
         actionLog.action("topic:" + topic);
         actionLog.warningContext.maxProcessTimeInNano(listener.maxProcessTimeInNano);
@@ -277,7 +411,7 @@ class MessageListenerThread extends Thread {
         if (warnings != null) actionLog.initializeWarnings(warnings);
     }
 
-    <T> List<Message<T>> messages(List<KafkaMessage> messages, ActionLog actionLog, JSONReader<T> reader) throws IOException {
+    <T> List<Message<T>> messages(List<KafkaMessage> messages, ActionLog actionLog, MessageProcess<T> process) {
         int size = messages.size();
         List<Message<T>> messageObjects = new ArrayList<>(size);
         Set<String> correlationIds = new HashSet<>();
@@ -289,6 +423,7 @@ class MessageListenerThread extends Thread {
 
         for (KafkaMessage message : messages) {
             if (message.trace != null) actionLog.trace = message.trace;   // trigger trace if any message is trace
+            if (message.sampled != null && !Boolean.TRUE.equals(actionLog.sampled)) actionLog.sampled = message.sampled;    // capture if any message is sampled
             if (message.correlationId != null) correlationIds.add(message.correlationId);
             if (message.client != null) clients.add(message.client);
             if (message.refId != null) refIds.add(message.refId);
@@ -300,7 +435,7 @@ class MessageListenerThread extends Thread {
 
             if (minTimestamp > message.timestamp) minTimestamp = message.timestamp;
 
-            T messageObject = reader.fromJSON(message.value);
+            T messageObject = process.read(message);
             messageObjects.add(new Message<>(message.key, messageObject));
         }
         actionLog.track("kafka", 0, size, 0, totalBytes, 0);
@@ -13,6 +13,8 @@ import org.jspecify.annotations.Nullable;
 import java.lang.reflect.Method;
 import java.util.List;
 
+import static core.framework.util.Strings.format;
+
 /**
  * @author neo
  */
@@ -21,14 +23,38 @@ public class MessageProcess<T> {
     public final JSONReader<T> reader;
     public final Validator<T> validator;
     public final PerformanceWarning @Nullable [] warnings;
+    final Class<T> messageClass;
+    @Nullable
+    MessageRetry retry;
+    int bulkParallelism = 1;
+    @Nullable
+    MessageCodec<T> codec;
+    @Nullable
+    MessageIdempotency idempotency;
+    @Nullable
+    BatchWindow batchWindow;
 
     MessageProcess(Object handler, Class<T> messageClass) {
         this.handler = handler;
+        this.messageClass = messageClass;
         reader = JSONMapper.reader(messageClass);
         validator = Validator.of(messageClass);
         this.warnings = warnings(handler);
     }
 
+    void binaryCodec() {
+        codec = new MessageCodec<>(messageClass);
+    }
+
+    // accept both json and binary message, so producer can switch codec without coordinating with consumers
+    T read(KafkaMessage message) {
+        if (message.schema == null) return reader.fromJSON(message.value);
+        if (codec == null) throw new Error("binary message is not enabled, please configure kafka().binaryCodec(topic), messageClass=" + messageClass.getCanonicalName());
+        if (!codec.fingerprint.equals(message.schema))
+            throw new Error(format("incompatible message schema, messageClass={}, schema={}, expected={}", messageClass.getCanonicalName(), message.schema, codec.fingerprint));
+        return codec.decode(message.value);
+    }
+
     @SuppressWarnings("unchecked")
     public MessageHandler<T> handler() {
         return (MessageHandler<T>) handler;
@@ -1,12 +1,17 @@
 package core.framework.internal.kafka;
 
+import core.framework.kafka.KafkaException;
+import core.framework.util.Maps;
 import core.framework.util.StopWatch;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.record.CompressionType;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.jspecify.annotations.Nullable;
@@ -14,8 +19,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import static core.framework.util.Strings.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
@@ -28,36 +41,111 @@ public class MessageProducer {
     @Nullable
     private final String name;
     private final int maxRequestSize;
-    private Producer<byte[], byte[]> producer;
+    private final Semaphore inFlightBytes;
+    private final int maxInFlightBytes;
+    @Nullable
+    public String transactionalId;      // enable transactional producer, used by message listener to publish and commit offsets atomically
+    Producer<byte[], byte[]> producer;
+    private final ThreadLocal<Boolean> transactionScope = new ThreadLocal<>();      // marks handler threads of current listener transaction
+    private volatile boolean inTransaction;
 
-    public MessageProducer(KafkaURI uri, @Nullable String name, int maxRequestSize) {
+    public MessageProducer(KafkaURI uri, @Nullable String name, int maxRequestSize, int maxInFlightBytes) {
         this.uri = uri;
         this.name = name;
         this.maxRequestSize = maxRequestSize;
+        this.maxInFlightBytes = maxInFlightBytes;
+        inFlightBytes = new Semaphore(maxInFlightBytes);
         this.producerMetrics = new ProducerMetrics(name);
     }
 
     public void initialize() {
         producer = createProducer(uri);
+        if (transactionalId != null) producer.initTransactions();
     }
 
     public void send(ProducerRecord<byte[], byte[]> record) {
+        checkTransaction();
         producer.send(record, new KafkaCallback(record));
     }
 
+    // block if in flight bytes exceed budget, and wait all acks within one timeout
+    void sendAll(List<ProducerRecord<byte[], byte[]>> records, Duration timeout) throws InterruptedException {
+        checkTransaction();
+        long end = System.nanoTime() + timeout.toNanos();
+        List<Future<RecordMetadata>> results = new ArrayList<>(records.size());
+        for (ProducerRecord<byte[], byte[]> record : records) {
+            int permits = Math.min(record.value().length, maxInFlightBytes);   // allow single message larger than budget
+            if (!inFlightBytes.tryAcquire(permits, end - System.nanoTime(), TimeUnit.NANOSECONDS))
+                throw new KafkaException(format("timeout to wait for in-flight messages, topic={}, maxInFlightBytes={}", record.topic(), maxInFlightBytes));
+            try {
+                results.add(producer.send(record, new KafkaCallback(record) {
+                    @Override
+                    public void onCompletion(RecordMetadata metadata, @Nullable Exception exception) {
+                        inFlightBytes.release(permits);
+                        super.onCompletion(metadata, exception);
+                    }
+                }));
+            } catch (Throwable e) {     // e.g. record too large, callback won't be called
+                inFlightBytes.release(permits);
+                throw e;
+            }
+        }
+        for (Future<RecordMetadata> result : results) {
+            try {
+                result.get(Math.max(end - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                throw new KafkaException("failed to publish messages, error=" + e.getCause().getMessage(), e.getCause());
+            } catch (TimeoutException e) {
+                throw new KafkaException("timeout to wait for acks of published messages, timeout=" + timeout, e);
+            }
+        }
+    }
+
+    private void checkTransaction() {
+        // transactional producer only sends within handler threads of listener transaction, otherwise message from other thread (e.g. web request) silently joins the transaction
+        if (transactionalId != null && (!inTransaction || transactionScope.get() == null))
+            throw new Error("transactional publisher must be used within message handler, name=" + name);
+    }
+
+    void enterTransaction() {
+        transactionScope.set(Boolean.TRUE);
+    }
+
+    void exitTransaction() {
+        transactionScope.remove();
+    }
+
+    void beginTransaction() {
+        producer.beginTransaction();
+        inTransaction = true;
+    }
+
+    void commitTransaction(Map<TopicPartition, OffsetAndMetadata> offsets, ConsumerGroupMetadata groupMetadata) {
+        inTransaction = false;
+        producer.sendOffsetsToTransaction(offsets, groupMetadata);
+        producer.commitTransaction();
+    }
+
+    void abortTransaction() {
+        inTransaction = false;
+        producer.abortTransaction();
+    }
+
     Producer<byte[], byte[]> createProducer(KafkaURI uri) {
         var watch = new StopWatch();
         try {
-            Map<String, Object> config = Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, uri.bootstrapURIs,
-                ProducerConfig.COMPRESSION_TYPE_CONFIG, CompressionType.ZSTD.name,
-                ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 60_000,                       // 60s, DELIVERY_TIMEOUT_MS_CONFIG is INT type
-                ProducerConfig.LINGER_MS_CONFIG, 5L,                                         // use small linger time within acceptable range to improve batching
-                ProducerConfig.RECONNECT_BACKOFF_MS_CONFIG, 500L,                            // longer backoff to reduce cpu usage when kafka is not available
-                ProducerConfig.RECONNECT_BACKOFF_MAX_MS_CONFIG, 5_000L,                      // 5s
-                ProducerConfig.MAX_BLOCK_MS_CONFIG, 30_000L,                                 // 30s, metadata update timeout, shorter than default, to get exception sooner if kafka is not available
-                ProducerConfig.MAX_REQUEST_SIZE_CONFIG, maxRequestSize,
-                ProducerConfig.METRIC_REPORTER_CLASSES_CONFIG, EmptyMetricsReporter.class.getName(),
-                ProducerConfig.ENABLE_METRICS_PUSH_CONFIG, Boolean.FALSE);
+            Map<String, Object> config = Maps.newHashMapWithExpectedSize(12);
+            config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, uri.bootstrapURIs);
+            config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, CompressionType.ZSTD.name);
+            config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 60_000);                       // 60s, DELIVERY_TIMEOUT_MS_CONFIG is INT type
+            config.put(ProducerConfig.LINGER_MS_CONFIG, 5L);                                     // use small linger time within acceptable range to improve batching
+            config.put(ProducerConfig.RECONNECT_BACKOFF_MS_CONFIG, 500L);                        // longer backoff to reduce cpu usage when kafka is not available
+            config.put(ProducerConfig.RECONNECT_BACKOFF_MAX_MS_CONFIG, 5_000L);                  // 5s
+            config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 30_000L);                             // 30s, metadata update timeout, shorter than default, to get exception sooner if kafka is not available
+            config.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, maxRequestSize);
+            config.put(ProducerConfig.METRIC_REPORTER_CLASSES_CONFIG, EmptyMetricsReporter.class.getName());
+            config.put(ProducerConfig.ENABLE_METRICS_PUSH_CONFIG, Boolean.FALSE);
+            if (transactionalId != null) config.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionalId);   // idempotence is enabled by default
 
             var serializer = new ByteArraySerializer();
             var producer = new KafkaProducer<>(config, serializer, serializer);
@@ -76,7 +164,7 @@ public class MessageProducer {
         }
     }
 
-    static final class KafkaCallback implements Callback {
+    static class KafkaCallback implements Callback {
         private static final Logger LOGGER = LoggerFactory.getLogger(KafkaCallback.class);
         private final ProducerRecord<byte[], byte[]> record;
 
@@ -5,33 +5,44 @@ import core.framework.internal.json.JSONWriter;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
 import core.framework.internal.log.Trace;
+import core.framework.internal.log.TraceParent;
 import core.framework.internal.log.filter.BytesLogParam;
 import core.framework.internal.validate.Validator;
+import core.framework.kafka.Message;
 import core.framework.kafka.MessagePublisher;
 import core.framework.util.StopWatch;
 import core.framework.util.Strings;
+import core.framework.util.UUIDv7;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Headers;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author neo
  */
 public class MessagePublisherImpl<T> implements MessagePublisher<T> {
+    private static final Duration ACK_TIMEOUT = Duration.ofSeconds(60);    // same as producer delivery timeout
     private final Logger logger = LoggerFactory.getLogger(MessagePublisherImpl.class);
 
     private final MessageProducer producer;
     private final String topic;
     private final JSONWriter<T> writer;
     private final Validator<T> validator;
+    @Nullable
+    private final MessageCodec<T> codec;
 
-    public MessagePublisherImpl(MessageProducer producer, String topic, Class<T> messageClass) {
+    public MessagePublisherImpl(MessageProducer producer, String topic, Class<T> messageClass, @Nullable MessageCodec<T> codec) {
         this.producer = producer;
         this.topic = topic;
         writer = JSONMapper.writer(messageClass);
         validator = Validator.of(messageClass);
+        this.codec = codec;
     }
 
     @Override
@@ -39,7 +50,7 @@ public class MessagePublisherImpl<T> implements MessagePublisher<T> {
         var watch = new StopWatch();
         byte[] keyBytes = key == null ? null : Strings.bytes(key);
         validator.validate(value, false);
-        byte[] message = writer.toJSON(value);
+        byte[] message = codec == null ? writer.toJSON(value) : codec.encode(value);
         try {
             var record = new ProducerRecord<>(topic, null, System.currentTimeMillis(), keyBytes, message, null);
             linkContext(record.headers());
@@ -55,6 +66,38 @@ public class MessagePublisherImpl<T> implements MessagePublisher<T> {
         }
     }
 
+    @Override
+    public void publishAll(List<Message<T>> messages) {
+        var watch = new StopWatch();
+        int count = messages.size();
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>(count);
+        long timestamp = System.currentTimeMillis();
+        long totalBytes = 0;
+        int maxSize = 0;
+        for (Message<T> message : messages) {   // serialize all messages before sending, not to hold producer buffer while serializing
+            validator.validate(message.value, false);
+            byte[] value = codec == null ? writer.toJSON(message.value) : codec.encode(message.value);
+            var record = new ProducerRecord<>(topic, null, timestamp, message.key == null ? null : Strings.bytes(message.key), value, null);
+            linkContext(record.headers());
+            records.add(record);
+            totalBytes += value.length;
+            if (value.length > maxSize) maxSize = value.length;
+        }
+        try {
+            producer.sendAll(records, ACK_TIMEOUT);
+        } catch (InterruptedException e) {
+            throw new Error("interrupted during publishing messages", e);
+        } finally {
+            long elapsed = watch.elapsed();
+            logger.debug("publishAll, topic={}, count={}, size={}, elapsed={}", topic, count, totalBytes, elapsed);
+            ActionLog actionLog = LogManager.currentActionLog();
+            if (actionLog != null) {
+                trackMaxMessageSize(actionLog, maxSize);
+                actionLog.track("kafka", elapsed, 0, count, 0, totalBytes);
+            }
+        }
+    }
+
     private void trackMaxMessageSize(ActionLog actionLog, double messageSize) {
         // refer to org.apache.kafka.clients.producer.KafkaProducer.doSend
         // int serializedSize = AbstractRecords.estimateSizeInBytesUpperBound(apiVersions.maxUsableProduceMagic(), compressionType, serializedKey, serializedValue, headers);
@@ -67,12 +110,16 @@ public class MessagePublisherImpl<T> implements MessagePublisher<T> {
 
     private void linkContext(Headers headers) {
         headers.add(KafkaMessage.HEADER_CLIENT, Strings.bytes(LogManager.APP_NAME));
+        headers.add(KafkaMessage.HEADER_MESSAGE_ID, Strings.bytes(UUIDv7.randomUUID().toString()));
+        if (codec != null) headers.add(MessageCodec.HEADER_SCHEMA, Strings.bytes(codec.fingerprint));
 
         ActionLog actionLog = LogManager.currentActionLog();
         if (actionLog == null) return;      // publisher may be used without action log context
 
         headers.add(KafkaMessage.HEADER_CORRELATION_ID, Strings.bytes(actionLog.correlationId()));
         if (actionLog.trace == Trace.CASCADE) headers.add(KafkaMessage.HEADER_TRACE, Strings.bytes(actionLog.trace.name()));
+        if (actionLog.sampled != null) headers.add(KafkaMessage.HEADER_TRACE_SAMPLED, Strings.bytes(actionLog.sampled.toString()));
         headers.add(KafkaMessage.HEADER_REF_ID, Strings.bytes(actionLog.id));
+        headers.add(TraceParent.HEADER, Strings.bytes(TraceParent.format(actionLog)));
     }
 }
@@ -0,0 +1,98 @@
+package core.framework.internal.kafka;
+
+import core.framework.util.Strings;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+import static core.framework.log.Markers.errorCode;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * republish failed message to retry topic with attempts and retryAt headers, retry topic is consumed by same handler once message is due,
+ * after max attempts, publish to dead letter topic with original headers and error,
+ * it waits for ack, if failed to republish, the message is not committed and will be redelivered
+ *
+ * @author neo
+ */
+public final class MessageRetry {
+    static final String HEADER_RETRY_ATTEMPTS = "retryAttempts";
+    static final String HEADER_RETRY_AT = "retryAt";
+    static final String HEADER_ERROR = "error";
+    static final String HEADER_TOPIC = "topic";
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(60);   // same as producer delivery timeout
+
+    private final Logger logger = LoggerFactory.getLogger(MessageRetry.class);
+    private final MessageProducer producer;
+    final String topic;
+    final String retryTopic;
+    final String deadLetterTopic;
+    private final int maxAttempts;
+    private final long delayInMs;
+
+    public MessageRetry(MessageProducer producer, String topic, int maxAttempts, long delayInMs) {
+        this.producer = producer;
+        this.topic = topic;
+        retryTopic = topic + "-retry";
+        deadLetterTopic = topic + "-dlq";
+        this.maxAttempts = maxAttempts;
+        this.delayInMs = delayInMs;
+    }
+
+    // return false if failed to republish
+    boolean retry(KafkaMessage message, Throwable error) {
+        try {
+            int attempts = attempts(message);
+            long now = System.currentTimeMillis();
+            var headers = new RecordHeaders();
+            for (Header header : message.headers) {
+                String key = header.key();
+                if (!HEADER_RETRY_ATTEMPTS.equals(key) && !HEADER_RETRY_AT.equals(key) && !HEADER_ERROR.equals(key) && !HEADER_TOPIC.equals(key))
+                    headers.add(header);
+            }
+            headers.add(HEADER_TOPIC, Strings.bytes(topic));
+            headers.add(HEADER_RETRY_ATTEMPTS, Strings.bytes(String.valueOf(attempts + 1)));
+            headers.add(HEADER_ERROR, Strings.bytes(errorMessage(error)));
+
+            String targetTopic;
+            if (attempts < maxAttempts) {
+                targetTopic = retryTopic;
+                headers.add(HEADER_RETRY_AT, Strings.bytes(String.valueOf(now + delayInMs)));
+                logger.warn("retry message, topic={}, retryTopic={}, attempts={}", topic, retryTopic, attempts + 1);
+            } else {
+                targetTopic = deadLetterTopic;
+                logger.warn(errorCode("MESSAGE_DEAD_LETTERED"), "message exceeded max retry attempts, send to dead letter topic, topic={}, deadLetterTopic={}, attempts={}", topic, deadLetterTopic, attempts);
+            }
+            byte[] key = message.key == null ? null : Strings.bytes(message.key);
+            producer.sendAll(List.of(new ProducerRecord<>(targetTopic, null, now, key, message.value, headers)), SEND_TIMEOUT);
+            return true;
+        } catch (Throwable e) {
+            logger.error(errorCode("FAILED_TO_RETRY_MESSAGE"), "failed to retry message, message will be redelivered, topic={}, key={}, offset={}, error={}", topic, message.key, message.offset, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    String errorMessage(Throwable error) {
+        String message = error.getClass().getName() + ": " + error.getMessage();
+        if (message.length() > 1000) return message.substring(0, 1000);   // only keep brief error in header, full stack trace is in action log
+        return message;
+    }
+
+    int attempts(KafkaMessage message) {
+        String attempts = message.header(message.headers, HEADER_RETRY_ATTEMPTS);
+        return attempts == null ? 0 : Integer.parseInt(attempts);
+    }
+
+    // retry topic message is processed after retryAt
+    static long retryAt(Headers headers) {
+        Header header = headers.lastHeader(HEADER_RETRY_AT);
+        if (header == null) return 0;
+        return Long.parseLong(new String(header.value(), UTF_8));
+    }
+}
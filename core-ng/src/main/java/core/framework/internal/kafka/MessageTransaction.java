@@ -0,0 +1,82 @@
+package core.framework.internal.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * read-process-write within one kafka transaction per poll batch,
+ * messages published by handlers and consumed offsets are committed atomically, on failure, transaction is aborted and consumer rewinds to committed offsets
+ *
+ * @author neo
+ */
+final class MessageTransaction {
+    private final Logger logger = LoggerFactory.getLogger(MessageTransaction.class);
+    private final MessageProducer producer;
+
+    MessageTransaction(MessageProducer producer) {
+        this.producer = producer;
+    }
+
+    void begin() {
+        producer.beginTransaction();
+    }
+
+    // called on handler thread, only publishes from handler threads join the transaction
+    void enter() {
+        producer.enterTransaction();
+    }
+
+    void exit() {
+        producer.exitTransaction();
+    }
+
+    // called after all handlers completed
+    void commit(Consumer<String, byte[]> consumer) {
+        try {
+            producer.commitTransaction(positions(consumer), consumer.groupMetadata());
+        } catch (Throwable e) {
+            logger.warn(errorCode("FAILED_TO_COMMIT_TRANSACTION"), "failed to commit kafka transaction, rewind to committed offsets, error={}", e.getMessage(), e);
+            rollback(consumer);
+        }
+    }
+
+    // called if failed before commit, otherwise next begin() fails as previous transaction is still open
+    void rollback(Consumer<String, byte[]> consumer) {
+        abort();
+        rewind(consumer);
+    }
+
+    private void abort() {
+        try {
+            producer.abortTransaction();
+        } catch (Throwable e) {     // e.g. producer is fenced by other instance with same transactional id
+            logger.error(errorCode("FAILED_TO_ABORT_TRANSACTION"), "failed to abort kafka transaction, error={}", e.getMessage(), e);
+        }
+    }
+
+    Map<TopicPartition, OffsetAndMetadata> positions(Consumer<String, byte[]> consumer) {
+        Set<TopicPartition> assignment = consumer.assignment();
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(assignment.size());
+        for (TopicPartition partition : assignment) {
+            offsets.put(partition, new OffsetAndMetadata(consumer.position(partition)));
+        }
+        return offsets;
+    }
+
+    private void rewind(Consumer<String, byte[]> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(consumer.assignment());
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : committed.entrySet()) {
+            OffsetAndMetadata offset = entry.getValue();
+            if (offset != null) consumer.seek(entry.getKey(), offset.offset());    // partition without committed offset follows auto.offset.reset on reassignment
+        }
+    }
+}
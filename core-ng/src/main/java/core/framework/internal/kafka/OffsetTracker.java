@@ -0,0 +1,37 @@
+package core.framework.internal.kafka;
+
+import java.util.TreeSet;
+
+/**
+ * track offsets of one partition, messages may complete out of order, only commit contiguous processed offsets
+ *
+ * @author neo
+ */
+final class OffsetTracker {
+    private final TreeSet<Long> pendingOffsets = new TreeSet<>();
+    private long nextOffset = -1;       // next offset after all received messages
+    private long committedOffset = -1;
+
+    synchronized void add(long offset) {
+        pendingOffsets.add(offset);
+        if (offset >= nextOffset) nextOffset = offset + 1;
+    }
+
+    synchronized void complete(long offset) {
+        pendingOffsets.remove(offset);
+    }
+
+    // kafka commits offset of next message to consume, which is the lowest offset not processed yet
+    synchronized long processedOffset() {
+        if (pendingOffsets.isEmpty()) return nextOffset;
+        return pendingOffsets.first();
+    }
+
+    // return -1 if there is nothing new to commit
+    synchronized long commitOffset() {
+        long offset = processedOffset();
+        if (offset <= committedOffset) return -1;
+        committedOffset = offset;
+        return offset;
+    }
+}
@@ -0,0 +1,160 @@
+package core.framework.internal.kafka;
+
+import core.framework.internal.async.VirtualThread;
+import org.apache.kafka.common.TopicPartition;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * process messages of one partition in order, with at most one worker thread at a time,
+ * if message failed to republish for retry, lane stops and discards pending messages, until listener thread seeks partition back to failed offset
+ *
+ * @author neo
+ */
+final class PartitionLane {
+    final TopicPartition partition;
+    final OffsetTracker tracker = new OffsetTracker();
+    private final boolean bulk;
+    private final Consumer<List<KafkaMessage>> handler;
+    private final Thread.Builder.OfVirtual thread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private final Deque<KafkaMessage> messages = new ArrayDeque<>();
+    private boolean running;
+    private long failedOffset = -1;
+
+    boolean paused;     // only accessed by listener thread
+
+    PartitionLane(TopicPartition partition, boolean bulk, Consumer<List<KafkaMessage>> handler, Thread.Builder.OfVirtual thread) {
+        this.partition = partition;
+        this.bulk = bulk;
+        this.handler = handler;
+        this.thread = thread;
+    }
+
+    // called by listener thread only
+    void add(List<KafkaMessage> messages) {
+        lock.lock();
+        try {
+            if (failedOffset >= 0) return;      // will be redelivered after seeking back to failed offset
+            for (KafkaMessage message : messages) {
+                tracker.add(message.offset);
+                this.messages.add(message);
+            }
+            if (!running && !messages.isEmpty()) {
+                running = true;
+                thread.start(this::process);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int pendingMessages() {
+        lock.lock();
+        try {
+            return messages.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean idle() {
+        lock.lock();
+        try {
+            return !running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // discard messages not started yet, and wait for in-flight messages, return true if lane is idle
+    // discarded offsets stay pending in tracker, so they won't be committed and will be redelivered to next owner
+    boolean drain(long timeoutInMs) throws InterruptedException {
+        long end = System.currentTimeMillis() + timeoutInMs;
+        lock.lock();
+        try {
+            messages.clear();
+            while (running) {
+                long left = end - System.currentTimeMillis();
+                if (left <= 0) return false;
+                idle.await(left, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void process() {
+        VirtualThread.COUNT.increase();
+        try {
+            while (true) {
+                List<KafkaMessage> batch = next();
+                if (batch == null) return;
+                handler.accept(batch);      // handler catches all exceptions, failed message will be committed as same as non-pipeline process
+                for (KafkaMessage message : batch) {
+                    if (message.retryFailed) {
+                        fail(message.offset);
+                        return;
+                    }
+                    tracker.complete(message.offset);
+                }
+            }
+        } finally {
+            VirtualThread.COUNT.decrease();
+        }
+    }
+
+    // failed offset and discarded messages stay pending in tracker, so only offsets before failed one are committed
+    private void fail(long offset) {
+        lock.lock();
+        try {
+            messages.clear();
+            failedOffset = offset;
+            running = false;
+            idle.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // called by listener thread only, return offset to seek back and resume lane, or -1 if not failed
+    long resetFailedOffset() {
+        lock.lock();
+        try {
+            long offset = failedOffset;
+            failedOffset = -1;
+            return offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    private List<KafkaMessage> next() {
+        lock.lock();
+        try {
+            if (messages.isEmpty()) {
+                running = false;
+                idle.signalAll();
+                return null;
+            }
+            if (!bulk) return List.of(messages.poll());
+            List<KafkaMessage> batch = new ArrayList<>(messages);   // bulk handler takes all pending messages of partition
+            messages.clear();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package core.framework.internal.kafka;
+
+import core.framework.internal.async.ThreadPools;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * each assigned partition is processed by its own ordered lane, listener thread keeps polling while messages are in flight,
+ * partition is paused if too many messages are pending, and only fully processed offsets are committed,
+ * so one slow message only blocks its own partition
+ *
+ * @author neo
+ */
+class PartitionPipeline implements ConsumerRebalanceListener {
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);    // poll frequently to commit processed offsets in time
+
+    private final Logger logger = LoggerFactory.getLogger(PartitionPipeline.class);
+    private final Consumer<String, byte[]> consumer;
+    private final MessageListenerThread listenerThread;
+    private final MessageListener listener;
+    private final Thread.Builder.OfVirtual thread;
+    @Nullable
+    private final RetryDelay retryDelay;
+    private final Map<TopicPartition, PartitionLane> lanes = new HashMap<>();  // only accessed by listener thread, rebalance callbacks are called within poll()
+    private final Map<TopicPartition, PartitionLane> drainingLanes = new HashMap<>();     // revoked lanes with in-flight messages not completed in time
+
+    PartitionPipeline(String name, Consumer<String, byte[]> consumer, MessageListenerThread listenerThread, MessageListener listener, @Nullable RetryDelay retryDelay) {
+        this.consumer = consumer;
+        this.listenerThread = listenerThread;
+        this.listener = listener;
+        this.retryDelay = retryDelay;
+        thread = ThreadPools.virtualThreadBuilder(name + "-");
+    }
+
+    void poll() {
+        rewindFailedLanes();
+        Duration timeout = POLL_TIMEOUT;
+        if (retryDelay != null) {
+            long now = System.currentTimeMillis();
+            retryDelay.resume(consumer, now);
+            timeout = retryDelay.pollTimeout(timeout, now);
+        }
+        ConsumerRecords<String, byte[]> records = consumer.poll(timeout);
+        if (!records.isEmpty()) {
+            for (TopicPartition partition : records.partitions()) {
+                List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(partition);
+                if (retryDelay != null) partitionRecords = retryDelay.due(consumer, partition, partitionRecords, System.currentTimeMillis());
+                if (!partitionRecords.isEmpty()) lane(partition).add(messages(partition.topic(), partitionRecords));
+            }
+            logger.debug("dispatch kafka messages, count={}, partitions={}", records.count(), records.partitions().size());
+        }
+        if (!drainingLanes.isEmpty()) drainingLanes.values().removeIf(PartitionLane::idle);
+        applyBackpressure();
+        commitAsync();
+    }
+
+    private void rewindFailedLanes() {
+        for (PartitionLane lane : lanes.values()) {
+            long offset = lane.resetFailedOffset();
+            if (offset >= 0) {
+                logger.warn(errorCode("FAILED_TO_RETRY_MESSAGE"), "rewind partition to redeliver message failed to retry, partition={}, offset={}", lane.partition, offset);
+                consumer.seek(lane.partition, offset);
+            }
+        }
+    }
+
+    private List<KafkaMessage> messages(String topic, List<ConsumerRecord<String, byte[]>> records) {
+        List<KafkaMessage> messages = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            messages.add(new KafkaMessage(record));
+        }
+        MessageProcess<?> process = listener.bulkProcesses.get(topic);
+        if (process == null) process = listener.processes.get(topic);
+        if (process.idempotency != null) process.idempotency.markDuplicated(messages);   // duplicated messages stay in lane, to be tracked and committed
+        return messages;
+    }
+
+    private PartitionLane lane(TopicPartition partition) {
+        PartitionLane lane = lanes.get(partition);
+        if (lane != null) return lane;
+        awaitDrainingLane(partition);
+        String topic = partition.topic();
+        MessageProcess<?> bulkProcess = listener.bulkProcesses.get(topic);
+        if (bulkProcess != null) {
+            lane = new PartitionLane(partition, true, messages -> listenerThread.handleBulk(topic, bulkProcess, messages), thread);
+        } else {
+            MessageProcess<?> process = listener.processes.get(topic);
+            lane = new PartitionLane(partition, false, messages -> listenerThread.handleSingle(topic, process, messages.getFirst()), thread);
+        }
+        lanes.put(partition, lane);
+        return lane;
+    }
+
+    // partition is reassigned while worker of revoked lane is still running, wait for it, to keep at most one worker per partition
+    private void awaitDrainingLane(TopicPartition partition) {
+        PartitionLane previous = drainingLanes.remove(partition);
+        if (previous == null) return;
+        try {
+            while (!previous.drain(listener.maxProcessTimeInNano / 1_000_000)) {
+                logger.warn(errorCode("FAILED_TO_DRAIN_PARTITION"), "wait for in-flight messages of revoked partition, partition={}", partition);
+            }
+        } catch (InterruptedException e) {
+            logger.warn(e.getMessage(), e);
+        }
+    }
+
+    void applyBackpressure() {
+        int maxPendingMessages = listener.maxPollRecords;   // allow one more poll batch to be queued for each partition
+        for (PartitionLane lane : lanes.values()) {
+            int pendingMessages = lane.pendingMessages();
+            if (pendingMessages >= maxPendingMessages) {
+                if (!lane.paused) logger.debug("pause partition, partition={}, pendingMessages={}", lane.partition, pendingMessages);
+                consumer.pause(Set.of(lane.partition));     // pause again in case it was resumed by retry delay
+                lane.paused = true;
+            } else if (lane.paused && pendingMessages < maxPendingMessages / 2) {
+                lane.paused = false;
+                if (retryDelay != null && retryDelay.paused(lane.partition)) continue;  // retry delay resumes it once message is due
+                logger.debug("resume partition, partition={}, pendingMessages={}", lane.partition, pendingMessages);
+                consumer.resume(Set.of(lane.partition));
+            }
+        }
+    }
+
+    private void commitAsync() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsets(lanes.values());
+        if (!offsets.isEmpty()) consumer.commitAsync(offsets, null);  // failed commit will be covered by next commit with higher offset
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> offsets(Collection<PartitionLane> lanes) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (PartitionLane lane : lanes) {
+            long offset = lane.tracker.commitOffset();
+            if (offset >= 0) offsets.put(lane.partition, new OffsetAndMetadata(offset));
+        }
+        return offsets;
+    }
+
+    // wait for in-flight messages of given partitions and commit processed offsets, messages not started will be redelivered
+    private void drain(Collection<TopicPartition> partitions, long timeoutInMs) {
+        Map<TopicPartition, PartitionLane> drainedLanes = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionLane lane = lanes.remove(partition);
+            if (lane == null) continue;
+            drainedLanes.put(partition, lane);
+            try {
+                if (!lane.drain(timeoutInMs)) {
+                    logger.warn(errorCode("FAILED_TO_DRAIN_PARTITION"), "in-flight messages are not completed in time, partition={}", partition);
+                    drainingLanes.put(partition, lane);
+                }
+            } catch (InterruptedException e) {
+                logger.warn(e.getMessage(), e);
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsets(drainedLanes.values());
+        if (!offsets.isEmpty()) {
+            logger.info("commit offsets of drained partitions, offsets={}", offsets);
+            consumer.commitSync(offsets);
+        }
+    }
+
+    void close() {
+        try {
+            drain(Set.copyOf(lanes.keySet()), listener.maxProcessTimeInNano / 1_000_000);
+        } catch (Throwable e) {     // e.g. WakeupException if shutdown() is called during commitSync, uncommitted messages will be redelivered
+            logger.warn("failed to commit offsets on close, error={}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        logger.info("partitions revoked, partitions={}", partitions);
+        drain(partitions, listener.maxProcessTimeInNano / 1_000_000);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        logger.info("partitions assigned, partitions={}", partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        logger.warn("partitions lost, partitions={}", partitions);
+        for (TopicPartition partition : partitions) {
+            PartitionLane lane = lanes.remove(partition);
+            if (lane != null) {
+                try {
+                    if (!lane.drain(0)) drainingLanes.put(partition, lane);     // not able to commit lost partitions, just discard pending messages
+                } catch (InterruptedException e) {
+                    logger.warn(e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
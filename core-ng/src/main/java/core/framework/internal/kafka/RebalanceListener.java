@@ -0,0 +1,72 @@
+package core.framework.internal.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * rebalance callbacks are called within poll(), when all messages of previous poll are processed, so only need to commit revoked partitions synchronously,
+ * in case previous commitAsync is not completed yet, with cooperative assignor, only revoked partitions are passed in, others keep being consumed,
+ * messages buffered in batch window of revoked partitions are discarded and redelivered to next owner
+ *
+ * @author neo
+ */
+final class RebalanceListener implements ConsumerRebalanceListener {
+    private final Logger logger = LoggerFactory.getLogger(RebalanceListener.class);
+    private final Consumer<String, byte[]> consumer;
+    private final List<BatchWindow> batchWindows;
+
+    RebalanceListener(Consumer<String, byte[]> consumer, List<BatchWindow> batchWindows) {
+        this.consumer = consumer;
+        this.batchWindows = batchWindows;
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        logger.info("partitions revoked, partitions={}", partitions);
+        if (partitions.isEmpty()) return;   // cooperative assignor calls with empty partitions on every rebalance
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(partitions.size());
+        for (TopicPartition partition : partitions) {
+            long offset = consumer.position(partition);
+            Long bufferedOffset = revoke(partition);    // buffered messages are not handled, commit before them to let next owner handle
+            offsets.put(partition, new OffsetAndMetadata(bufferedOffset == null ? offset : Math.min(offset, bufferedOffset)));
+        }
+        try {
+            consumer.commitSync(offsets);
+        } catch (Throwable e) {     // uncommitted messages will be redelivered to next owner
+            logger.warn("failed to commit offsets of revoked partitions, offsets={}, error={}", offsets, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        logger.info("partitions assigned, partitions={}", partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        logger.warn("partitions lost, partitions={}", partitions);   // not able to commit lost partitions, messages will be redelivered to next owner
+        for (TopicPartition partition : partitions) {
+            revoke(partition);
+        }
+    }
+
+    @Nullable
+    private Long revoke(TopicPartition partition) {
+        Long minOffset = null;
+        for (BatchWindow window : batchWindows) {
+            Long offset = window.revoke(partition);
+            if (offset != null && (minOffset == null || offset < minOffset)) minOffset = offset;
+        }
+        return minOffset;
+    }
+}
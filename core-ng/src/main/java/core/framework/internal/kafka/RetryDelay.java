@@ -0,0 +1,77 @@
+package core.framework.internal.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * hold back retry topic messages until due, by seeking back to first message not due and pausing its partition,
+ * messages in retry topic are in retryAt order per partition, so other partitions and main topic are not blocked
+ *
+ * @author neo
+ */
+final class RetryDelay {
+    private final Logger logger = LoggerFactory.getLogger(RetryDelay.class);
+    private final Set<String> retryTopics;
+    private final Map<TopicPartition, Long> resumeTimes = new HashMap<>();   // only accessed by listener thread
+
+    RetryDelay(Set<String> retryTopics) {
+        this.retryTopics = retryTopics;
+    }
+
+    // return messages due to process
+    List<ConsumerRecord<String, byte[]>> due(Consumer<String, byte[]> consumer, TopicPartition partition, List<ConsumerRecord<String, byte[]>> records, long now) {
+        if (!retryTopics.contains(partition.topic())) return records;
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, byte[]> record = records.get(i);
+            long retryAt = MessageRetry.retryAt(record.headers());
+            if (retryAt > now) {
+                logger.debug("pause retry partition until due, partition={}, offset={}, retryAt={}", partition, record.offset(), retryAt);
+                consumer.seek(partition, record.offset());
+                consumer.pause(Set.of(partition));
+                resumeTimes.put(partition, retryAt);
+                return records.subList(0, i);
+            }
+        }
+        return records;
+    }
+
+    void resume(Consumer<String, byte[]> consumer, long now) {
+        if (resumeTimes.isEmpty()) return;
+        Set<TopicPartition> assignment = consumer.assignment();
+        Iterator<Map.Entry<TopicPartition, Long>> iterator = resumeTimes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TopicPartition, Long> entry = iterator.next();
+            TopicPartition partition = entry.getKey();
+            if (!assignment.contains(partition)) {      // partition was revoked, new owner starts from committed offset
+                iterator.remove();
+            } else if (entry.getValue() <= now) {
+                logger.debug("resume retry partition, partition={}", partition);
+                consumer.resume(Set.of(partition));
+                iterator.remove();
+            }
+        }
+    }
+
+    boolean paused(TopicPartition partition) {
+        return resumeTimes.containsKey(partition);
+    }
+
+    // poll timeout must not delay resuming retry partitions
+    Duration pollTimeout(Duration timeout, long now) {
+        long timeoutInMs = timeout.toMillis();
+        for (long resumeTime : resumeTimes.values()) {
+            timeoutInMs = Math.min(timeoutInMs, Math.max(resumeTime - now, 0));
+        }
+        return Duration.ofMillis(timeoutInMs);
+    }
+}
@@ -3,6 +3,7 @@ package core.framework.internal.log;
 import core.framework.log.Markers;
 import core.framework.util.Strings;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Marker;
 
 import java.text.DecimalFormat;
 import java.time.Instant;
@@ -32,12 +33,16 @@ public final class ActionLog {
     public final WarningContext warningContext;
 
     final Map<String, PerformanceStat> performanceStats;
-    private final List<LogEvent> events;
+    private final TraceBuffer events;
     private final long startTime;
+    private final long startCPUTime;
+    private final long startAllocatedBytes;
     public LogLevel result = LogLevel.INFO;
     public Trace trace = Trace.NONE;        // whether flush trace log for all subsequent actions
     public String action = "unassigned";
     @Nullable
+    public Boolean sampled;                 // head sampling decision of the chain, false means not to capture debug/info events, null means no sampling applies
+    @Nullable
     public List<String> correlationIds;     // with bulk message handler, there will be multiple correlationIds handled by one batch
     @Nullable
     public List<String> clients;
@@ -45,37 +50,59 @@ public final class ActionLog {
     public List<String> refIds;
     @Nullable
     public String errorMessage;
+    @Nullable
+    public String traceId;                  // w3c trace context propagated from upstream, refer to TraceParent
+    @Nullable
+    public String parentSpanId;
+    @Nullable
+    public Map<Object, Object> memo;     // action scoped memo, e.g. db query results, released when action ends
     long elapsed;
+    long slowTraceThresholdInNano;          // tail sampling, keep trace if elapsed is over threshold
     @Nullable
     private String errorCode;
 
     public ActionLog(String message, @Nullable String id) {
         startTime = System.nanoTime();
+        startCPUTime = ThreadUsage.cpuTime();
+        startAllocatedBytes = ThreadUsage.allocatedBytes();
         date = Instant.now();
         if (id == null) {
             this.id = LogManager.ID_GENERATOR.next(date);
         } else {
             this.id = id;   // in executor, id is generated in advance to link parent and task
         }
-        events = new ArrayList<>(32);   // according to benchmark, ArrayList is as fast as LinkedList with max 3000 items, and has smaller memory footprint
+        events = new TraceBuffer(startTime);
         context = new HashMap<>();  // default capacity is 16, no need to keep insertion order, kibana will sort all keys on display
         stats = new HashMap<>();
         performanceStats = new HashMap<>();
         warningContext = new WarningContext();
 
-        add(event(message));
-        add(event("id={}", this.id));
-        add(event("date={}", DateTimeFormatter.ISO_INSTANT.format(date)));
-        add(event("thread={}", Thread.currentThread().getName()));
+        add(message);
+        add("id={}", this.id);
+        add("date={}", DateTimeFormatter.ISO_INSTANT.format(date));
+        add("thread={}", Thread.currentThread().getName());
+    }
+
+    // debug/info event doesn't change result, add to trace directly without creating LogEvent
+    void process(String logger, @Nullable Marker marker, LogLevel level, String message, Object @Nullable [] arguments, @Nullable Throwable exception) {
+        if (events.size < SOFT_EVENTS_LIMIT && capture()) {
+            events.add(System.nanoTime(), logger, marker, level, message, arguments, exception);
+        }
     }
 
     void process(LogEvent event) {
+        if (event.suppressed) {     // repeated warning (never error) is kept in trace as info event, not to raise result
+            if (events.size < SOFT_EVENTS_LIMIT && capture()) add(event);
+            return;
+        }
         if (event.level.value > result.value) {
             result = event.level;
             errorCode = event.errorCode();      // only update errorCode/message if level raised, so errorCode will be first WARN or ERROR
             errorMessage = Strings.truncate(event.message(), MAX_CONTEXT_VALUE_LENGTH);     // limit error message length in action log
         }
-        if (event.level.value >= WARN.value || events.size() < SOFT_EVENTS_LIMIT) {       // after reach max holding lines, only add warning/error events
+        if (event.level.value >= WARN.value) {
+            add(event);
+        } else if (events.size < SOFT_EVENTS_LIMIT && capture()) {       // after reach max holding lines, only add warning/error events
             add(event);
         }
     }
@@ -86,25 +113,38 @@ public final class ActionLog {
         }
 
         elapsed = elapsed();
-        add(event("elapsed={}", elapsed));
+        add("elapsed={}", elapsed);
+        trackThreadUsage();
         warningContext.checkMaxProcessTime(elapsed);
 
-        add(event(message));
+        add(message);
+    }
+
+    private void trackThreadUsage() {    // action starts and ends on same thread
+        long cpuTime = ThreadUsage.used(startCPUTime, ThreadUsage.cpuTime());
+        if (cpuTime >= 0) stats.put("cpu_time", (double) cpuTime);
+        long allocatedBytes = ThreadUsage.used(startAllocatedBytes, ThreadUsage.allocatedBytes());
+        if (allocatedBytes >= 0) stats.put("alloc_bytes", (double) allocatedBytes);
     }
 
     public long elapsed() {
         return System.nanoTime() - startTime;
     }
 
-    private void add(LogEvent event) {  // log inside action log will call this to add log event directly, so internal message won't be suspended
+    private void add(LogEvent event) {
         events.add(event);
-        if (events.size() == SOFT_EVENTS_LIMIT) {
-            events.add(event("...(soft trace limit reached)"));
-        }
+        checkSoftLimit();
     }
 
-    private LogEvent event(String message, Object... arguments) {
-        return new LogEvent(LOGGER, null, DEBUG, message, arguments, null);
+    private void add(String message, Object... arguments) {  // log inside action log will call this to add event directly, so internal message won't be suspended
+        events.add(System.nanoTime(), LOGGER, null, DEBUG, message, arguments, null);
+        checkSoftLimit();
+    }
+
+    private void checkSoftLimit() {
+        if (events.size == SOFT_EVENTS_LIMIT) {
+            events.add(System.nanoTime(), LOGGER, null, DEBUG, "...(soft trace limit reached)", null, null);
+        }
     }
 
     String result() {
@@ -112,8 +152,13 @@ public final class ActionLog {
         return result.name();
     }
 
+    private boolean capture() {
+        return trace != Trace.NONE || !Boolean.FALSE.equals(sampled);
+    }
+
     boolean flushTraceLog() {
-        return trace != Trace.NONE || result.value >= WARN.value;
+        return trace != Trace.NONE || result.value >= WARN.value
+               || slowTraceThresholdInNano > 0 && elapsed > slowTraceThresholdInNano;
     }
 
     @Nullable
@@ -138,13 +183,13 @@ public final class ActionLog {
                 contextValues.add(contextValue);
             }
         }
-        add(event("[context] {}={}", key, values.length == 1 ? values[0] : values));
+        add("[context] {}={}", key, values.length == 1 ? values[0] : values);
     }
 
     public void stat(String key, double value) {
         stats.compute(key, (k, oldValue) -> (oldValue == null) ? value : oldValue + value);
         var format = new DecimalFormat();
-        add(event("[stat] {}={}", key, format.format(value)));
+        add("[stat] {}={}", key, format.format(value));
     }
 
     public void initializeWarnings(PerformanceWarning[] warnings) {
@@ -170,8 +215,14 @@ public final class ActionLog {
     }
 
     public void action(String action) {
-        add(event("action={}", action));
+        add("action={}", action);
         this.action = action;
+
+        TraceSampling.Rule rule = LogManager.SAMPLING.rule(action);
+        if (rule != null) {
+            slowTraceThresholdInNano = rule.slowThresholdInNano();
+            if (sampled == null) sampled = rule.sample();   // follow decision from upstream if propagated
+        }
     }
 
     public long remainingProcessTimeInNano() {
@@ -181,11 +232,7 @@ public final class ActionLog {
     }
 
     public String trace() {
-        var builder = new StringBuilder(events.size() << 7);  // length * 128 as rough initial capacity
-        for (LogEvent event : events) {
-            event.appendTrace(builder, startTime);
-        }
-        return builder.toString();
+        return events.render();
     }
 
     public PerformanceWarning @Nullable [] warnings() {
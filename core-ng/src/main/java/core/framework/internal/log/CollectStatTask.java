@@ -14,11 +14,13 @@ import java.time.Instant;
 public final class CollectStatTask implements Runnable {
     private final LogAppender appender;
     private final StatCollector collector;
+    private final LatencyRecorder latencyRecorder;
     private int count;
 
-    public CollectStatTask(LogAppender appender, StatCollector collector) {
+    public CollectStatTask(LogAppender appender, StatCollector collector, LatencyRecorder latencyRecorder) {
         this.appender = appender;
         this.collector = collector;
+        this.latencyRecorder = latencyRecorder;
     }
 
     @Override
@@ -26,11 +28,13 @@ public final class CollectStatTask implements Runnable {
         var stats = new Stats();
         collector.collectJVMUsage(stats);
         collector.collectMetrics(stats);
+        LogManager.AGGREGATOR.collect(stats);
         if (count % 6 == 0) {   // every 60s
             collector.collectMemoryUsage(stats);
         }
         count++;
         StatMessage message = message(stats);
+        message.histograms = latencyRecorder.collect();
         appender.append(message);
     }
 
@@ -7,15 +7,25 @@ import java.net.SocketException;
 import java.time.Instant;
 import java.util.Enumeration;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
 /**
+ * id = 40 bits time in ms + 24 bits machine id + 4 bits stripe + 12 bits sequence, encoded as 20 hex chars,
+ * ids are sortable by time, and monotonic within same stripe (same thread)
+ *
  * @author neo
  */
 public class IdGenerator {
+    private static final byte[] HEX_CHARS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
     private static final int LOW_ORDER_THREE_BYTES = 0xFFFFFF;
+    private static final int STRIPES = 16;
+    private static final int PADDING = 8;               // 8 longs = 64 bytes cache line, to avoid false sharing between stripes
+    private static final int SEQUENCE_BITS = 12;        // 4096 ids per ms per stripe, if exceeded, borrow next ms
 
-    private final AtomicInteger counter = new AtomicInteger(ThreadLocalRandom.current().nextInt());
+    // each stripe keeps last (time << SEQUENCE_BITS | sequence), to avoid contention on single counter with many threads
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES * PADDING);
     private final int machineIdentifier = machineIdentifier() & LOW_ORDER_THREE_BYTES;
 
     private int machineIdentifier() {
@@ -37,19 +47,34 @@ public class IdGenerator {
 
     // action id doesn't need strict uniqueness as UUID, here to generate shorter and more elasticsearch/lucene friendly id
     public String next(Instant now) {
-        long time = now.toEpochMilli();
-        int counter = this.counter.getAndIncrement() & LOW_ORDER_THREE_BYTES;
-        byte[] bytes = new byte[10];
-        bytes[0] = (byte) (time >> 32);     // save 5 bytes time in ms, about 34 years value space
-        bytes[1] = (byte) (time >> 24);
-        bytes[2] = (byte) (time >> 16);
-        bytes[3] = (byte) (time >> 8);
-        bytes[4] = (byte) time;
-        bytes[5] = (byte) (machineIdentifier >> 16);   // 3 bytes as machine id, about 16M value space
-        bytes[6] = (byte) (machineIdentifier >> 8);
-        bytes[7] = (byte) machineIdentifier;
-        bytes[8] = (byte) (counter >> 8);               // 2 bytes for max 65k actions per ms per server
-        bytes[9] = (byte) counter;
-        return Encodings.hex(bytes);
+        int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        long value = nextValue(stripe, now.toEpochMilli());
+
+        // String always copies its source, so one short-lived byte[] is the floor without jdk internals,
+        // ISO_8859_1 maps to compact latin1 string with plain array copy, skips ascii validation and char[] inflation
+        byte[] chars = new byte[20];
+        write(chars, 0, value >>> SEQUENCE_BITS, 10);  // 5 bytes time in ms, about 34 years value space
+        write(chars, 10, machineIdentifier, 6);         // 3 bytes as machine id, about 16M value space
+        chars[16] = HEX_CHARS[stripe];
+        write(chars, 17, value, 3);
+        return new String(chars, ISO_8859_1);
+    }
+
+    // time never goes backward within stripe, if clock is adjusted back or sequence is exhausted, continue from last value
+    long nextValue(int stripe, long time) {
+        int index = stripe * PADDING;
+        long current = time << SEQUENCE_BITS;
+        while (true) {
+            long last = stripes.get(index);
+            long next = Math.max(last + 1, current);
+            if (stripes.compareAndSet(index, last, next)) return next;
+        }
+    }
+
+    private void write(byte[] chars, int offset, long value, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = HEX_CHARS[(int) value & 0xF];
+            value >>>= 4;
+        }
     }
 }
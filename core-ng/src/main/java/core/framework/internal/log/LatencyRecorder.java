@@ -0,0 +1,62 @@
+package core.framework.internal.log;
+
+import core.framework.internal.stat.LatencyHistogram;
+import core.framework.log.message.LatencyHistogramMessage;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * record latency of action elapsed and performance stats by action, flushed with stat message
+ *
+ * @author neo
+ */
+public final class LatencyRecorder {
+    private static final String ELAPSED = "elapsed";
+    private static final int MAX_ACTIONS = 1000;    // action names are bounded by routes/topics/jobs, this is to protect memory in case of unexpected dynamic action names
+
+    private final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    void record(ActionLog log) {
+        Map<String, LatencyHistogram> actionHistograms = histograms.get(log.action);
+        if (actionHistograms == null) {
+            if (histograms.size() >= MAX_ACTIONS) return;
+            actionHistograms = histograms.computeIfAbsent(log.action, key -> new ConcurrentHashMap<>());
+        }
+        histogram(actionHistograms, ELAPSED).record(log.elapsed);
+        for (Map.Entry<String, PerformanceStat> entry : log.performanceStats.entrySet()) {
+            PerformanceStat stat = entry.getValue();
+            if (stat.count == 0) continue;
+            histogram(actionHistograms, entry.getKey()).record(stat.totalElapsed);
+        }
+    }
+
+    private LatencyHistogram histogram(Map<String, LatencyHistogram> histograms, String operation) {
+        LatencyHistogram histogram = histograms.get(operation);
+        if (histogram != null) return histogram;
+        return histograms.computeIfAbsent(operation, key -> new LatencyHistogram());
+    }
+
+    @Nullable
+    public List<LatencyHistogramMessage> collect() {
+        List<LatencyHistogramMessage> messages = new ArrayList<>();
+        for (Map.Entry<String, Map<String, LatencyHistogram>> actionEntry : histograms.entrySet()) {
+            for (Map.Entry<String, LatencyHistogram> entry : actionEntry.getValue().entrySet()) {
+                LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+                if (snapshot.count() == 0) continue;
+                var message = new LatencyHistogramMessage();
+                message.action = actionEntry.getKey();
+                message.operation = entry.getKey();
+                message.count = snapshot.count();
+                message.buckets = snapshot.buckets();
+                message.counts = snapshot.counts();
+                messages.add(message);
+            }
+        }
+        if (messages.isEmpty()) return null;
+        return messages;
+    }
+}
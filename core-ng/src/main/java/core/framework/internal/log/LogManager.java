@@ -1,6 +1,7 @@
 package core.framework.internal.log;
 
 import core.framework.internal.log.filter.LogFilter;
+import core.framework.internal.stat.VirtualThreadMonitor;
 import core.framework.log.ErrorCode;
 import core.framework.log.LogAppender;
 import core.framework.log.Markers;
@@ -10,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 
@@ -23,6 +25,8 @@ public class LogManager {
 
     public static final IdGenerator ID_GENERATOR = new IdGenerator();
     static final LogFilter FILTER = new LogFilter();
+    static final TraceSampling SAMPLING = new TraceSampling();
+    static final WarningAggregator AGGREGATOR = new WarningAggregator();
     private static final Logger LOGGER = LoggerFactory.getLogger(LogManager.class);
     private static final ScopedValue<ActionLog> CURRENT_ACTION_LOG = ScopedValue.newInstance();
 
@@ -52,9 +56,14 @@ public class LogManager {
         return CURRENT_ACTION_LOG.get();
     }
 
+    public final LatencyRecorder latencyRecorder = new LatencyRecorder();
     private final ActionLogMessageFactory actionLogMessageFactory = new ActionLogMessageFactory();
     @Nullable
     public LogAppender appender;
+    @Nullable
+    public SpanExporter spanExporter;
+    @Nullable
+    public VirtualThreadMonitor virtualThreadMonitor;
 
     // this is internal api, to simplify the design, task must not throw exceptions, all callers catch throwable and log error
     // if task throws exception, current action log may not be marked as error
@@ -64,8 +73,10 @@ public class LogManager {
             try {
                 return task.call(log);
             } finally {
+                if (virtualThreadMonitor != null) trackPinnedTime(log, virtualThreadMonitor);
                 log.end("=== " + action + " end ===");
                 appendLog(log);
+                if (spanExporter != null) spanExporter.export(log);
             }
         });
     }
@@ -73,6 +84,7 @@ public class LogManager {
     private void appendLog(ActionLog log) {
         if (appender != null) {
             try {
+                latencyRecorder.record(log);    // histograms are only flushed with appender, refer to CollectStatTask
                 appender.append(actionLogMessageFactory.create(log));
             } catch (Throwable e) {
                 LOGGER.warn("failed to append action log, error={}", e.getMessage(), e);
@@ -80,6 +92,15 @@ public class LogManager {
         }
     }
 
+    private void trackPinnedTime(ActionLog log, VirtualThreadMonitor monitor) {   // action starts and ends on same thread
+        long pinnedTime = monitor.pinnedTime(Thread.currentThread().threadId(), log.date.toEpochMilli());
+        if (pinnedTime <= 0) return;
+        log.stat("pinned_time", pinnedTime);
+        if (pinnedTime > monitor.pinnedTimeThresholdInNano) {
+            LOGGER.warn(Markers.errorCode("VIRTUAL_THREAD_PINNED"), "virtual thread was pinned too long, pinnedTime={}", Duration.ofNanos(pinnedTime));
+        }
+    }
+
     public void logError(Throwable e) {
         String errorMessage = e.getMessage();
         Marker marker = Markers.errorCode(errorCode(e));
@@ -98,6 +119,15 @@ public class LogManager {
         Collections.addAll(FILTER.maskedFields, fields);
     }
 
+    public void sampleTrace(String actionPrefix, double rate, long slowThresholdInNano) {
+        SAMPLING.add(actionPrefix, rate, slowThresholdInNano);
+    }
+
+    // errorCode = null means default for all warn/error events
+    public void aggregateWarnings(@Nullable String errorCode, int maxOccurrences) {
+        AGGREGATOR.add(errorCode, maxOccurrences);
+    }
+
     @FunctionalInterface
     public interface ActionLogCallable<T> {
         T call(ActionLog actionLog);
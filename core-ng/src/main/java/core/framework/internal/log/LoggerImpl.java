@@ -41,12 +41,17 @@ public final class LoggerImpl extends AbstractLogger {
     @Override
     public void log(@Nullable Marker marker, LogLevel level, String message, @Nullable Object[] arguments, @Nullable Throwable exception) {
         if (level.value >= traceLevel.value) {
-            var event = new LogEvent(name, marker, level, message, arguments, exception);
-
             ActionLog actionLog = LogManager.currentActionLog();
+            if (level.value < infoLevel.value && level.value < LogLevel.WARN.value) {    // trace only event, not to be aggregated or printed, most of debug logs go this path
+                if (actionLog != null) actionLog.process(name, marker, level, message, arguments, exception);
+                return;
+            }
+
+            var event = new LogEvent(name, marker, level, message, arguments, exception);
+            event.suppressed = LogManager.AGGREGATOR.suppress(event, actionLog == null ? null : actionLog.id, System.currentTimeMillis());
             if (actionLog != null) actionLog.process(event);    // logManager.begin() may not be called
 
-            if (level.value >= infoLevel.value) {
+            if (level.value >= infoLevel.value && !event.suppressed) {
                 write(event);
             }
         }
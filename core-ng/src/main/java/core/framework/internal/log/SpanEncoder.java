@@ -0,0 +1,121 @@
+package core.framework.internal.log;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * encode action log into OTLP/JSON spans, refer to https://opentelemetry.io/docs/specs/otlp/#json-protobuf-encoding,
+ * action is mapped to one span, each tracked external operation (db, redis, http, kafka...) is mapped to one child span,
+ * as performance stat only keeps total elapsed of all calls, child span starts with action and lasts total elapsed
+ *
+ * @author neo
+ */
+final class SpanEncoder {
+    // refer to opentelemetry.proto.trace.v1.Span.SpanKind
+    private static final int KIND_INTERNAL = 1;
+    private static final int KIND_SERVER = 2;
+    private static final int KIND_CLIENT = 3;
+    private static final int KIND_CONSUMER = 5;
+    private static final long SPAN_ID_MIXER = 0x9E3779B97F4A7C15L;
+
+    static void appendString(StringBuilder builder, @Nullable String value) {
+        builder.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                switch (ch) {
+                    case '"' -> builder.append("\\\"");
+                    case '\\' -> builder.append("\\\\");
+                    case '\n' -> builder.append("\\n");
+                    case '\r' -> builder.append("\\r");
+                    case '\t' -> builder.append("\\t");
+                    default -> {
+                        if (ch < 0x20) {
+                            builder.append(String.format("\\u%04x", (int) ch));
+                        } else {
+                            builder.append(ch);
+                        }
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+
+    static void appendAttribute(StringBuilder builder, String key, @Nullable String value) {
+        if (builder.charAt(builder.length() - 1) != '[') builder.append(',');
+        builder.append("{\"key\":");
+        appendString(builder, key);
+        builder.append(",\"value\":{\"stringValue\":");
+        appendString(builder, value);
+        builder.append("}}");
+    }
+
+    static void appendAttribute(StringBuilder builder, String key, long value) {
+        if (builder.charAt(builder.length() - 1) != '[') builder.append(',');
+        builder.append("{\"key\":");
+        appendString(builder, key);
+        builder.append(",\"value\":{\"intValue\":\"").append(value).append("\"}}");    // int64 is encoded as string in protobuf json
+    }
+
+    static int kind(String action) {
+        if (action.startsWith("api:") || action.startsWith("http:")) return KIND_SERVER;
+        if (action.startsWith("topic:")) return KIND_CONSUMER;
+        return KIND_INTERNAL;
+    }
+
+    // return comma separated span json objects
+    String encode(ActionLog log) {
+        String traceId = TraceParent.traceId(log);
+        String spanId = TraceParent.spanId(log.id);
+        long startTime = log.date.getEpochSecond() * 1_000_000_000 + log.date.getNano();
+
+        var builder = new StringBuilder(512);
+        builder.append("{\"traceId\":\"").append(traceId)
+            .append("\",\"spanId\":\"").append(spanId).append('"');
+        String parentSpanId = TraceParent.parentSpanId(log);
+        if (parentSpanId != null) builder.append(",\"parentSpanId\":\"").append(parentSpanId).append('"');
+        builder.append(",\"name\":");
+        appendString(builder, log.action);
+        builder.append(",\"kind\":").append(kind(log.action))
+            .append(",\"startTimeUnixNano\":\"").append(startTime)
+            .append("\",\"endTimeUnixNano\":\"").append(startTime + log.elapsed)
+            .append("\",\"attributes\":[");
+        appendAttribute(builder, "core.action_id", log.id);
+        appendAttribute(builder, "core.result", log.result());
+        String errorCode = log.errorCode();
+        if (errorCode != null) appendAttribute(builder, "core.error_code", errorCode);
+        builder.append("],\"status\":{");
+        if (log.result == LogLevel.ERROR) {
+            builder.append("\"code\":2,\"message\":");     // STATUS_CODE_ERROR
+            appendString(builder, log.errorMessage);
+        }
+        builder.append("}}");
+
+        long parentId = Long.parseUnsignedLong(spanId, 16);
+        int index = 0;
+        for (Map.Entry<String, PerformanceStat> entry : log.performanceStats.entrySet()) {
+            PerformanceStat stat = entry.getValue();
+            if (stat.count == 0) continue;
+            index++;
+            String childSpanId = String.format("%016x", parentId ^ (SPAN_ID_MIXER * index));
+            builder.append(",{\"traceId\":\"").append(traceId)
+                .append("\",\"spanId\":\"").append(childSpanId)
+                .append("\",\"parentSpanId\":\"").append(spanId)
+                .append("\",\"name\":");
+            appendString(builder, entry.getKey());
+            builder.append(",\"kind\":").append(KIND_CLIENT)
+                .append(",\"startTimeUnixNano\":\"").append(startTime)
+                .append("\",\"endTimeUnixNano\":\"").append(startTime + stat.totalElapsed)
+                .append("\",\"attributes\":[");
+            appendAttribute(builder, "core.count", stat.count);
+            if (stat.readEntries > 0) appendAttribute(builder, "core.read_entries", stat.readEntries);
+            if (stat.writeEntries > 0) appendAttribute(builder, "core.write_entries", stat.writeEntries);
+            if (stat.readBytes > 0) appendAttribute(builder, "core.read_bytes", stat.readBytes);
+            if (stat.writeBytes > 0) appendAttribute(builder, "core.write_bytes", stat.writeBytes);
+            builder.append("]}");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package core.framework.internal.log;
+
+import core.framework.util.Network;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * export action logs as OTLP spans in batch, spans are dropped if queue is full or sink failed, not to impact app
+ *
+ * @author neo
+ */
+public final class SpanExporter {
+    static final int MAX_BATCH_SIZE = 512;
+
+    final BlockingQueue<String> spans;
+    final LongAdder dropped = new LongAdder();
+    private final Logger logger = LoggerFactory.getLogger(SpanExporter.class);
+    private final SpanEncoder encoder = new SpanEncoder();
+    private final SpanSink sink;
+    private final Thread exporterThread;
+    private volatile boolean stop;
+
+    public SpanExporter(SpanSink sink, int queueCapacity) {
+        this.sink = sink;
+        spans = new ArrayBlockingQueue<>(queueCapacity);
+        exporterThread = Thread.ofPlatform().name("span-exporter").unstarted(this::process);
+    }
+
+    void export(ActionLog log) {
+        if (!spans.offer(encoder.encode(log))) dropped.increment();
+    }
+
+    private void process() {
+        logger.info("span exporter thread started, sink={}", sink);
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (!stop) {
+            try {
+                String span = spans.poll(1, TimeUnit.SECONDS);
+                if (span == null) continue;
+                batch.add(span);
+                spans.drainTo(batch, MAX_BATCH_SIZE - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                if (!stop) logger.warn("span exporter thread is interrupted", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<String> batch) {
+        try {
+            sink.send(request(batch));
+        } catch (Throwable e) {
+            dropped.add(batch.size());
+            logger.warn("failed to export spans, count={}, error={}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    // refer to opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest
+    byte[] request(List<String> batch) {
+        var builder = new StringBuilder(batch.size() * 512 + 256);
+        builder.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[");
+        SpanEncoder.appendAttribute(builder, "service.name", LogManager.APP_NAME);
+        SpanEncoder.appendAttribute(builder, "host.name", Network.LOCAL_HOST_NAME);
+        builder.append("]},\"scopeSpans\":[{\"scope\":{\"name\":\"core-ng\"},\"spans\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) builder.append(',');
+            builder.append(batch.get(i));
+        }
+        builder.append("]}]}]}");
+        return builder.toString().getBytes(UTF_8);
+    }
+
+    public void start() {
+        exporterThread.start();
+    }
+
+    public void stop(long timeoutInMs) {
+        logger.info("stop span exporter");
+        stop = true;
+        exporterThread.interrupt();
+        try {
+            exporterThread.join(Duration.ofMillis(timeoutInMs));
+        } catch (InterruptedException e) {
+            logger.warn("interrupted during stop span exporter", e);
+        }
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (spans.drainTo(batch, MAX_BATCH_SIZE) > 0) {
+            send(batch);
+            batch.clear();
+        }
+        sink.close();
+    }
+}
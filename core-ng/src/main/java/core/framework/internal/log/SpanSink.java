@@ -0,0 +1,11 @@
+package core.framework.internal.log;
+
+/**
+ * @author neo
+ */
+public interface SpanSink {
+    void send(byte[] request) throws Exception;     // request is OTLP/JSON ExportTraceServiceRequest
+
+    default void close() {
+    }
+}
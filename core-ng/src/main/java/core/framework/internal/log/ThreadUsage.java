@@ -0,0 +1,34 @@
+package core.framework.internal.log;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * cpu time and allocated bytes of current thread, return -1 if not available,
+ * jdk doesn't support cpu time of virtual thread, and carrier cpu time doesn't reflect the action as virtual thread may be remounted to other carriers,
+ * so cpu time is only tracked for platform thread, http/kafka/scheduler actions run on virtual threads, so there is no per endpoint cpu time
+ *
+ * @author neo
+ */
+final class ThreadUsage {
+    private static final ThreadMXBean THREAD = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_ENABLED = THREAD.isCurrentThreadCpuTimeSupported() && THREAD.isThreadCpuTimeEnabled();
+    private static final boolean ALLOCATED_MEMORY_ENABLED = THREAD.isThreadAllocatedMemorySupported() && THREAD.isThreadAllocatedMemoryEnabled();
+
+    static long cpuTime() {
+        if (!CPU_TIME_ENABLED || Thread.currentThread().isVirtual()) return -1;
+        return THREAD.getCurrentThreadCpuTime();
+    }
+
+    static long allocatedBytes() {
+        if (!ALLOCATED_MEMORY_ENABLED) return -1;
+        return THREAD.getCurrentThreadAllocatedBytes();     // returns -1 for virtual thread if jdk doesn't support
+    }
+
+    // only calculate if both values are valid and measured on same thread
+    static long used(long start, long end) {
+        if (start < 0 || end < start) return -1;
+        return end - start;
+    }
+}
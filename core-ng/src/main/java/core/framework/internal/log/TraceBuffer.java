@@ -0,0 +1,148 @@
+package core.framework.internal.log;
+
+import core.framework.util.Exceptions;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Marker;
+
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * trace events are stored in growing chunks of parallel arrays, trace only events are written directly without creating LogEvent,
+ * immutable arguments are kept as is, other arguments are rendered when captured (which releases reference to request/response objects),
+ * and message is only formatted when trace is flushed
+ *
+ * @author neo
+ */
+final class TraceBuffer {
+    static final int MAX_CHUNK_SIZE = 256;
+    private static final int INITIAL_CHUNK_SIZE = 32;     // most actions have less than 32 events
+
+    static void appendDuration(StringBuilder builder, long durationInNanos) {
+        long seconds = durationInNanos / 1000000000;
+
+        String minutePart = String.valueOf(seconds / 60);
+        if (minutePart.length() < 2) builder.append('0');
+        builder.append(minutePart).append(':');
+
+        String secondPart = String.valueOf(seconds % 60);
+        if (secondPart.length() < 2) builder.append('0');
+        builder.append(secondPart).append('.');
+
+        String nanoPart = String.valueOf(durationInNanos % 1000000000);
+        int padding = 9 - nanoPart.length();
+        for (int i = 0; i < padding; i++) {
+            builder.append('0');
+        }
+        builder.append(nanoPart);
+    }
+
+    // most arguments are immutable values, only render others, and only copy arguments array if needed
+    static Object @Nullable [] compact(Object @Nullable [] arguments) {
+        if (arguments == null) return null;
+        Object[] values = null;
+        for (int i = 0; i < arguments.length; i++) {
+            Object argument = arguments[i];
+            if (immutable(argument)) continue;
+            if (values == null) values = arguments.clone();     // not to modify arguments of caller
+            var builder = new StringBuilder(64);
+            LogManager.FILTER.append(builder, "{}", new Object[]{argument});   // render with masking and truncation, same as render on flush
+            values[i] = builder.toString();
+        }
+        return values == null ? arguments : values;
+    }
+
+    private static boolean immutable(@Nullable Object argument) {
+        return argument == null || argument instanceof String || argument instanceof Number || argument instanceof Boolean || argument instanceof Character
+            || argument instanceof Enum<?> || argument instanceof TemporalAccessor || argument instanceof TemporalAmount;
+    }
+
+    private final long startTime;
+    private final List<Chunk> chunks = new ArrayList<>(4);
+    int size;
+
+    TraceBuffer(long startTime) {
+        this.startTime = startTime;
+    }
+
+    void add(LogEvent event) {
+        add(event.time, event.logger, event.marker, event.level, event.message, event.arguments, event.exception);
+    }
+
+    void add(long time, String logger, @Nullable Marker marker, LogLevel level, String message, Object @Nullable [] arguments, @Nullable Throwable exception) {
+        Chunk chunk = chunks.isEmpty() ? null : chunks.getLast();
+        if (chunk == null || chunk.size == chunk.times.length) {
+            chunk = new Chunk(chunk == null ? INITIAL_CHUNK_SIZE : Math.min(chunk.times.length << 1, MAX_CHUNK_SIZE));
+            chunks.add(chunk);
+        }
+        int index = chunk.size;
+        chunk.times[index] = time - startTime;
+        chunk.levels[index] = (byte) level.ordinal();
+        chunk.loggers[index] = logger;    // logger names are shared by logger instances, only reference is kept
+        chunk.messages[index] = message;
+        chunk.arguments[index] = compact(arguments);
+        if (marker != null || exception != null) {
+            chunk.extra(index, marker, exception);
+        }
+        chunk.size++;
+        size++;
+    }
+
+    String render() {
+        var builder = new StringBuilder(size << 7);  // length * 128 as rough initial capacity
+        LogLevel[] levels = LogLevel.values();
+        for (Chunk chunk : chunks) {
+            for (int index = 0; index < chunk.size; index++) {
+                chunk.append(builder, index, levels);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static final class Chunk {
+        final long[] times;
+        final byte[] levels;
+        final String[] loggers;
+        final String[] messages;
+        final Object[][] arguments;
+        // marker and exception are rare, only allocate when needed
+        Marker @Nullable [] markers;
+        Throwable @Nullable [] exceptions;
+        int size;
+
+        Chunk(int capacity) {
+            times = new long[capacity];
+            levels = new byte[capacity];
+            loggers = new String[capacity];
+            messages = new String[capacity];
+            arguments = new Object[capacity][];
+        }
+
+        void append(StringBuilder builder, int index, LogLevel[] levels) {
+            appendDuration(builder, times[index]);
+            builder.append(' ');
+            LogLevel level = levels[this.levels[index]];
+            if (level != LogLevel.DEBUG) builder.append(level.name()).append(' ');
+            builder.append(loggers[index]).append(" - ");
+            Marker marker = markers == null ? null : markers[index];
+            if (marker != null) builder.append('[').append(marker.getName()).append("] ");
+            LogManager.FILTER.append(builder, messages[index], arguments[index]);
+            builder.append(System.lineSeparator());
+            Throwable exception = exceptions == null ? null : exceptions[index];
+            if (exception != null) builder.append(Exceptions.stackTrace(exception));
+        }
+
+        void extra(int index, @Nullable Marker marker, @Nullable Throwable exception) {
+            if (marker != null) {
+                if (markers == null) markers = new Marker[times.length];
+                markers[index] = marker;
+            }
+            if (exception != null) {
+                if (exceptions == null) exceptions = new Throwable[times.length];
+                exceptions[index] = exception;
+            }
+        }
+    }
+}
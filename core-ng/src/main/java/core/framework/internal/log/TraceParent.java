@@ -0,0 +1,69 @@
+package core.framework.internal.log;
+
+import core.framework.util.ASCII;
+import org.jspecify.annotations.Nullable;
+
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * w3c trace context, refer to https://www.w3.org/TR/trace-context/#traceparent-header,
+ * if trace id is not propagated from upstream, it's derived from correlation id, so all core-ng actions in same chain share same trace id,
+ * span id is derived from action id
+ *
+ * @author neo
+ */
+public final class TraceParent {
+    public static final String HEADER = "traceparent";
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+    private static final String INVALID_SPAN_ID = "0000000000000000";
+
+    public static String format(ActionLog log) {
+        return "00-" + traceId(log) + '-' + spanId(log.id) + "-01";
+    }
+
+    // format: version-traceId-parentId-flags, e.g. 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01, ignore if invalid
+    public static void parse(ActionLog log, String value) {
+        if (value.length() < 55 || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-') return;
+        String traceId = value.substring(3, 35);
+        String spanId = value.substring(36, 52);
+        if (!isHex(traceId) || !isHex(spanId) || INVALID_TRACE_ID.equals(traceId) || INVALID_SPAN_ID.equals(spanId)) return;
+        log.traceId = ASCII.toLowerCase(traceId);
+        log.parentSpanId = ASCII.toLowerCase(spanId);
+    }
+
+    static String traceId(ActionLog log) {
+        if (log.traceId != null) return log.traceId;
+        return traceId(log.correlationId());
+    }
+
+    static String traceId(String correlationId) {
+        if (correlationId.length() == 20 && isHex(correlationId)) return "000000000000" + ASCII.toLowerCase(correlationId);   // action id generated by IdGenerator
+        return hex(UUID.nameUUIDFromBytes(correlationId.getBytes(UTF_8)));   // correlation id from external client
+    }
+
+    static String spanId(String actionId) {
+        if (actionId.length() == 20 && isHex(actionId)) return ASCII.toLowerCase(actionId.substring(4));  // time in ms (lower 24 bits) + machine id + sequence
+        return hex(UUID.nameUUIDFromBytes(actionId.getBytes(UTF_8))).substring(16);
+    }
+
+    @Nullable
+    static String parentSpanId(ActionLog log) {
+        if (log.parentSpanId != null) return log.parentSpanId;
+        if (log.refIds != null && log.refIds.size() == 1) return spanId(log.refIds.getFirst());
+        return null;
+    }
+
+    private static String hex(UUID uuid) {
+        return String.format("%016x%016x", uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (!(ch >= '0' && ch <= '9' || ch >= 'a' && ch <= 'f' || ch >= 'A' && ch <= 'F')) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package core.framework.internal.log;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * head sampling decides whether to capture trace events when chain starts, and the decision propagates to all correlated actions,
+ * tail sampling keeps trace of slow actions in addition to warn/error or forced trace
+ *
+ * @author neo
+ */
+public final class TraceSampling {
+    final List<Rule> rules = new ArrayList<>();
+
+    // rules are only added during startup, first matched rule applies
+    void add(String actionPrefix, double rate, long slowThresholdInNano) {
+        rules.add(new Rule(actionPrefix, rate, slowThresholdInNano));
+    }
+
+    @Nullable
+    Rule rule(String action) {
+        for (Rule rule : rules) {   // generally only few rules, linear scan is fast enough
+            if (action.startsWith(rule.actionPrefix)) return rule;
+        }
+        return null;
+    }
+
+    record Rule(String actionPrefix, double rate, long slowThresholdInNano) {
+        boolean sample() {
+            if (rate >= 1) return true;
+            if (rate <= 0) return false;
+            return ThreadLocalRandom.current().nextDouble() < rate;
+        }
+    }
+}
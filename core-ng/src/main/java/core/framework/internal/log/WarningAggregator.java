@@ -0,0 +1,122 @@
+package core.framework.internal.log;
+
+import core.framework.internal.stat.Stats;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * aggregate repeated warn events with same error code, logger and message template,
+ * first maxOccurrences per window pass through, the rest are suppressed (not raise action result, not print to console),
+ * suppressed count with sample action ids are reported in stat as summary,
+ * error events are never suppressed, failed actions must always be visible in result and trace
+ *
+ * @author neo
+ */
+public final class WarningAggregator {
+    static final long WINDOW_IN_MS = 10_000;    // same as stat collection interval
+    private static final int MAX_KEYS = 1000;   // not to track unbounded distinct messages, e.g. message template contains dynamic values
+    private static final int MAX_SAMPLES = 5;
+
+    final Map<String, Integer> maxOccurrences = new HashMap<>();    // rules are only added during startup
+    final Map<String, Occurrence> occurrences = new ConcurrentHashMap<>();
+    int defaultMaxOccurrences = -1;     // negative means not to aggregate
+
+    void add(@Nullable String errorCode, int maxOccurrences) {
+        if (errorCode == null) {
+            defaultMaxOccurrences = maxOccurrences;
+        } else {
+            this.maxOccurrences.put(errorCode, maxOccurrences);
+        }
+    }
+
+    boolean suppress(LogEvent event, @Nullable String actionId, long now) {
+        if (event.level != LogLevel.WARN) return false;
+        String errorCode = event.errorCode();
+        Integer max = errorCode == null ? null : maxOccurrences.get(errorCode);
+        int maxOccurrences = max == null ? defaultMaxOccurrences : max;
+        if (maxOccurrences < 0) return false;
+
+        String key = errorCode + ':' + event.logger + ':' + event.message;
+        Occurrence occurrence = occurrences.get(key);
+        if (occurrence == null) {
+            if (occurrences.size() >= MAX_KEYS) return false;
+            occurrence = occurrences.computeIfAbsent(key, k -> new Occurrence(errorCode, event.logger, event.message, now));
+        }
+        return occurrence.suppress(maxOccurrences, actionId, now);
+    }
+
+    void collect(Stats stats) {
+        if (defaultMaxOccurrences < 0 && maxOccurrences.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        long total = 0;
+        var builder = new StringBuilder();
+        Iterator<Occurrence> iterator = occurrences.values().iterator();
+        while (iterator.hasNext()) {
+            Occurrence occurrence = iterator.next();
+            Summary summary = occurrence.summary(now);
+            if (summary == null) {
+                iterator.remove();      // no occurrence in last window
+                continue;
+            }
+            if (summary.suppressed == 0) continue;
+            total += summary.suppressed;
+            builder.append("error_code=").append(occurrence.errorCode)
+                .append(", logger=").append(occurrence.logger)
+                .append(", message=").append(occurrence.message)
+                .append(", suppressed=").append(summary.suppressed)
+                .append(", sample_action_ids=").append(summary.sampleActionIds)
+                .append('\n');
+        }
+        stats.put("log_suppressed_warnings", total);
+        if (total > 0) stats.info("suppressed_warnings", builder.toString());
+    }
+
+    static final class Occurrence {
+        final @Nullable String errorCode;
+        final String logger;
+        final String message;
+        private final List<String> sampleActionIds = new ArrayList<>(MAX_SAMPLES);
+        private long windowStartTime;
+        private int count;          // occurrences in current window
+        private int suppressed;     // since last collection
+
+        Occurrence(@Nullable String errorCode, String logger, String message, long now) {
+            this.errorCode = errorCode;
+            this.logger = logger;
+            this.message = message;
+            windowStartTime = now;
+        }
+
+        synchronized boolean suppress(int maxOccurrences, @Nullable String actionId, long now) {
+            if (now - windowStartTime >= WINDOW_IN_MS) {
+                windowStartTime = now;
+                count = 0;
+            }
+            count++;
+            if (count <= maxOccurrences) return false;
+            suppressed++;
+            if (actionId != null && sampleActionIds.size() < MAX_SAMPLES) sampleActionIds.add(actionId);
+            return true;
+        }
+
+        // return null if it's expired
+        @Nullable
+        synchronized Summary summary(long now) {
+            if (suppressed == 0 && now - windowStartTime >= WINDOW_IN_MS) return null;
+            var summary = new Summary(suppressed, List.copyOf(sampleActionIds));
+            suppressed = 0;
+            sampleActionIds.clear();
+            return summary;
+        }
+    }
+
+    record Summary(int suppressed, List<String> sampleActionIds) {
+    }
+}
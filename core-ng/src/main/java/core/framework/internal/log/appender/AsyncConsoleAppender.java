@@ -0,0 +1,208 @@
+package core.framework.internal.log.appender;
+
+import core.framework.internal.stat.Metrics;
+import core.framework.internal.stat.Stats;
+import core.framework.log.LogAppender;
+import core.framework.log.message.ActionLogMessage;
+import core.framework.log.message.StatMessage;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * encode log on caller thread and write to stdout/stderr in batch with single writer thread, so slow stdout (e.g. log driver backpressure) doesn't block actions,
+ * when buffer is full, oldest info action is dropped, warn/error actions and stats are written directly by caller if there is no info action to drop,
+ * before start and after stop, logs are written synchronously, so logs of startup failure or shutdown are not lost
+ *
+ * @author neo
+ */
+public final class AsyncConsoleAppender implements LogAppender, Metrics {
+    private static final PrintStream STDOUT = System.out;
+    private static final PrintStream STDERR = System.err;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    final ArrayDeque<Entry> entries;
+    final LongAdder dropped = new LongAdder();
+    private final int capacity;
+    private final Logger logger = LoggerFactory.getLogger(AsyncConsoleAppender.class);
+    private final ConsoleAppender formatter = new ConsoleAppender();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Thread writerThread;
+    private final byte[] buffer = new byte[WRITE_BUFFER_SIZE];     // only accessed by writer thread
+    private int position;
+    private volatile boolean running;
+
+    public AsyncConsoleAppender(int capacity) {
+        this.capacity = capacity;
+        entries = new ArrayDeque<>(capacity);
+        writerThread = Thread.ofPlatform().name("console-log-writer").unstarted(this::process);
+    }
+
+    @Override
+    public void append(ActionLogMessage message) {
+        boolean priority = !"OK".equals(message.result);
+        add(new Entry(formatter.message(message).getBytes(UTF_8), false, priority));
+        if (message.traceLog != null) {
+            add(new Entry(message.traceLog.getBytes(UTF_8), true, priority));
+        }
+    }
+
+    @Override
+    public void append(StatMessage message) {
+        add(new Entry(formatter.message(message).getBytes(UTF_8), false, true));
+    }
+
+    void add(Entry entry) {
+        if (running && offer(entry)) return;
+        write(entry);
+    }
+
+    // return false if entry is priority and not able to make room, caller should write it directly
+    boolean offer(Entry entry) {
+        lock.lock();
+        try {
+            if (entries.size() >= capacity && !dropOldestInfo()) {
+                if (entry.priority) return false;
+                dropped.increment();
+                return true;
+            }
+            entries.add(entry);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean dropOldestInfo() {
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().priority) {
+                iterator.remove();
+                dropped.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<Entry> poll(long timeoutInMs) throws InterruptedException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                if (nanos <= 0) return List.of();
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return drain(MAX_BATCH_SIZE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Entry> drain(int maxSize) {
+        List<Entry> batch = new ArrayList<>(Math.min(entries.size(), maxSize));
+        while (!entries.isEmpty() && batch.size() < maxSize) batch.add(entries.poll());
+        return batch;
+    }
+
+    private void process() {
+        while (running) {
+            try {
+                write(poll(1000));
+            } catch (InterruptedException e) {
+                if (running) logger.warn("console log writer thread is interrupted", e);
+            }
+        }
+    }
+
+    // merge entries of same stream into large writes
+    void write(List<Entry> batch) {
+        PrintStream target = null;
+        for (Entry entry : batch) {
+            PrintStream stream = entry.stderr ? STDERR : STDOUT;
+            if (target != stream || position + entry.value.length + 1 > buffer.length) {
+                flush(target);
+                target = stream;
+            }
+            if (entry.value.length + 1 > buffer.length) {
+                write(entry);
+                continue;
+            }
+            System.arraycopy(entry.value, 0, buffer, position, entry.value.length);
+            position += entry.value.length;
+            buffer[position++] = '\n';
+        }
+        flush(target);
+    }
+
+    private void flush(@Nullable PrintStream target) {
+        if (target == null || position == 0) return;
+        target.write(buffer, 0, position);
+        target.flush();
+        position = 0;
+    }
+
+    private void write(Entry entry) {
+        PrintStream stream = entry.stderr ? STDERR : STDOUT;
+        synchronized (stream) {     // keep value and line separator together, PrintStream locks on itself
+            stream.write(entry.value, 0, entry.value.length);
+            stream.write('\n');
+            stream.flush();
+        }
+    }
+
+    public void start() {
+        running = true;
+        writerThread.start();
+    }
+
+    public void stop(long timeoutInMs) {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(Duration.ofMillis(timeoutInMs));
+        } catch (InterruptedException e) {
+            logger.warn("interrupted during stop console log writer", e);
+        }
+        List<Entry> batch;
+        lock.lock();
+        try {
+            batch = drain(entries.size());
+        } finally {
+            lock.unlock();
+        }
+        for (Entry entry : batch) {     // write directly, in case writer thread is still running with its buffer
+            write(entry);
+        }
+    }
+
+    @Override
+    public void collect(Stats stats) {
+        lock.lock();
+        try {
+            stats.put("console_log_buffered", entries.size());
+        } finally {
+            lock.unlock();
+        }
+        stats.put("console_log_dropped", dropped.sumThenReset());   // counts since last collection
+    }
+
+    record Entry(byte[] value, boolean stderr, boolean priority) {
+    }
+}
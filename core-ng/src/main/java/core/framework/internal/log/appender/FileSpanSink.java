@@ -0,0 +1,52 @@
+package core.framework.internal.log.appender;
+
+import core.framework.internal.log.SpanSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * write each OTLP/JSON request as one line, e.g. for local test or file based collector
+ *
+ * @author neo
+ */
+public final class FileSpanSink implements SpanSink {
+    private final Path path;
+    private final OutputStream stream;
+
+    public FileSpanSink(Path path) {
+        this.path = path;
+        try {
+            stream = Files.newOutputStream(path, CREATE, APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void send(byte[] request) throws IOException {
+        stream.write(request);
+        stream.write('\n');
+        stream.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
@@ -21,12 +21,14 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static core.framework.log.Markers.errorCode;
 
@@ -34,21 +36,34 @@ import static core.framework.log.Markers.errorCode;
  * @author neo
  */
 public final class KafkaAppender implements LogAppender {
+    private static final int REPLAY_BATCH_SIZE = 1000;
+
     public final ProducerMetrics producerMetrics = new ProducerMetrics("log-forwarder");
+    public final LogForwarderMetrics forwarderMetrics;
 
-    final BlockingQueue<ProducerRecord<byte[], byte[]>> records = new LinkedBlockingQueue<>();
+    final LogBuffer records;
     private final Logger logger = LoggerFactory.getLogger(KafkaAppender.class);
     private final Thread logForwarderThread;
     private final JSONWriter<ActionLogMessage> actionLogWriter = new JSONWriter<>(ActionLogMessage.class);
     private final JSONWriter<StatMessage> statWriter = new JSONWriter<>(StatMessage.class);
     private final Callback callback = new KafkaCallback();
+    private final ConsoleAppender fallbackAppender = new ConsoleAppender();     // print action log not able to forward
     private final KafkaURI uri;
 
+    private final double infoSampleRate;
+
+    @Nullable
+    LogSpillFile spillFile;
     private Producer<byte[], byte[]> producer;
     private volatile boolean stop;
+    private volatile boolean failed;
 
-    public KafkaAppender(KafkaURI uri) {
+    // info actions are sampled by infoSampleRate when buffer is over half full, warn/error actions and stats are kept in separated lane
+    public KafkaAppender(KafkaURI uri, int bufferCapacity, double infoSampleRate) {
         this.uri = uri;
+        this.infoSampleRate = infoSampleRate;
+        records = new LogBuffer(bufferCapacity);
+        forwarderMetrics = new LogForwarderMetrics(records);
         logForwarderThread = Thread.ofPlatform().name("log-forwarder").unstarted(() -> {
             logger.info("log forwarder thread started, uri={}", this.uri);
             initialize();
@@ -62,8 +77,7 @@ public final class KafkaAppender implements LogAppender {
                 producer = createProducer(uri);
                 break;
             }
-            logger.warn("failed to resolve log kafka uri, retry in 10 seconds, uri={}", this.uri);
-            records.clear();    // throw away records, to prevent from high heap usage
+            logger.warn("failed to resolve log kafka uri, retry in 10 seconds, uri={}", this.uri);    // records are bounded by buffer, overflowed records are spilled or dropped
             Threads.sleepRoughly(Duration.ofSeconds(10));
         }
     }
@@ -71,18 +85,42 @@ public final class KafkaAppender implements LogAppender {
     private void process() {
         while (!stop) {
             try {
-                ProducerRecord<byte[], byte[]> record = records.take();
-                producer.send(record, callback);
+                if (failed) {   // keep records in buffer while kafka is not available
+                    Threads.sleepRoughly(Duration.ofSeconds(30));
+                    failed = false;
+                }
+                ProducerRecord<byte[], byte[]> record = records.poll(1000);
+                if (record != null) {
+                    producer.send(record, callback);
+                } else if (spillFile != null && !failed && spillFile.hasRecords()) {
+                    replay(spillFile);  // replay when buffer is drained and kafka is available
+                }
             } catch (Throwable e) {
-                if (!stop) {    // if during stop and records.take() is interrupted, not clear records and sleep
+                if (!stop) {    // if during stop and records.poll() is interrupted, not sleep
                     logger.warn("failed to send log message, retry in 30 seconds", e);
-                    records.clear();
-                    Threads.sleepRoughly(Duration.ofSeconds(30));
+                    failed = true;
                 }
             }
         }
     }
 
+    private void replay(LogSpillFile spillFile) throws IOException {
+        int count = spillFile.replay(REPLAY_BATCH_SIZE, this::send);
+        if (count == 0) return;
+        forwarderMetrics.replayed.add(count);
+        logger.info("replayed spilled log messages, count={}", count);
+    }
+
+    // send and wait until batch is sent, failure is reported by callback, then batch stays in spill file and is replayed after kafka recovers
+    boolean send(List<ProducerRecord<byte[], byte[]>> records) {
+        for (ProducerRecord<byte[], byte[]> record : records) {
+            if (failed) return false;
+            producer.send(record, callback);
+        }
+        producer.flush();
+        return !failed;
+    }
+
     KafkaProducer<byte[], byte[]> createProducer(KafkaURI uri) {
         var watch = new StopWatch();
         try {
@@ -115,7 +153,7 @@ public final class KafkaAppender implements LogAppender {
         // overhead is 88 + valueSize
         if (value.length > 2_000_000) {
             logger.warn(errorCode("LOG_TOO_LARGE"), "action log message is too large, size={}, id={}, action={}", value.length, message.id, message.action);
-            new ConsoleAppender().append(message);  // fall back to console appender to print
+            fallbackAppender.append(message);  // fall back to console appender to print
 
             truncate(message, value.length - 2_000_000, 10_000);
             value = actionLogWriter.toJSON(message);    // the value length is supposed to be less than 2_000_000, since json escapes '\n' as 2 chars, but in trace string it's one char
@@ -123,12 +161,42 @@ public final class KafkaAppender implements LogAppender {
 
         // not specify message key for sticky partition, StickyPartitionCache will be used if key is null
         // refer to org.apache.kafka.clients.producer.internals.DefaultPartitioner.partition
-        records.add(new ProducerRecord<>(LogTopics.TOPIC_ACTION_LOG, value));
+        var record = new ProducerRecord<byte[], byte[]>(LogTopics.TOPIC_ACTION_LOG, value);
+        boolean priority = !"OK".equals(message.result);
+        if (!priority && infoSampleRate < 1 && records.normalUsage() > 0.5 && ThreadLocalRandom.current().nextDouble() >= infoSampleRate) {
+            forwarderMetrics.dropped.increment();   // sampled out
+            return;
+        }
+        add(record, priority, message);
     }
 
     @Override
     public void append(StatMessage message) {
-        records.add(new ProducerRecord<>(LogTopics.TOPIC_STAT, statWriter.toJSON(message)));    // not specify message key for sticky partition
+        add(new ProducerRecord<>(LogTopics.TOPIC_STAT, statWriter.toJSON(message)), true, null);    // not specify message key for sticky partition
+    }
+
+    private void add(ProducerRecord<byte[], byte[]> record, boolean priority, @Nullable ActionLogMessage message) {
+        if (records.offer(record, priority)) return;
+        if (spill(record)) return;
+        forwarderMetrics.dropped.increment();
+        if (priority && message != null) fallbackAppender.append(message);     // not to lose warn/error actions silently
+    }
+
+    private boolean spill(ProducerRecord<byte[], byte[]> record) {
+        if (spillFile == null) return false;
+        try {
+            if (spillFile.append(record)) {
+                forwarderMetrics.spilled.increment();
+                return true;
+            }
+        } catch (IOException e) {
+            logger.warn("failed to spill log message, error={}", e.getMessage(), e);
+        }
+        return false;
+    }
+
+    public void spillToDisk(Path directory, long maxBytes) {
+        spillFile = new LogSpillFile(directory, maxBytes);
     }
 
     // during startup, if it encounters configuration runtime error, logForwarderThread won't start as all startup tasks will be skipped,
@@ -144,11 +212,18 @@ public final class KafkaAppender implements LogAppender {
 
         if (producer == null && resolveURI(uri)) producer = createProducer(uri);           // producer can be null if app failed to start (exception thrown by configure(), startup hook will not run)
         if (producer != null) {                                         // producer can be null if uri is not resolved
-            for (ProducerRecord<byte[], byte[]> record : records) {     // if log-kafka is not available, here will block MAX_BLOCK_MS, to simplify it's ok not handling timeout since kafka appender is at end of shutdown, no more critical resources left to handle
+            for (ProducerRecord<byte[], byte[]> record : records.drain()) {     // if log-kafka is not available, here will block MAX_BLOCK_MS, to simplify it's ok not handling timeout since kafka appender is at end of shutdown, no more critical resources left to handle
                 producer.send(record);
             }
             producer.close(Duration.ofMillis(timeoutInMs));
         }
+        if (spillFile != null) {    // spilled records are replayed after restart if spill directory is persistent
+            try {
+                spillFile.close();
+            } catch (IOException e) {
+                logger.warn("failed to close spill file, error={}", e.getMessage(), e);
+            }
+        }
     }
 
     // traceLog string length can be much smaller than json bytes size,
@@ -187,9 +262,9 @@ public final class KafkaAppender implements LogAppender {
     class KafkaCallback implements Callback {
         @Override
         public void onCompletion(RecordMetadata metadata, @Nullable Exception exception) {
-            if (exception != null) {
-                logger.warn("failed to send log message", exception);
-                records.clear();
+            if (exception != null && !failed) {
+                logger.warn("failed to send log message, retry in 30 seconds", exception);
+                failed = true;  // pause sending, new records are kept in buffer and spilled when buffer is full
             }
         }
     }
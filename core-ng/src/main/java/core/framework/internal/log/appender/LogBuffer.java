@@ -0,0 +1,111 @@
+package core.framework.internal.log.appender;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * fixed size ring buffers of log records, priority lane (warn/error actions and stats) is taken first,
+ * offer fails when lane is full, so caller decides to spill or drop instead of growing heap
+ *
+ * @author neo
+ */
+final class LogBuffer {
+    private final Lane priority;
+    private final Lane normal;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    LogBuffer(int capacity) {
+        priority = new Lane(capacity);
+        normal = new Lane(capacity);
+    }
+
+    boolean offer(ProducerRecord<byte[], byte[]> record, boolean priority) {
+        lock.lock();
+        try {
+            boolean added = (priority ? this.priority : normal).offer(record);
+            if (added) notEmpty.signal();
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    ProducerRecord<byte[], byte[]> poll(long timeoutInMs) throws InterruptedException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+        lock.lockInterruptibly();
+        try {
+            while (priority.size == 0 && normal.size == 0) {
+                if (nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return priority.size > 0 ? priority.poll() : normal.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // used to sample info actions when normal lane is filling up
+    double normalUsage() {
+        lock.lock();
+        try {
+            return (double) normal.size / normal.records.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<ProducerRecord<byte[], byte[]>> drain() {
+        lock.lock();
+        try {
+            List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>(priority.size + normal.size);
+            while (priority.size > 0) records.add(priority.poll());
+            while (normal.size > 0) records.add(normal.poll());
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return priority.size + normal.size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Lane {
+        final ProducerRecord<byte[], byte[]>[] records;
+        int head;
+        int size;
+
+        @SuppressWarnings("unchecked")
+        Lane(int capacity) {
+            records = new ProducerRecord[capacity];
+        }
+
+        boolean offer(ProducerRecord<byte[], byte[]> record) {
+            if (size == records.length) return false;
+            records[(head + size) % records.length] = record;
+            size++;
+            return true;
+        }
+
+        ProducerRecord<byte[], byte[]> poll() {
+            ProducerRecord<byte[], byte[]> record = records[head];
+            records[head] = null;
+            head = (head + 1) % records.length;
+            size--;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package core.framework.internal.log.appender;
+
+import core.framework.internal.stat.Metrics;
+import core.framework.internal.stat.Stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author neo
+ */
+public final class LogForwarderMetrics implements Metrics {
+    final LongAdder dropped = new LongAdder();
+    final LongAdder spilled = new LongAdder();
+    final LongAdder replayed = new LongAdder();
+    private final LogBuffer buffer;
+
+    LogForwarderMetrics(LogBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void collect(Stats stats) {
+        stats.put("log_forwarder_buffered", buffer.size());
+        // counts since last collection
+        stats.put("log_forwarder_dropped", dropped.sumThenReset());
+        stats.put("log_forwarder_spilled", spilled.sumThenReset());
+        stats.put("log_forwarder_replayed", replayed.sumThenReset());
+    }
+}
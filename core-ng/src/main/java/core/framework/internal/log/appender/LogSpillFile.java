@@ -0,0 +1,160 @@
+package core.framework.internal.log.appender;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * append-only local file to keep log records when buffer is full, replayed when kafka is available,
+ * spill file is renamed to replay file before replaying, so appending is not blocked by replay,
+ * if process died in middle of appending, the trailing partial record is discarded
+ *
+ * @author neo
+ */
+final class LogSpillFile {
+    private final Logger logger = LoggerFactory.getLogger(LogSpillFile.class);
+    private final Path path;
+    private final Path replayPath;
+    private final long maxBytes;
+    @Nullable
+    private DataOutputStream output;
+    private long bytes;
+    private long replayPosition;    // bytes of replay file already sent, only accessed by forwarder thread, replay restarts from beginning after process restarts
+
+    LogSpillFile(Path directory, long maxBytes) {
+        path = directory.resolve("log-spill");
+        replayPath = directory.resolve("log-spill.replay");
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            if (Files.exists(path)) bytes = recover(path);     // left by previous process
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // truncate partial record left by crashed process, otherwise records appended after it can't be read
+    private long recover(Path path) throws IOException {
+        long size = Files.size(path);
+        long length = 0;
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                ProducerRecord<byte[], byte[]> record = read(input);
+                if (record == null) break;
+                length += length(record);
+            }
+        }
+        if (length < size) {
+            logger.warn("found partial record in log spill file, truncate file, path={}, size={}, length={}", path, size, length);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+        }
+        return length;
+    }
+
+    // return false if spill file reaches max bytes
+    synchronized boolean append(ProducerRecord<byte[], byte[]> record) throws IOException {
+        byte[] value = record.value();
+        long size = 4L + record.topic().length() + value.length;
+        if (bytes + size > maxBytes) return false;
+        if (output == null) output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        output.writeUTF(record.topic());
+        output.writeInt(value.length);
+        output.write(value);
+        output.flush();
+        bytes += size;
+        return true;
+    }
+
+    boolean hasRecords() {
+        synchronized (this) {
+            if (bytes > 0) return true;
+        }
+        return Files.exists(replayPath);
+    }
+
+    // replay at most batchSize records per call, so buffered records are not blocked by replaying large file,
+    // sender returns false if kafka is not available, then same batch will be replayed next time,
+    // return number of replayed records, replay file is deleted once all records are replayed
+    int replay(int batchSize, Predicate<List<ProducerRecord<byte[], byte[]>>> sender) throws IOException {
+        if (!Files.exists(replayPath)) {
+            synchronized (this) {
+                if (bytes == 0) return 0;
+                if (output != null) {
+                    output.close();
+                    output = null;
+                }
+                Files.move(path, replayPath, StandardCopyOption.ATOMIC_MOVE);
+                bytes = 0;
+            }
+            replayPosition = 0;
+        }
+        List<ProducerRecord<byte[], byte[]>> batch = new ArrayList<>(batchSize);
+        long position = replayPosition;
+        boolean end = false;
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(replayPath)))) {
+            input.skipNBytes(replayPosition);
+            while (batch.size() < batchSize) {
+                ProducerRecord<byte[], byte[]> record = read(input);
+                if (record == null) {
+                    end = true;
+                    break;
+                }
+                batch.add(record);
+                position += length(record);
+            }
+        }
+        if (!batch.isEmpty()) {
+            if (!sender.test(batch)) return 0;
+            replayPosition = position;
+        }
+        if (end) {
+            Files.delete(replayPath);
+            replayPosition = 0;
+        }
+        return batch.size();
+    }
+
+    // return null if reaches end of file, or the trailing record is partial
+    private @Nullable ProducerRecord<byte[], byte[]> read(DataInputStream input) throws IOException {
+        try {
+            String topic = input.readUTF();
+            byte[] value = new byte[input.readInt()];
+            input.readFully(value);
+            return new ProducerRecord<>(topic, value);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private long length(ProducerRecord<byte[], byte[]> record) {
+        return 2 + record.topic().getBytes(UTF_8).length + 4 + record.value().length;     // refer to DataOutputStream.writeUTF()
+    }
+
+    synchronized void close() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package core.framework.internal.log.appender;
+
+import core.framework.http.ContentType;
+import core.framework.http.HTTPClient;
+import core.framework.http.HTTPMethod;
+import core.framework.http.HTTPRequest;
+import core.framework.http.HTTPResponse;
+import core.framework.internal.log.SpanSink;
+
+import java.time.Duration;
+
+/**
+ * send spans to OTLP/HTTP endpoint with json encoding, e.g. http://otel-collector:4318/v1/traces
+ *
+ * @author neo
+ */
+public final class OTLPHTTPSpanSink implements SpanSink {
+    private final String uri;
+    private final HTTPClient client = HTTPClient.builder()
+        .timeout(Duration.ofSeconds(10))
+        .maxRetries(2)
+        .build();
+
+    public OTLPHTTPSpanSink(String uri) {
+        this.uri = uri;
+    }
+
+    @Override
+    public void send(byte[] request) throws Exception {
+        var httpRequest = new HTTPRequest(HTTPMethod.POST, uri);
+        httpRequest.body(request, ContentType.APPLICATION_JSON);
+        HTTPResponse response = client.execute(httpRequest);
+        if (response.statusCode < 200 || response.statusCode >= 300) throw new Exception("failed to export spans, status=" + response.statusCode + ", response=" + response.text());
+    }
+
+    @Override
+    public String toString() {
+        return uri;
+    }
+}
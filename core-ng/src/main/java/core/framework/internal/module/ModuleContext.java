@@ -66,12 +66,13 @@ public class ModuleContext {    // after core.framework.module.App.start(), enti
         shutdownHook.add(ShutdownHook.STAGE_2, timeout -> executor.shutdown());
         shutdownHook.add(ShutdownHook.STAGE_3, executor::awaitTermination);
 
-        var diagnosticController = new DiagnosticController();
+        var diagnosticController = new DiagnosticController(collector);
         route(HTTPMethod.GET, "/_sys/vm", (LambdaController) diagnosticController::vm, true);
         route(HTTPMethod.GET, "/_sys/thread", (LambdaController) diagnosticController::thread, true);
         route(HTTPMethod.GET, "/_sys/thread/virtual", (LambdaController) diagnosticController::virtualThread, true);
         route(HTTPMethod.GET, "/_sys/heap", (LambdaController) diagnosticController::heap, true);
         route(HTTPMethod.GET, "/_sys/proc", (LambdaController) diagnosticController::proc, true);
+        route(HTTPMethod.GET, "/_sys/profile", (LambdaController) diagnosticController::profile, true);
         route(HTTPMethod.GET, "/_sys/property", new PropertyController(propertyManager), true);
         route(HTTPMethod.GET, "/_sys/api", (LambdaController) apiController::service, true);
         route(HTTPMethod.GET, "/_sys/api/message", (LambdaController) apiController::message, true);
@@ -15,6 +15,7 @@ import core.framework.redis.RedisList;
 import core.framework.redis.RedisSet;
 import core.framework.redis.RedisSortedSet;
 import core.framework.util.Maps;
+import core.framework.util.Sets;
 import core.framework.util.StopWatch;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -24,6 +25,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import static core.framework.internal.redis.Protocol.Command.DEL;
@@ -311,6 +313,43 @@ public final class RedisImpl implements Redis {
         }
     }
 
+    @Override
+    public Set<String> multiSet(Map<String, String> values, Duration expiration, boolean onlyIfAbsent) {
+        var watch = new StopWatch();
+        validate("values", values);
+        byte[] expirationValue = expirationValue(expiration);
+        int size = values.size();
+        Set<String> updatedKeys = Sets.newHashSetWithExpectedSize(size);
+        PoolItem<RedisConnection> item = pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                connection.writeArray(onlyIfAbsent ? 6 : 5);
+                connection.writeBlobString(SET);
+                connection.writeBlobString(encode(entry.getKey()));
+                connection.writeBlobString(encode(entry.getValue()));
+                if (onlyIfAbsent) connection.writeBlobString(NX);
+                connection.writeBlobString(PX);
+                connection.writeBlobString(expirationValue);
+            }
+            connection.flush();
+            Object[] results = connection.readAll(size);
+            int index = 0;
+            for (String key : values.keySet()) {
+                if ("OK".equals(results[index++])) updatedKeys.add(key);
+            }
+            return updatedKeys;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("set, values={}, size={}, expiration={}, onlyIfAbsent={}, updated={}, elapsed={}", new FieldMapLogParam(values), size, expiration, onlyIfAbsent, updatedKeys.size(), elapsed);
+            ActionLogContext.track("redis", elapsed, 0, updatedKeys.size());
+        }
+    }
+
     @Override
     public RedisHash hash() {
         return redisHash;
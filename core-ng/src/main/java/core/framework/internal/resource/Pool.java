@@ -1,5 +1,7 @@
 package core.framework.internal.resource;
 
+import core.framework.internal.log.ActionLog;
+import core.framework.internal.log.LogManager;
 import core.framework.util.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -121,7 +123,10 @@ public class Pool<T extends AutoCloseable> {
         } catch (InterruptedException e) {
             throw new Error("interrupted during waiting for next available resource", e);
         } finally {
-            LOGGER.debug("wait for next available resource, pool={}, elapsed={}", name, watch.elapsed());
+            long elapsed = watch.elapsed();
+            LOGGER.debug("wait for next available resource, pool={}, elapsed={}", name, elapsed);
+            ActionLog actionLog = LogManager.currentActionLog();
+            if (actionLog != null) actionLog.stats.compute("pool_wait_time", (k, oldValue) -> (oldValue == null) ? elapsed : oldValue + elapsed);  // indicates downstream saturation
         }
     }
 
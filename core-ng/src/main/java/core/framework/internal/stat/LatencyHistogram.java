@@ -0,0 +1,75 @@
+package core.framework.internal.stat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * log-linear buckets in microseconds like HdrHistogram, each power of 2 range is split into 16 sub buckets, relative error is less than 1/16,
+ * bucket layout is fixed, so histograms from different hosts can be merged by adding counts of same bucket index
+ *
+ * @author neo
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final long MAX_VALUE = (1L << 32) - 1;       // max 4294s in microseconds, larger values are recorded as max
+    static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;    // linear for small values
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    // return middle value of bucket in nanoseconds
+    public static long value(int index) {
+        if (index < SUB_BUCKETS) return index * 1000L;
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long lowerBound = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+        return (lowerBound + ((1L << shift) >> 1)) * 1000;
+    }
+
+    // return value at percentile (0-1) from sparse buckets, buckets must be sorted by index
+    public static long percentile(List<Integer> buckets, List<Long> counts, double percentile) {
+        long total = 0;
+        for (Long count : counts) {
+            total += count;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile));
+        long accumulated = 0;
+        for (int i = 0; i < buckets.size(); i++) {
+            accumulated += counts.get(i);
+            if (accumulated >= target) return value(buckets.get(i));
+        }
+        return buckets.isEmpty() ? 0 : value(buckets.getLast());
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long elapsedInNanos) {
+        long value = Math.min(Math.max(elapsedInNanos / 1000, 0), MAX_VALUE);
+        counts.incrementAndGet(index(value));
+    }
+
+    // take counts since last snapshot, and reset, returns null if no value recorded
+    public Snapshot snapshot() {
+        List<Integer> buckets = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (this.counts.get(i) == 0) continue;      // avoid write for empty buckets
+            long count = this.counts.getAndSet(i, 0);
+            if (count == 0) continue;
+            buckets.add(i);
+            counts.add(count);
+            total += count;
+        }
+        return new Snapshot(buckets, counts, total);
+    }
+
+    public record Snapshot(List<Integer> buckets, List<Long> counts, long count) {
+    }
+}
@@ -0,0 +1,130 @@
+package core.framework.internal.stat;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * continuous profiling with JFR streaming, aggregates sampled stacks into rolling windows,
+ * summary is in folded stack format (root;...;leaf weight), which can be rendered as flame graph directly
+ *
+ * @author neo
+ */
+public final class Profiler {
+    static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    static final String VIRTUAL_THREAD_PINNED = "jdk.VirtualThreadPinned";
+
+    private static final int MAX_STACKS = 5000;         // max distinct stacks per event type within window, to bound memory
+    private static final int MAX_FRAMES = 32;
+    private static final long WINDOW_IN_MS = Duration.ofMinutes(1).toMillis();
+
+    private final Logger logger = LoggerFactory.getLogger(Profiler.class);
+    private final Map<String, ProfileWindow> current = new ConcurrentHashMap<>();
+    private volatile Map<String, ProfileWindow> previous = Map.of();
+    private volatile long windowStartTime = System.currentTimeMillis();
+    @Nullable
+    private RecordingStream stream;
+
+    public void start() {
+        var stream = new RecordingStream();
+        stream.enable(EXECUTION_SAMPLE).withPeriod(Duration.ofMillis(20)).withStackTrace();
+        stream.enable(ALLOCATION_SAMPLE).with("throttle", "150/s").withStackTrace();
+        stream.enable(MONITOR_ENTER).withThreshold(Duration.ofMillis(10)).withStackTrace();
+        stream.enable(VIRTUAL_THREAD_PINNED).withThreshold(Duration.ofMillis(20)).withStackTrace();
+        stream.onEvent(EXECUTION_SAMPLE, event -> record(EXECUTION_SAMPLE, event, 1));
+        stream.onEvent(ALLOCATION_SAMPLE, event -> record(ALLOCATION_SAMPLE, event, event.getLong("weight")));
+        stream.onEvent(MONITOR_ENTER, event -> record(MONITOR_ENTER, event, event.getDuration().toNanos()));
+        stream.onEvent(VIRTUAL_THREAD_PINNED, event -> record(VIRTUAL_THREAD_PINNED, event, event.getDuration().toNanos()));
+        stream.setMaxAge(Duration.ofMinutes(1));    // not keep events on disk longer than needed
+        stream.startAsync();
+        this.stream = stream;
+        logger.info("profiler started");
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+            logger.info("profiler stopped");
+        }
+    }
+
+    void record(String eventName, RecordedEvent event, long weight) {
+        rotate(System.currentTimeMillis());
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) return;
+        current.computeIfAbsent(eventName, key -> new ProfileWindow()).add(stack(stackTrace), weight);
+    }
+
+    // keep last complete window and current window, so summary always covers at least one window
+    void rotate(long now) {
+        if (now - windowStartTime < WINDOW_IN_MS) return;
+        synchronized (this) {
+            if (now - windowStartTime < WINDOW_IN_MS) return;
+            previous = Map.copyOf(current);
+            current.clear();
+            windowStartTime = now;
+        }
+    }
+
+    String stack(RecordedStackTrace stackTrace) {
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        int size = Math.min(frames.size(), MAX_FRAMES);
+        var builder = new StringBuilder(size * 48);
+        for (int i = size - 1; i >= 0; i--) {  // jfr frames are from leaf to root, folded format is from root to leaf
+            RecordedFrame frame = frames.get(i);
+            if (i < size - 1) builder.append(';');
+            builder.append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName());
+        }
+        return builder.toString();
+    }
+
+    public String summary(int topN) {
+        var builder = new StringBuilder(4096);
+        for (String eventName : List.of(EXECUTION_SAMPLE, ALLOCATION_SAMPLE, MONITOR_ENTER, VIRTUAL_THREAD_PINNED)) {
+            Map<String, Long> stacks = new HashMap<>();
+            ProfileWindow previousWindow = previous.get(eventName);
+            if (previousWindow != null) previousWindow.mergeTo(stacks);
+            ProfileWindow currentWindow = current.get(eventName);
+            if (currentWindow != null) currentWindow.mergeTo(stacks);
+
+            builder.append("# ").append(eventName).append(", stacks=").append(stacks.size()).append('\n');
+            stacks.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(topN)
+                .forEach(entry -> builder.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n'));
+        }
+        return builder.toString();
+    }
+
+    static final class ProfileWindow {
+        final Map<String, LongAdder> stacks = new ConcurrentHashMap<>();
+
+        void add(String stack, long weight) {
+            LongAdder value = stacks.get(stack);
+            if (value == null) {
+                if (stacks.size() >= MAX_STACKS) return;
+                value = stacks.computeIfAbsent(stack, key -> new LongAdder());
+            }
+            value.add(weight);
+        }
+
+        void mergeTo(Map<String, Long> result) {
+            for (Map.Entry<String, LongAdder> entry : stacks.entrySet()) {
+                result.merge(entry.getKey(), entry.getValue().sum(), Long::sum);
+            }
+        }
+    }
+}
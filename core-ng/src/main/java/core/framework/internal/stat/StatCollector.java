@@ -4,6 +4,7 @@ import com.sun.management.OperatingSystemMXBean;
 import core.framework.internal.async.VirtualThread;
 import core.framework.util.Files;
 import core.framework.util.Lists;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +35,8 @@ public class StatCollector {
     public double highCPUUsageThreshold = 0.8;
     public double highHeapUsageThreshold = 0.8;
     public double highMemUsageThreshold = 0.8;  // the java process RSS usage
+    @Nullable
+    public Profiler profiler;
 
     public StatCollector() {
         List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
@@ -99,7 +102,8 @@ public class StatCollector {
         double maxHeap = heapUsage.getMax();
         stats.put("jvm_heap_used", usedHeap);
         stats.put("jvm_heap_max", maxHeap);
-        stats.checkHighUsage(usedHeap / maxHeap, highHeapUsageThreshold, "heap");
+        boolean highUsage = stats.checkHighUsage(usedHeap / maxHeap, highHeapUsageThreshold, "heap");
+        if (highUsage && profiler != null) stats.info("profile", profiler.summary(20));
 
         MemoryUsage nonHeapUsage = memory.getNonHeapMemoryUsage();
         stats.put("jvm_non_heap_used", nonHeapUsage.getUsed());
@@ -115,8 +119,12 @@ public class StatCollector {
         stats.put("cpu_usage", usage);
         boolean highUsage = stats.checkHighUsage(usage, highCPUUsageThreshold, "cpu");
         if (highUsage) {
-            stats.info("thread_dump", Diagnostic.thread());
-            stats.info("virtual_thread_dump", Diagnostic.virtualThread());
+            if (profiler != null) {     // sampled stacks explain cpu usage better than single thread dump
+                stats.info("profile", profiler.summary(20));
+            } else {
+                stats.info("thread_dump", Diagnostic.thread());
+                stats.info("virtual_thread_dump", Diagnostic.virtualThread());
+            }
         }
     }
 }
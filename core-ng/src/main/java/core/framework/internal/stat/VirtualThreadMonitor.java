@@ -0,0 +1,170 @@
+package core.framework.internal.stat;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import jdk.management.VirtualThreadSchedulerMXBean;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * track virtual thread pinning via JFR jdk.VirtualThreadPinned events, and carrier scheduler saturation via VirtualThreadSchedulerMXBean,
+ * JFR events are delivered asynchronously (flushed about every second), so pinned time of action only covers events flushed before action ends,
+ * and thread may run multiple actions (e.g. kafka partition lane, platform thread), so only events started within action are attributed to it
+ *
+ * @author neo
+ */
+public final class VirtualThreadMonitor implements Metrics {
+    static final String VIRTUAL_THREAD_PINNED = "jdk.VirtualThreadPinned";
+    static final String VIRTUAL_THREAD_SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+
+    private static final int MAX_SITES = 1000;
+    private static final int MAX_FRAMES = 8;
+    private static final int MAX_EVENTS_PER_THREAD = 1000;
+    private static final long PINNED_TIME_EXPIRE_IN_MS = Duration.ofMinutes(1).toMillis();     // drop pinned time of threads not claimed by action, e.g. event flushed after action ended
+
+    public final long pinnedTimeThresholdInNano;
+
+    final Map<Long, PinnedTime> pinnedTimes = new ConcurrentHashMap<>();
+    final Map<String, PinnedSite> sites = new ConcurrentHashMap<>();
+    private final Logger logger = LoggerFactory.getLogger(VirtualThreadMonitor.class);
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder totalPinnedTime = new LongAdder();
+    private final LongAccumulator maxPinnedTime = new LongAccumulator(Long::max, 0);
+    private final LongAdder submitFailedCount = new LongAdder();
+    @Nullable
+    private final VirtualThreadSchedulerMXBean scheduler;
+    @Nullable
+    private RecordingStream stream;
+
+    public VirtualThreadMonitor(Duration pinnedTimeThreshold) {
+        pinnedTimeThresholdInNano = pinnedTimeThreshold.toNanos();
+        scheduler = ManagementFactory.getPlatformMXBean(VirtualThreadSchedulerMXBean.class);
+    }
+
+    public void start() {
+        var stream = new RecordingStream();
+        // record all pinning longer than 1ms to measure total pinned time, threshold only applies to warning
+        stream.enable(VIRTUAL_THREAD_PINNED).withThreshold(Duration.ofMillis(1)).withStackTrace();
+        stream.enable(VIRTUAL_THREAD_SUBMIT_FAILED);
+        stream.onEvent(VIRTUAL_THREAD_PINNED, this::pinned);
+        stream.onEvent(VIRTUAL_THREAD_SUBMIT_FAILED, event -> submitFailedCount.increment());
+        stream.setMaxAge(Duration.ofMinutes(1));
+        stream.startAsync();
+        this.stream = stream;
+        logger.info("virtual thread monitor started, pinnedTimeThreshold={}", Duration.ofNanos(pinnedTimeThresholdInNano));
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+            logger.info("virtual thread monitor stopped");
+        }
+    }
+
+    private void pinned(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        record(thread == null ? -1 : thread.getJavaThreadId(), stackTrace == null ? "unknown" : site(stackTrace), event.getDuration().toNanos(), event.getStartTime().toEpochMilli(), System.currentTimeMillis());
+    }
+
+    void record(long threadId, String site, long pinnedTime, long startTime, long now) {
+        pinnedCount.increment();
+        totalPinnedTime.add(pinnedTime);
+        maxPinnedTime.accumulate(pinnedTime);
+        if (threadId > 0) {
+            // keep events of thread as linked list until action claims them, drop previous events if expired or too many, e.g. thread doesn't run action
+            pinnedTimes.merge(threadId, new PinnedTime(pinnedTime, startTime, now, 1, null), (previous, current) -> {
+                if (now - previous.updatedTime > PINNED_TIME_EXPIRE_IN_MS || previous.count >= MAX_EVENTS_PER_THREAD) return current;
+                return new PinnedTime(current.time, current.startTime, current.updatedTime, previous.count + 1, previous);
+            });
+        }
+
+        PinnedSite pinnedSite = sites.get(site);
+        if (pinnedSite == null) {
+            if (sites.size() >= MAX_SITES) return;
+            pinnedSite = sites.computeIfAbsent(site, key -> new PinnedSite());
+        }
+        pinnedSite.count.increment();
+        pinnedSite.time.add(pinnedTime);
+    }
+
+    String site(RecordedStackTrace stackTrace) {
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        int size = Math.min(frames.size(), MAX_FRAMES);
+        var builder = new StringBuilder(size * 64);
+        for (int i = 0; i < size; i++) {    // from leaf, where carrier is pinned
+            RecordedFrame frame = frames.get(i);
+            if (i > 0) builder.append("\n\tat ");
+            builder.append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName());
+            int line = frame.getLineNumber();
+            if (line > 0) builder.append(':').append(line);
+        }
+        return builder.toString();
+    }
+
+    // called when action ends on current thread, return total pinned time in nano of events started since action start time, and release tracking,
+    // events started before are from previous actions on same thread but flushed late, which are discarded
+    public long pinnedTime(long threadId, long actionStartTime) {
+        long total = 0;
+        for (PinnedTime pinnedTime = pinnedTimes.remove(threadId); pinnedTime != null; pinnedTime = pinnedTime.previous) {
+            if (pinnedTime.startTime >= actionStartTime) total += pinnedTime.time;
+        }
+        return total;
+    }
+
+    @Override
+    public void collect(Stats stats) {
+        stats.put("virtual_thread_pinned_count", pinnedCount.sumThenReset());
+        stats.put("virtual_thread_pinned_time", totalPinnedTime.sumThenReset());
+        long maxPinnedTime = this.maxPinnedTime.getThenReset();
+        stats.put("virtual_thread_pinned_max", maxPinnedTime);
+        stats.put("virtual_thread_submit_failed_count", submitFailedCount.sumThenReset());
+        if (scheduler != null) {
+            stats.put("virtual_thread_parallelism", scheduler.getParallelism());
+            stats.put("virtual_thread_pool_size", scheduler.getPoolSize());
+            stats.put("virtual_thread_mounted_count", scheduler.getMountedVirtualThreadCount());
+            stats.put("virtual_thread_queued_count", scheduler.getQueuedVirtualThreadCount());
+        }
+
+        if (maxPinnedTime > pinnedTimeThresholdInNano && stats.errorCode == null) {
+            stats.errorCode = "VIRTUAL_THREAD_PINNED";
+            stats.errorMessage = "virtual thread was pinned too long, maxPinnedTime=" + Duration.ofNanos(maxPinnedTime);
+            stats.info("pinned_sites", topSites(10));
+        }
+        sites.clear();
+
+        long now = System.currentTimeMillis();
+        pinnedTimes.values().removeIf(pinnedTime -> now - pinnedTime.updatedTime > PINNED_TIME_EXPIRE_IN_MS);
+    }
+
+    String topSites(int topN) {
+        var builder = new StringBuilder(1024);
+        sites.entrySet().stream()
+            .sorted((entry1, entry2) -> Long.compare(entry2.getValue().time.sum(), entry1.getValue().time.sum()))
+            .limit(topN)
+            .forEach(entry -> builder.append("count=").append(entry.getValue().count.sum())
+                .append(", pinnedTime=").append(Duration.ofNanos(entry.getValue().time.sum()))
+                .append("\n\tat ").append(entry.getKey()).append('\n'));
+        return builder.toString();
+    }
+
+    record PinnedTime(long time, long startTime, long updatedTime, int count, @Nullable PinnedTime previous) {
+    }
+
+    static final class PinnedSite {
+        final LongAdder count = new LongAdder();
+        final LongAdder time = new LongAdder();
+    }
+}
@@ -0,0 +1,148 @@
+package core.framework.internal.web;
+
+import core.framework.web.priority.Priority;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * adaptive concurrency limit with gradient style algorithm, refer to https://github.com/Netflix/concurrency-limits Gradient2Limit,
+ * all routes share one limit, so min rtt of single request is not a valid baseline (fast route sets it, then slow routes always look queued),
+ * instead it compares average rtt of recent window with long term smoothed average, which is stable with stable traffic mix, and only grows when requests queue up,
+ * request over limit waits briefly for released slot to absorb short burst, then is rejected,
+ * part of limit is reserved for higher priority, so low priority requests are shed first, normal requests use full limit if there is no high priority route
+ *
+ * @author neo
+ */
+public final class ConcurrencyLimiter {
+    static final int WINDOW_SIZE = 100;         // samples per window
+    private static final double LONG_RTT_ALPHA = 2.0 / (20 + 1);    // exponential moving average of about 20 windows
+    private static final double TOLERANCE = 1.5;    // tolerate average rtt grows 50% over baseline before decreasing limit
+    private static final double SMOOTHING = 0.2;
+
+    final AtomicInteger inFlight = new AtomicInteger();
+    final LongAdder[] rejected = {new LongAdder(), new LongAdder(), new LongAdder()};     // indexed by Priority.ordinal()
+    private final int minLimit;
+    private final int maxLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition released = queueLock.newCondition();
+    final AtomicInteger waiters = new AtomicInteger();
+    long maxQueueTimeInNano = Duration.ofMillis(100).toNanos();
+    private volatile int limit;
+
+    // only accessed with lock
+    private double longRTT;     // 0 means not initialized
+    private long windowRTT;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        limit = initialLimit;
+    }
+
+    static int threshold(int limit, Priority priority, boolean reserveForHigh) {
+        return switch (priority) {
+            case HIGH -> limit;
+            case NORMAL -> reserveForHigh ? Math.max(1, limit * 9 / 10) : limit;
+            case LOW -> Math.max(1, limit / 2);
+        };
+    }
+
+    boolean acquire(Priority priority, boolean reserveForHigh) {
+        int threshold = threshold(limit, priority, reserveForHigh);  // limit changes slowly, it is fine to keep threshold of acquire time while waiting
+        if (tryAcquire(threshold) || await(threshold)) return true;
+        rejected[priority.ordinal()].increment();
+        return false;
+    }
+
+    private boolean tryAcquire(int threshold) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= threshold) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    // wait for released slot, as previous fixed semaphore queued requests, but only within short time
+    private boolean await(int threshold) {
+        long nanos = maxQueueTimeInNano;
+        if (nanos <= 0) return false;
+        waiters.incrementAndGet();
+        queueLock.lock();
+        try {
+            while (!tryAcquire(threshold)) {
+                if (nanos <= 0) return false;
+                nanos = released.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queueLock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    void release(long rtt) {
+        int inFlight = this.inFlight.getAndDecrement();
+        if (waiters.get() > 0) signal();
+        if (!lock.tryLock()) return;    // skip sample if other thread is updating, not to block request threads
+        try {
+            update(rtt, inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // waiters of different priorities have different thresholds, single signal may wake low priority waiter which is still over its threshold and lose the wakeup,
+    // so wake all to let any eligible waiter take the released slot, waiters are bounded by short queue time
+    private void signal() {
+        queueLock.lock();
+        try {
+            released.signalAll();
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    // inFlight is the concurrency when the request completed, including itself
+    void update(long rtt, int inFlight) {
+        if (rtt <= 0) return;
+        windowRTT += rtt;
+        windowSamples++;
+        if (inFlight > windowMaxInFlight) windowMaxInFlight = inFlight;
+        if (windowSamples < WINDOW_SIZE) return;
+
+        double shortRTT = (double) windowRTT / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowRTT = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        if (longRTT == 0) {
+            longRTT = shortRTT;
+            return;
+        }
+        longRTT = longRTT * (1 - LONG_RTT_ALPHA) + shortRTT * LONG_RTT_ALPHA;
+        if (longRTT > shortRTT * 2) longRTT *= 0.95;     // recover baseline faster after prolonged overload
+
+        int limit = this.limit;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRTT / shortRTT));
+        if (gradient >= 1.0 && maxInFlight * 2 < limit) return;     // app limited, not enough load to probe higher limit
+        double newLimit = limit * gradient + Math.sqrt(limit);      // allow sqrt(limit) queued requests
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        int next = newLimit >= limit ? (int) Math.ceil(newLimit) : (int) newLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int limit() {
+        return limit;
+    }
+}
@@ -4,6 +4,7 @@ import core.framework.internal.async.VirtualThread;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
 import core.framework.internal.log.Trace;
+import core.framework.internal.log.TraceParent;
 import core.framework.internal.web.controller.ControllerHolder;
 import core.framework.internal.web.controller.InvocationImpl;
 import core.framework.internal.web.controller.WebContextImpl;
@@ -15,18 +16,19 @@ import core.framework.internal.web.session.SessionManager;
 import core.framework.internal.web.site.TemplateManager;
 import core.framework.web.Interceptor;
 import core.framework.web.Response;
+import core.framework.web.priority.Priority;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderMap;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
+import io.undertow.util.StatusCodes;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.Semaphore;
 
 /**
  * @author neo
@@ -36,6 +38,9 @@ public class HTTPHandler implements HttpHandler {
     public static final HttpString HEADER_CLIENT = new HttpString("client");
     public static final HttpString HEADER_REF_ID = new HttpString("ref-id");
     public static final HttpString HEADER_TRACE = new HttpString("trace");
+    public static final HttpString HEADER_TRACE_SAMPLED = new HttpString("trace-sampled");
+    public static final HttpString HEADER_TRACE_PARENT = new HttpString(TraceParent.HEADER);
+    public static final HttpString HEADER_REQUEST_PRIORITY = new HttpString("request-priority");   // not to use "priority", which is for response prioritization, refer to https://www.rfc-editor.org/rfc/rfc9218
     public static final HttpString HEADER_TIMEOUT = new HttpString("timeout");      // there is ietf draft to define Request-Timeout header, but didn't move on, so here to use shorter name
 
     public final Route route = new Route();
@@ -47,11 +52,16 @@ public class HTTPHandler implements HttpHandler {
     private final SessionManager sessionManager;
     private final ResponseHandler responseHandler;
     private final HTTPHandlerContext handlerContext;
-    private final Semaphore semaphore = new Semaphore(Runtime.getRuntime().availableProcessors() * 32);
 
     public Interceptor[] interceptors;
+    public ConcurrencyLimiter limiter = defaultLimiter(Runtime.getRuntime().availableProcessors());
     public long maxProcessTimeInNano = Duration.ofSeconds(30).toNanos();    // the default backend timeout of popular cloud lb (gcloud/azure) is 30s
 
+    // start with previous fixed limit (cores * 32), and allow to adjust between cores * 2 and cores * 128
+    static ConcurrencyLimiter defaultLimiter(int cores) {
+        return new ConcurrencyLimiter(cores * 32, cores * 2, cores * 128);
+    }
+
     HTTPHandler(LogManager logManager, SessionManager sessionManager, TemplateManager templateManager, HTTPHandlerContext handlerContext) {
         this.logManager = logManager;
         this.sessionManager = sessionManager;
@@ -71,9 +81,23 @@ public class HTTPHandler implements HttpHandler {
     }
 
     private void handle(HttpServerExchange exchange) {
-        semaphore.acquireUninterruptibly();
+        String path = exchange.getRequestPath();
+        if (path.startsWith("/_sys/")) {    // system lane is not limited, so diagnostic requests keep working under load, it's protected by access control
+            handle(exchange, null);
+            return;
+        }
+        ConcurrencyLimiter limiter = this.limiter;
+        if (!limiter.acquire(priority(exchange, path), route.highPriority())) {
+            reject(exchange);
+            return;
+        }
+        handle(exchange, limiter);
+    }
+
+    private void handle(HttpServerExchange exchange, @Nullable ConcurrencyLimiter limiter) {
         VirtualThread.COUNT.increase();
-        long httpDelay = System.nanoTime() - exchange.getRequestStartTime();
+        long startTime = System.nanoTime();
+        long httpDelay = startTime - exchange.getRequestStartTime();
 
         try {
             logManager.run("http", null, actionLog -> {
@@ -90,10 +114,33 @@ public class HTTPHandler implements HttpHandler {
             // refer to io.undertow.io.AsyncSenderImpl.send(java.nio.ByteBuffer, io.undertow.io.IoCallback),
             // sender.send() will write response until can't write more, then call channel.resumeWrites(), which will resume after this finally block finished, so this can be small delay
             VirtualThread.COUNT.decrease();
-            semaphore.release();
+            if (limiter != null) limiter.release(System.nanoTime() - startTime);
         }
     }
 
+    // request priority header from internal callers can only lower priority, e.g. batch jobs, not to let external clients bypass shedding
+    Priority priority(HttpServerExchange exchange, String path) {
+        Priority priority = route.priority(path, exchange.getRequestMethod().toString());
+        String value = exchange.getRequestHeaders().getFirst(HEADER_REQUEST_PRIORITY);
+        if (value != null) {
+            Priority requested = switch (value) {
+                case "low" -> Priority.LOW;
+                case "normal" -> Priority.NORMAL;
+                default -> priority;
+            };
+            if (requested.ordinal() > priority.ordinal()) priority = requested;
+        }
+        return priority;
+    }
+
+    // reject without action log, not to amplify load when overloaded,
+    // rejected requests are reported via stats http_rejected_requests (per priority) with CONCURRENCY_LIMIT_EXCEEDED error code
+    void reject(HttpServerExchange exchange) {
+        exchange.setStatusCode(StatusCodes.SERVICE_UNAVAILABLE);
+        exchange.getResponseHeaders().put(Headers.RETRY_AFTER, "1");    // in seconds, refer to https://www.rfc-editor.org/rfc/rfc9110#field.retry-after
+        exchange.endExchange();
+    }
+
     private void handle(HttpServerExchange exchange, RequestImpl request, ActionLog actionLog) {
         try {
             handlerContext.requestParser.parse(request, exchange, actionLog);
@@ -142,6 +189,12 @@ public class HTTPHandler implements HttpHandler {
         String trace = headers.getFirst(HEADER_TRACE);
         if (trace != null) actionLog.trace = Trace.parse(trace);
 
+        String traceParent = headers.getFirst(HEADER_TRACE_PARENT);
+        if (traceParent != null) TraceParent.parse(actionLog, traceParent);
+
+        String sampled = headers.getFirst(HEADER_TRACE_SAMPLED);
+        if (sampled != null) actionLog.sampled = "true".equals(sampled);
+
         actionLog.warningContext.maxProcessTimeInNano(maxProcessTime(headers.getFirst(HEADER_TIMEOUT)));
     }
 
@@ -2,6 +2,8 @@ package core.framework.internal.web;
 
 import core.framework.internal.stat.Metrics;
 import core.framework.internal.stat.Stats;
+import core.framework.util.ASCII;
+import core.framework.web.priority.Priority;
 
 /**
  * @author neo
@@ -17,5 +19,19 @@ public class HTTPServerMetrics implements Metrics {
     public void collect(Stats stats) {
         int activeRequests = server.shutdownHandler.activeRequests.max();
         stats.put("http_active_requests", activeRequests);
+
+        ConcurrencyLimiter limiter = server.httpHandler.limiter;
+        stats.put("http_concurrency_limit", limiter.limit());
+        long rejected = 0;
+        for (Priority priority : Priority.values()) {
+            long count = limiter.rejected[priority.ordinal()].sumThenReset();
+            stats.put("http_rejected_requests_" + ASCII.toLowerCase(priority.name()), count);
+            rejected += count;
+        }
+        stats.put("http_rejected_requests", rejected);
+        if (rejected > 0 && stats.errorCode == null) {
+            stats.errorCode = "CONCURRENCY_LIMIT_EXCEEDED";
+            stats.errorMessage = "http requests were rejected due to concurrency limit, limit=" + limiter.limit() + ", rejected=" + rejected;
+        }
     }
 }
@@ -4,6 +4,8 @@ import core.framework.internal.log.PerformanceWarning;
 import core.framework.internal.log.WarningContext;
 import core.framework.log.IOWarning;
 import core.framework.web.Controller;
+import core.framework.web.priority.Priority;
+import core.framework.web.priority.RequestPriority;
 import org.jspecify.annotations.Nullable;
 
 import java.lang.reflect.Method;
@@ -16,6 +18,7 @@ public class ControllerHolder {
     public final Controller controller;
     public final String action;
     public final PerformanceWarning @Nullable [] warnings;
+    public final Priority priority;
 
     final Method targetMethod;      // targetMethod is used to find associated annotation
     final boolean skipInterceptor;
@@ -32,5 +35,12 @@ public class ControllerHolder {
         } else {
             warnings = WarningContext.warnings(targetMethod.getDeclaredAnnotationsByType(IOWarning.class));
         }
+        priority = priority(targetMethod);
+    }
+
+    private Priority priority(Method targetMethod) {
+        RequestPriority priority = targetMethod.getDeclaredAnnotation(RequestPriority.class);
+        if (priority == null) priority = targetMethod.getDeclaringClass().getDeclaredAnnotation(RequestPriority.class);
+        return priority == null ? Priority.NORMAL : priority.value();
     }
 }
@@ -1,31 +1,76 @@
 package core.framework.internal.web.request;
 
 import core.framework.util.Encodings;
-import core.framework.util.Maps;
 import core.framework.web.exception.BadRequestException;
+import org.jspecify.annotations.Nullable;
 
-import java.util.Map;
+import java.util.Arrays;
 
 import static core.framework.util.Strings.format;
 
 /**
+ * path params matched by router only keep offsets within request path, values are decoded on first read,
+ * so requests not reading path params don't allocate substrings
+ *
  * @author neo
  */
 public final class PathParams {
-    private final Map<String, String> params = Maps.newHashMap();
+    private static final String[] EMPTY_STRINGS = new String[0];
+    private static final int[] EMPTY_INTS = new int[0];
+
+    private String[] names = EMPTY_STRINGS;
+    private @Nullable String[] values = EMPTY_STRINGS;     // decoded value, null if not read yet
+    private int[] starts = EMPTY_INTS;
+    private int[] ends = EMPTY_INTS;
+    private @Nullable String path;
+    private int size;
 
     public void put(String name, String value) {
         if (value.isEmpty()) throw new BadRequestException(format("path param must not be empty, name={}, value={}", name, value), "INVALID_HTTP_REQUEST");
+        add(name, decode(value), -1, -1);
+    }
+
+    // value is path.substring(start, end), not decoded, see io.undertow.UndertowOptions.DECODE_URL and core.framework.internal.web.HTTPServer
+    public void put(String name, String path, int start, int end) {
+        if (start >= end) throw new BadRequestException(format("path param must not be empty, name={}, value={}", name, ""), "INVALID_HTTP_REQUEST");
+        this.path = path;
+        add(name, null, start, end);
+    }
+
+    public String get(String name) {
+        for (int i = size - 1; i >= 0; i--) {  // the last put wins, same as map
+            if (names[i].equals(name)) {
+                String value = values[i];
+                if (value == null) {
+                    value = decode(path.substring(starts[i], ends[i]));
+                    values[i] = value;
+                }
+                return value;
+            }
+        }
+        throw new Error("path param not found, name=" + name);
+    }
+
+    private void add(String name, @Nullable String value, int start, int end) {
+        if (size == names.length) {
+            int capacity = Math.max(4, size * 2);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        names[size] = name;
+        values[size] = value;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    private String decode(String value) {
         try {
-            params.put(name, Encodings.decodeURIComponent(value));  // value here is not decoded, see io.undertow.UndertowOptions.DECODE_URL and core.framework.internal.web.HTTPServer
+            return Encodings.decodeURIComponent(value);
         } catch (IllegalArgumentException e) {
             throw new BadRequestException(e.getMessage(), "INVALID_HTTP_REQUEST", e);
         }
     }
-
-    public String get(String name) {
-        String value = params.get(name);
-        if (value == null) throw new Error("path param not found, name=" + name);
-        return value;
-    }
 }
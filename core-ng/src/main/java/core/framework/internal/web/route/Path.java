@@ -38,12 +38,13 @@ public final class Path {
     }
 
     String subPath() {
-        var builder = new StringBuilder();
-        Path current = this;
-
+        var builder = new StringBuilder(value);
+        boolean separator = !"/".equals(value);     // "/" is either root or trailing slash, which doesn't need separator
+        Path current = next;
         while (current != null) {
-            if (builder.length() > 1 && !"/".equals(current.value)) builder.append('/');
+            if (separator && !"/".equals(current.value)) builder.append('/');
             builder.append(current.value);
+            separator = true;
             current = current.next;
         }
         return builder.toString();
@@ -0,0 +1,166 @@
+package core.framework.internal.web.route;
+
+import core.framework.internal.web.request.PathParams;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * compiled from PathNode trie into flat arrays, matches request path in place by offsets without splitting or substring,
+ * matching rules are same as PathNode.find(), static segment first, then dynamic segment, then wildcard,
+ * dynamic segment doesn't match trailing slash, wildcard matches the rest of path including trailing slash
+ *
+ * @author neo
+ */
+final class PathMatcher {
+    static PathMatcher compile(PathNode root) {
+        List<PathNode> nodes = new ArrayList<>();
+        nodes.add(root);
+        for (int i = 0; i < nodes.size(); i++) {    // nodes grows while iterating, assign index in breadth first order
+            PathNode node = nodes.get(i);
+            if (node.staticNodes != null) nodes.addAll(node.staticNodes.values());
+            if (node.dynamicNode != null) nodes.add(node.dynamicNode);
+            if (node.wildcardNode != null) nodes.add(node.wildcardNode);
+        }
+        Map<PathNode, Integer> indexes = new IdentityHashMap<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            indexes.put(nodes.get(i), i);
+        }
+        return new PathMatcher(nodes, indexes);
+    }
+
+    private static int hash(String path, int start, int end) {   // same as String.hashCode()
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        return hash;
+    }
+
+    private final @Nullable URLHandler[] handlers;
+    private final String[][] staticSegments;
+    private final int[][] staticHashes;
+    private final int[][] staticChildren;
+    private final int[] trailingSlashChildren;  // static child registered with trailing slash, e.g. /path/:id/
+    private final int[] dynamicChildren;
+    private final @Nullable String[] dynamicParams;
+    private final int[] wildcardChildren;
+    private final @Nullable String[] wildcardParams;
+
+    private PathMatcher(List<PathNode> nodes, Map<PathNode, Integer> indexes) {
+        int size = nodes.size();
+        handlers = new URLHandler[size];
+        staticSegments = new String[size][];
+        staticHashes = new int[size][];
+        staticChildren = new int[size][];
+        trailingSlashChildren = new int[size];
+        dynamicChildren = new int[size];
+        dynamicParams = new String[size];
+        wildcardChildren = new int[size];
+        wildcardParams = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            PathNode node = nodes.get(i);
+            handlers[i] = node.handler;
+            compileStaticNodes(i, node.staticNodes, indexes);
+            dynamicChildren[i] = node.dynamicNode == null ? -1 : indexes.get(node.dynamicNode);
+            dynamicParams[i] = node.dynamicNode == null ? null : node.dynamicNode.param;
+            wildcardChildren[i] = node.wildcardNode == null ? -1 : indexes.get(node.wildcardNode);
+            wildcardParams[i] = node.wildcardNode == null ? null : node.wildcardNode.param;
+        }
+    }
+
+    private void compileStaticNodes(int index, @Nullable Map<String, PathNode> staticNodes, Map<PathNode, Integer> indexes) {
+        trailingSlashChildren[index] = -1;
+        List<String> segments = new ArrayList<>();
+        List<PathNode> children = new ArrayList<>();
+        if (staticNodes != null) {
+            for (Map.Entry<String, PathNode> entry : staticNodes.entrySet()) {
+                if ("/".equals(entry.getKey())) {
+                    trailingSlashChildren[index] = indexes.get(entry.getValue());
+                } else {
+                    segments.add(entry.getKey());
+                    children.add(entry.getValue());
+                }
+            }
+        }
+        int size = segments.size();
+        staticSegments[index] = segments.toArray(new String[size]);
+        staticHashes[index] = new int[size];
+        staticChildren[index] = new int[size];
+        for (int i = 0; i < size; i++) {
+            staticHashes[index][i] = segments.get(i).hashCode();
+            staticChildren[index][i] = indexes.get(children.get(i));
+        }
+    }
+
+    // path must start with '/', which is guaranteed by http request
+    @Nullable
+    URLHandler find(String path, PathParams pathParams) {
+        if ("/".equals(path)) return handlers[0];
+        return match(0, path, 1, pathParams);
+    }
+
+    // start is the begin of current segment, -1 means no more segment, path.length() means trailing slash
+    @Nullable
+    private URLHandler match(int node, String path, int start, PathParams pathParams) {
+        if (start < 0) return handlers[node];
+
+        int length = path.length();
+        boolean trailingSlash = start == length;
+        int end;
+        int next;
+        if (trailingSlash) {
+            end = length;
+            next = -1;
+        } else {
+            int index = path.indexOf('/', start);
+            end = index < 0 ? length : index;
+            next = end == length ? -1 : end + 1;
+        }
+
+        URLHandler handler = matchStatic(node, path, start, end, next, trailingSlash, pathParams);
+        if (handler != null) return handler;
+
+        int dynamicChild = dynamicChildren[node];
+        if (!trailingSlash && dynamicChild >= 0) {   // dynamic node should not match trailing slash
+            handler = match(dynamicChild, path, next, pathParams);
+            if (handler != null) {
+                pathParams.put(dynamicParams[node], path, start, end);
+                return handler;
+            }
+        }
+
+        int wildcardChild = wildcardChildren[node];
+        if (wildcardChild >= 0) {
+            // wildcard matches rest of path, trailing slash itself is "/"
+            pathParams.put(wildcardParams[node], path, trailingSlash ? start - 1 : start, length);
+            return handlers[wildcardChild];
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private URLHandler matchStatic(int node, String path, int start, int end, int next, boolean trailingSlash, PathParams pathParams) {
+        if (trailingSlash) {
+            int child = trailingSlashChildren[node];
+            return child < 0 ? null : match(child, path, next, pathParams);
+        }
+        String[] segments = staticSegments[node];
+        if (segments.length == 0) return null;
+        int segmentLength = end - start;
+        int hash = hash(path, start, end);
+        int[] hashes = staticHashes[node];
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (hashes[i] == hash && segment.length() == segmentLength && path.regionMatches(start, segment, 0, segmentLength)) {
+                return match(staticChildren[node][i], path, next, pathParams);
+            }
+        }
+        return null;
+    }
+}
@@ -10,19 +10,22 @@ import java.util.Map;
 import static core.framework.util.Strings.format;
 
 /**
+ * registers path patterns and validates conflicts, it's compiled into PathMatcher to match requests,
+ * find() is kept as reference implementation
+ *
  * @author neo
  */
 class PathNode {
     @Nullable
-    private final String param;
+    final String param;
     @Nullable
-    private URLHandler handler;
+    URLHandler handler;
     @Nullable
-    private Map<String, PathNode> staticNodes;
+    Map<String, PathNode> staticNodes;
     @Nullable
-    private PathNode dynamicNode;
+    PathNode dynamicNode;
     @Nullable
-    private PathNode wildcardNode;
+    PathNode wildcardNode;
 
     PathNode(@Nullable String param) {
         this.param = param;
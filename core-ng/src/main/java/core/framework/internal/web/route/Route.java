@@ -6,6 +6,8 @@ import core.framework.internal.web.controller.ControllerHolder;
 import core.framework.internal.web.request.PathParams;
 import core.framework.util.Maps;
 import core.framework.web.exception.NotFoundException;
+import core.framework.web.priority.Priority;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +22,10 @@ public final class Route {
 
     private final Map<String, URLHandler> staticHandlers = Maps.newHashMap();
     private final PathNode dynamicRoot = new PathNode(null);
+    @Nullable
+    private PathMatcher dynamicMatcher;     // compiled from dynamicRoot, routes are only added during startup
+    private boolean prioritized;    // whether any controller declares priority, to skip lookup if not
+    private boolean highPriority;   // whether any controller is high priority, part of concurrency limit is only reserved for it if so
 
     public void add(HTTPMethod method, String path, ControllerHolder controller) {
         logger.info("route, method={}, path={}, controller={}", method, path, controller.controllerInfo);
@@ -27,15 +33,35 @@ public final class Route {
         URLHandler handler;
         if (path.contains("/:")) {
             handler = dynamicRoot.register(path);
+            dynamicMatcher = PathMatcher.compile(dynamicRoot);
         } else {
             handler = staticHandlers.computeIfAbsent(path, URLHandler::new);
         }
         handler.put(method, controller);
+        if (controller.priority != Priority.NORMAL) prioritized = true;
+        if (controller.priority == Priority.HIGH) highPriority = true;
+    }
+
+    public boolean highPriority() {
+        return highPriority;
+    }
+
+    // classify request before processing, returns NORMAL if route not found, error will be handled by get()
+    public Priority priority(String path, String method) {
+        if (!prioritized) return Priority.NORMAL;
+        try {
+            URLHandler handler = staticHandlers.get(path);
+            if (handler == null) handler = findDynamic(path, new PathParams());
+            if (handler == null) return Priority.NORMAL;
+            return handler.get(HTTPMethod.valueOf(method)).priority;
+        } catch (RuntimeException e) {     // e.g. invalid method or path param
+            return Priority.NORMAL;
+        }
     }
 
     public ControllerHolder get(String path, HTTPMethod method, PathParams pathParams, ActionLog actionLog) {
         URLHandler handler = staticHandlers.get(path);
-        if (handler == null) handler = dynamicRoot.find(path, pathParams);
+        if (handler == null) handler = findDynamic(path, pathParams);
         if (handler == null) {
             throw new NotFoundException("not found, path=" + path, "PATH_NOT_FOUND");
         }
@@ -43,4 +69,10 @@ public final class Route {
         logger.debug("pathPattern={}", handler.pathPattern);
         return handler.get(method);
     }
+
+    @Nullable
+    private URLHandler findDynamic(String path, PathParams pathParams) {
+        if (dynamicMatcher == null) return null;
+        return dynamicMatcher.find(path, pathParams);
+    }
 }
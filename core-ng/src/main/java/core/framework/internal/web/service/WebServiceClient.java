@@ -10,6 +10,7 @@ import core.framework.internal.http.HTTPClientImpl;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
 import core.framework.internal.log.Trace;
+import core.framework.internal.log.TraceParent;
 import core.framework.internal.web.HTTPHandler;
 import core.framework.internal.web.bean.RequestBeanWriter;
 import core.framework.internal.web.bean.ResponseBeanReader;
@@ -125,7 +126,9 @@ public class WebServiceClient {
 
         headers.put(HTTPHandler.HEADER_CORRELATION_ID.toString(), actionLog.correlationId());
         if (actionLog.trace == Trace.CASCADE) headers.put(HTTPHandler.HEADER_TRACE.toString(), actionLog.trace.name());
+        if (actionLog.sampled != null) headers.put(HTTPHandler.HEADER_TRACE_SAMPLED.toString(), actionLog.sampled.toString());
         headers.put(HTTPHandler.HEADER_REF_ID.toString(), actionLog.id);
+        headers.put(TraceParent.HEADER, TraceParent.format(actionLog));
 
         long timeout = ((HTTPClientImpl) httpClient).timeoutInNano; // not count connect timeout, as action starts after connecting
         long remainingTime = actionLog.remainingProcessTimeInNano();
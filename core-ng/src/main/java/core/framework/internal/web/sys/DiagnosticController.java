@@ -1,11 +1,16 @@
 package core.framework.internal.web.sys;
 
+import core.framework.api.http.HTTPStatus;
 import core.framework.http.ContentType;
 import core.framework.internal.stat.Diagnostic;
+import core.framework.internal.stat.Profiler;
+import core.framework.internal.stat.StatCollector;
 import core.framework.internal.web.http.IPAccessControl;
 import core.framework.util.Files;
 import core.framework.web.Request;
 import core.framework.web.Response;
+import core.framework.web.exception.BadRequestException;
+import org.jspecify.annotations.Nullable;
 
 import java.nio.file.Path;
 
@@ -14,6 +19,11 @@ import java.nio.file.Path;
  */
 public class DiagnosticController {
     private final IPAccessControl accessControl = new IPAccessControl();
+    private final StatCollector collector;
+
+    public DiagnosticController(StatCollector collector) {
+        this.collector = collector;
+    }
 
     // add -XX:NativeMemoryTracking=summary or -XX:NativeMemoryTracking=detail to enable native memory tracking, and vmInfo will include NMT summary
     // enabling NMT will result in a 5-10 percent JVM performance drop
@@ -37,6 +47,27 @@ public class DiagnosticController {
         return Response.text(Diagnostic.heap());
     }
 
+    // top stacks in folded format, enable by profile() in module
+    public Response profile(Request request) {
+        accessControl.validate(request.clientIP());
+        Profiler profiler = collector.profiler;
+        if (profiler == null) return Response.text("profiler is not enabled").status(HTTPStatus.NOT_FOUND);
+        int topN = topN(request.queryParams().get("top"));
+        return Response.text(profiler.summary(topN));
+    }
+
+    int topN(@Nullable String value) {
+        if (value == null) return 50;
+        int topN;
+        try {
+            topN = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("top must be number, value=" + value, "INVALID_HTTP_REQUEST", e);
+        }
+        if (topN <= 0) throw new BadRequestException("top must be greater than 0, value=" + value, "INVALID_HTTP_REQUEST");
+        return topN;
+    }
+
     public Response proc(Request request) {
         accessControl.validate(request.clientIP());
 
@@ -0,0 +1,64 @@
+package core.framework.kafka;
+
+import core.framework.db.Database;
+import core.framework.db.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * mark message ids processed within same db transaction of handler, so effects and dedup record are committed atomically,
+ * handler runs inside the transaction started by this store, so handler must use same database and must not call database.beginTransaction() itself,
+ * table schema is (topic VARCHAR, message_id VARCHAR, created_time TIMESTAMP, PRIMARY KEY (topic, message_id)),
+ * expired rows should be purged by scheduled job
+ *
+ * @author neo
+ */
+public final class DBMessageIdempotencyStore implements MessageIdempotencyStore {
+    private final Database database;
+    private final String selectSQL;
+    private final String insertSQL;
+
+    public DBMessageIdempotencyStore(Database database, String table) {
+        this.database = database;
+        selectSQL = "SELECT message_id FROM " + table + " WHERE topic = ? AND message_id IN (";
+        insertSQL = "INSERT INTO " + table + " (topic, message_id, created_time) VALUES (?, ?, ?)";
+    }
+
+    @Override
+    public Set<String> processed(String topic, List<String> messageIds) {
+        var builder = new StringBuilder(selectSQL);
+        Object[] params = new Object[messageIds.size() + 1];
+        params[0] = topic;
+        for (int i = 0; i < messageIds.size(); i++) {
+            if (i > 0) builder.append(", ");
+            builder.append('?');
+            params[i + 1] = messageIds.get(i);
+        }
+        builder.append(')');
+        return new HashSet<>(database.select(builder.toString(), String.class, params));
+    }
+
+    @Override
+    public void process(String topic, List<String> messageIds, Handler handler) throws Exception {
+        try (Transaction transaction = database.beginTransaction()) {
+            try {
+                handler.handle();
+            } catch (Error e) {
+                if (e.getMessage() != null && e.getMessage().startsWith("nested transaction"))
+                    throw new Error("handler must not begin transaction with DBMessageIdempotencyStore, db operations of handler already run within transaction, topic=" + topic, e);
+                throw e;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> params = new ArrayList<>(messageIds.size());
+            for (String messageId : messageIds) {
+                params.add(new Object[]{topic, messageId, now});
+            }
+            database.batchExecute(insertSQL, params);  // duplicated key fails transaction if other consumer processed same message concurrently
+            transaction.commit();
+        }
+    }
+}
@@ -12,4 +12,8 @@ public class KafkaException extends RuntimeException {
     public KafkaException(String message) {
         super(message);
     }
+
+    public KafkaException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
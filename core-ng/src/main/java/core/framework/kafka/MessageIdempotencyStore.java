@@ -0,0 +1,25 @@
+package core.framework.kafka;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * dedup redelivered messages by message id header, which is stamped by MessagePublisher,
+ * lookup is batched once per topic per poll, and handler runs within process(), so store can mark messages processed along with handler
+ *
+ * @author neo
+ */
+public interface MessageIdempotencyStore {
+    // return message ids already processed, duplicated messages are skipped and committed, messageIds are unique within one call,
+    // must not include messages still being processed by other consumer, otherwise redelivered message of crashed consumer is lost
+    Set<String> processed(String topic, List<String> messageIds);
+
+    // run handler and mark messages processed, if handler fails, messages must remain unprocessed to be redelivered or retried,
+    // if messages are being processed by other consumer, fail without running handler, so messages go through retry
+    void process(String topic, List<String> messageIds, Handler handler) throws Exception;
+
+    @FunctionalInterface
+    interface Handler {
+        void handle() throws Exception;
+    }
+}
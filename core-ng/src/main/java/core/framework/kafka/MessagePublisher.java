@@ -2,6 +2,8 @@ package core.framework.kafka;
 
 import org.jspecify.annotations.Nullable;
 
+import java.util.List;
+
 /**
  * @author neo
  */
@@ -12,4 +14,12 @@ public interface MessagePublisher<T> {
     }
 
     void publish(@Nullable String key, T value);
+
+    // send all messages and wait for acks, blocks when in-flight bytes reach kafka().maxInFlightBytes(), throws KafkaException if failed or timed out,
+    // default implementation publishes one by one, to keep custom implementations compatible
+    default void publishAll(List<Message<T>> messages) {
+        for (Message<T> message : messages) {
+            publish(message.key, message.value);
+        }
+    }
 }
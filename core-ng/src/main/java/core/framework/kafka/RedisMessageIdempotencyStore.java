@@ -0,0 +1,83 @@
+package core.framework.kafka;
+
+import core.framework.redis.Redis;
+import core.framework.util.Maps;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * only message ids marked as processed are skipped, before handling, message ids are claimed with SET NX,
+ * claim expires after processTimeout in case consumer crashed during handling, and is extended to expiration once handler succeeds, failed messages are released to be handled again,
+ * if message is still claimed by other consumer (e.g. redelivered after rebalance or crash), handling fails, so message goes to retry if configured (with delay longer than processTimeout), not to be dropped
+ *
+ * @author neo
+ */
+public final class RedisMessageIdempotencyStore implements MessageIdempotencyStore {
+    private static final String PROCESSING = "processing";
+    private static final String PROCESSED = "processed";
+
+    private final Redis redis;
+    private final Duration expiration;
+    private final Duration processTimeout;
+
+    public RedisMessageIdempotencyStore(Redis redis, Duration expiration, Duration processTimeout) {
+        this.redis = redis;
+        this.expiration = expiration;
+        this.processTimeout = processTimeout;
+    }
+
+    @Override
+    public Set<String> processed(String topic, List<String> messageIds) {
+        Map<String, String> values = redis.multiGet(keys(topic, messageIds));
+        Set<String> processed = new HashSet<>();
+        for (String messageId : messageIds) {
+            if (PROCESSED.equals(values.get(key(topic, messageId)))) processed.add(messageId);
+        }
+        return processed;
+    }
+
+    @Override
+    public void process(String topic, List<String> messageIds, Handler handler) throws Exception {
+        Set<String> claimedKeys = redis.multiSet(values(topic, messageIds, PROCESSING), processTimeout, true);
+        if (claimedKeys.size() < messageIds.size()) {
+            if (!claimedKeys.isEmpty()) redis.del(claimedKeys.toArray(String[]::new));
+            List<String> claimedByOthers = new ArrayList<>();
+            for (String messageId : messageIds) {
+                if (!claimedKeys.contains(key(topic, messageId))) claimedByOthers.add(messageId);
+            }
+            throw new Error("message is being processed by other consumer, topic=" + topic + ", messageIds=" + claimedByOthers);
+        }
+        try {
+            handler.handle();
+        } catch (Throwable e) {
+            redis.del(keys(topic, messageIds));
+            throw e;
+        }
+        redis.multiSet(values(topic, messageIds, PROCESSED), expiration, false);
+    }
+
+    private String[] keys(String topic, List<String> messageIds) {
+        String[] keys = new String[messageIds.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(topic, messageIds.get(i));
+        }
+        return keys;
+    }
+
+    private Map<String, String> values(String topic, List<String> messageIds, String value) {
+        Map<String, String> values = Maps.newLinkedHashMapWithExpectedSize(messageIds.size());
+        for (String messageId : messageIds) {
+            values.put(key(topic, messageId), value);
+        }
+        return values;
+    }
+
+    private String key(String topic, String messageId) {
+        return "message:" + topic + ":" + messageId;
+    }
+}
@@ -0,0 +1,21 @@
+package core.framework.log.message;
+
+import core.framework.api.json.Property;
+
+import java.util.List;
+
+/**
+ * @author neo
+ */
+public class LatencyHistogramMessage {
+    @Property(name = "action")
+    public String action;
+    @Property(name = "operation")
+    public String operation;        // "elapsed" for action, or performance stat operation, e.g. db, redis, http
+    @Property(name = "count")
+    public Long count;
+    @Property(name = "buckets")
+    public List<Integer> buckets;   // sparse bucket indexes of LatencyHistogram, sorted
+    @Property(name = "counts")
+    public List<Long> counts;
+}
@@ -1,8 +1,10 @@
 package core.framework.log.message;
 
 import core.framework.api.json.Property;
+import org.jspecify.annotations.Nullable;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,4 +29,7 @@ public class StatMessage {
     public Map<String, Double> stats;
     @Property(name = "info")
     public Map<String, String> info;
+    @Nullable
+    @Property(name = "histograms")
+    public List<LatencyHistogramMessage> histograms;
 }
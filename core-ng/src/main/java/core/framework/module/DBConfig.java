@@ -108,6 +108,13 @@ public class DBConfig extends Config {
         database.transactionManager.longTransactionThresholdInNanos = threshold.toNanos();
     }
 
+    // memoize select results within action, same select with same params will not query db again, any write to this db clears memo,
+    // memo is not used within transaction, and db_memo_hits stat shows how many queries are saved
+    // each call returns copies of memoized entities (json columns are deep copied), so modifying returned entities is safe
+    public void memoizeQueries(boolean memoize) {
+        database.memoizeQueries(memoize);
+    }
+
     public void timeout(Duration timeout) {
         database.timeout(timeout);
     }
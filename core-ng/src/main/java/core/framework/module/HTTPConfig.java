@@ -5,6 +5,7 @@ import core.framework.internal.inject.InjectValidator;
 import core.framework.internal.json.JSONClassValidator;
 import core.framework.internal.module.Config;
 import core.framework.internal.module.ModuleContext;
+import core.framework.internal.web.ConcurrencyLimiter;
 import core.framework.internal.web.HTTPHost;
 import core.framework.internal.web.HTTPIOHandler;
 import core.framework.internal.web.bean.RequestBeanReader;
@@ -117,6 +118,14 @@ public final class HTTPConfig extends Config {
         context.httpServer.httpHandler.maxProcessTimeInNano = maxProcessTime.toNanos();
     }
 
+    // if concurrent requests exceed limit, http requests wait up to 100ms for available slot, then are rejected with 503, the limit adapts between minLimit and maxLimit based on latency,
+    // by default it starts from cores * 32, and adjusts between cores * 2 and cores * 128
+    public void concurrencyLimit(int minLimit, int maxLimit) {
+        if (minLimit <= 0 || maxLimit < minLimit) throw new Error("invalid concurrency limit, minLimit=" + minLimit + ", maxLimit=" + maxLimit);
+        int initialLimit = Math.max(minLimit, Math.min(maxLimit, Runtime.getRuntime().availableProcessors() * 32));
+        context.httpServer.httpHandler.limiter = new ConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+    }
+
     // to configure max body size for both regular post and multipart upload
     public void maxEntitySize(long maxEntitySize) {
         context.httpServerConfig.maxEntitySize = maxEntitySize;
@@ -3,22 +3,29 @@ package core.framework.module;
 import core.framework.http.HTTPMethod;
 import core.framework.internal.inject.InjectValidator;
 import core.framework.internal.kafka.KafkaURI;
+import core.framework.internal.kafka.MessageCodec;
 import core.framework.internal.kafka.MessageListener;
 import core.framework.internal.kafka.MessageProducer;
 import core.framework.internal.kafka.MessagePublisherImpl;
+import core.framework.internal.kafka.MessageRetry;
+import core.framework.internal.log.LogManager;
 import core.framework.internal.module.Config;
 import core.framework.internal.module.ModuleContext;
 import core.framework.internal.module.ShutdownHook;
 import core.framework.internal.web.sys.KafkaController;
 import core.framework.kafka.BulkMessageHandler;
 import core.framework.kafka.MessageHandler;
+import core.framework.kafka.MessageIdempotencyStore;
 import core.framework.kafka.MessagePublisher;
+import core.framework.util.Network;
 import core.framework.util.Types;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
 
 import static core.framework.util.Strings.format;
 
@@ -37,7 +44,11 @@ public class KafkaConfig extends Config {
     @Nullable
     private MessageListener listener;
     private boolean handlerAdded;
+    private boolean producerUsed;       // publisher or retry added
     private int maxRequestSize = 1024 * 1024;   // default 1M, refer to org.apache.kafka.clients.producer.ProducerConfig.MAX_REQUEST_SIZE_CONFIG
+    private int maxInFlightBytes = 32 * 1024 * 1024;   // same as default producer buffer memory
+    private boolean transactional;
+    private final Set<String> binaryTopics = new HashSet<>();
     private KafkaController controller;
 
     @Override
@@ -53,6 +64,11 @@ public class KafkaConfig extends Config {
             throw new Error("kafka is configured, but no publisher/handler added, please remove unnecessary config, name=" + name);
         if (listener != null && listener.topics.isEmpty())
             throw new Error("kafka listener is configured, but no handler added, please remove unnecessary config, name=" + name);
+        if (transactional) {
+            if (listener == null) throw new Error("transactional kafka requires message handler, name=" + name);
+            if (!producerUsed) throw new Error("transactional kafka requires publisher or retry, name=" + name);
+            listener.transactionalProducer = producer;  // producer is null in test context
+        }
     }
 
     public void uri(String uri) {
@@ -73,12 +89,29 @@ public class KafkaConfig extends Config {
         context.beanFactory.bind(Types.generic(MessagePublisher.class, messageClass), name, publisher);
         context.apiController.topics.put(topic, messageClass);
         handlerAdded = true;
+        producerUsed = true;
         return publisher;
     }
 
     <T> MessagePublisher<T> createMessagePublisher(String topic, Class<T> messageClass) {
+        MessageCodec<T> codec = binaryTopics.contains(topic) ? new MessageCodec<>(messageClass) : null;
+        return new MessagePublisherImpl<>(producer(), topic, messageClass, codec);
+    }
+
+    // encode message of topic with generated binary codec instead of json, with schema fingerprint in header,
+    // consumers always accept both json and binary message, so enable on consumer side first, then producer side,
+    // fields are encoded by position, any change of message class changes fingerprint, and mismatched message fails to handle (goes to retry/dlq if configured),
+    // so switch producer back to json before changing message class, must be called before publish() or subscribe() of the topic
+    public void binaryCodec(String topic) {
+        if (context.apiController.topics.containsKey(topic) || listener != null && listener.topics.contains(topic))
+            throw new Error("binaryCodec() must be called before publish() or subscribe(), topic=" + topic);
+        binaryTopics.add(topic);
+    }
+
+    private MessageProducer producer() {
         if (producer == null) {
-            var producer = new MessageProducer(uri, name, maxRequestSize);
+            var producer = new MessageProducer(uri, name, maxRequestSize, maxInFlightBytes);
+            if (transactional) producer.transactionalId = LogManager.APP_NAME + "-" + Network.LOCAL_HOST_NAME + (name == null ? "" : "-" + name);     // must be unique and stable for each instance
             context.collector.metrics.add(producer.producerMetrics);
             context.startupHook.initialize.add(producer::initialize);
             context.shutdownHook.add(ShutdownHook.STAGE_4, producer::close);
@@ -86,7 +119,7 @@ public class KafkaConfig extends Config {
             context.route(HTTPMethod.POST, managementPathPattern("/topic/:topic/key/:key/publish"), (LambdaController) controller::publish, true);
             this.producer = producer;
         }
-        return new MessagePublisherImpl<>(producer, topic, messageClass);
+        return producer;
     }
 
     String managementPathPattern(String postfix) {
@@ -100,16 +133,56 @@ public class KafkaConfig extends Config {
         subscribe(topic, messageClass, handler, null);
     }
 
+    // failed message is republished to "{topic}-retry" with retryAttempts/retryAt headers, and handled again by same handler after retryDelay,
+    // retry topic partition is paused until message is due, so it doesn't block main topic,
+    // after maxAttempts retries, message is published to "{topic}-dlq" with original headers and error, retry and dlq topics must be created beforehand
+    public <T> void subscribe(String topic, Class<T> messageClass, MessageHandler<T> handler, int maxAttempts, Duration retryDelay) {
+        if (maxAttempts <= 0) throw new Error("max attempts must be greater than 0, value=" + maxAttempts);
+        if (retryDelay.toMillis() <= 0) throw new Error("retry delay must be greater than 0, value=" + retryDelay);
+        subscribe(topic, messageClass, handler, null);
+        listener().retry(topic, createMessageRetry(topic, maxAttempts, retryDelay));
+        producerUsed = true;
+    }
+
+    MessageRetry createMessageRetry(String topic, int maxAttempts, Duration retryDelay) {
+        return new MessageRetry(producer(), topic, maxAttempts, retryDelay.toMillis());
+    }
+
     public <T> void subscribe(String topic, Class<T> messageClass, BulkMessageHandler<T> handler) {
         subscribe(topic, messageClass, null, handler);
     }
 
+    // split each poll batch by key hash into at most parallelism groups, each group is handled concurrently in its own action,
+    // messages with same key stay in same group and in order, messages without key are split by partition
+    public <T> void subscribe(String topic, Class<T> messageClass, BulkMessageHandler<T> handler, int parallelism) {
+        if (parallelism <= 0) throw new Error("parallelism must be greater than 0, value=" + parallelism);
+        subscribe(topic, messageClass, null, handler);
+        listener().bulkParallelism(topic, parallelism);
+    }
+
+    // accumulate bulk messages across polls, handle when reaching minSize or maxBytes, or after maxLinger, each handler call takes at most maxSize messages and maxBytes,
+    // offsets of buffered messages are committed only after handled, must be called after subscribe(), not applicable to partitionPipeline() and transactional()
+    public void batchWindow(String topic, int minSize, int maxSize, long maxBytes, Duration maxLinger) {
+        if (minSize <= 0 || maxSize < minSize) throw new Error(format("batch size must be positive and max size must not be less than min size, min={}, max={}", minSize, maxSize));
+        if (maxBytes <= 0) throw new Error("max bytes must be greater than 0, value=" + maxBytes);
+        if (maxLinger.toMillis() <= 0 || maxLinger.compareTo(Duration.ofMinutes(10)) > 0)
+            throw new Error("max linger must be greater than 0 and not greater than 10 mins, value=" + maxLinger);     // refer to max poll interval
+        listener().batchWindow(topic, minSize, maxSize, maxBytes, maxLinger);
+    }
+
+    // skip redelivered messages by message id header, which is stamped by MessagePublisher, e.g. after rebalance or failed commit,
+    // use RedisMessageIdempotencyStore or DBMessageIdempotencyStore (marks processed within handler db transaction), must be called after subscribe()
+    public void idempotency(String topic, MessageIdempotencyStore store) {
+        listener().idempotency(topic, store);
+    }
+
     private <T> void subscribe(String topic, Class<T> messageClass, @Nullable MessageHandler<T> handler, @Nullable BulkMessageHandler<T> bulkHandler) {
         if (handler == null && bulkHandler == null) throw new Error("handler must not be null");
         logger.info("subscribe, topic={}, messageClass={}, handlerClass={}, name={}", topic, messageClass.getTypeName(), handler != null ? handler.getClass().getCanonicalName() : bulkHandler.getClass().getCanonicalName(), name);
         context.beanClassValidator.validate(messageClass);
         new InjectValidator(handler != null ? handler : bulkHandler).validate();
         listener().subscribe(topic, messageClass, handler, bulkHandler);
+        if (binaryTopics.contains(topic)) listener().binaryCodec(topic);
         handlerAdded = true;
     }
 
@@ -139,6 +212,32 @@ public class KafkaConfig extends Config {
         listener().concurrency = concurrency;
     }
 
+    // adjust concurrency between min and max after each poll, increase when consumer lags, halve when handlers wait on db/redis pool or latency doubles,
+    // current limit is published as kafka_consumer_concurrency stat, not applicable to partitionPipeline()
+    public void concurrency(int minConcurrency, int maxConcurrency) {
+        if (minConcurrency <= 0) throw new Error("min concurrency must be greater than 0, value=" + minConcurrency);
+        if (maxConcurrency < minConcurrency) throw new Error(format("max concurrency must not be less than min concurrency, min={}, max={}", minConcurrency, maxConcurrency));
+        listener().adaptiveConcurrency(minConcurrency, maxConcurrency);
+    }
+
+    // process each partition in its own ordered lane, keep polling while messages are in flight and only commit processed offsets,
+    // slow message only blocks its own partition instead of whole poll batch, concurrency is bounded by assigned partitions
+    public void partitionPipeline(boolean enabled) {
+        listener().partitionPipeline = enabled;
+    }
+
+    // use host name as group.instance.id, which must be stable across restarts, e.g. pod name of stateful set,
+    // restarted consumer rejoins with same partitions without rebalance if it comes back within session timeout (45s by default)
+    public void staticMembership(boolean enabled) {
+        listener().groupInstanceId = enabled ? Network.LOCAL_HOST_NAME + (name == null ? "" : "-" + name) : null;
+    }
+
+    // use cooperative sticky assignor, rebalance only revokes partitions moved to other consumers, and others keep being consumed,
+    // to switch existing consumer group from eager assignor, refer to https://kafka.apache.org/documentation/#consumerconfigs_partition.assignment.strategy for rolling upgrade
+    public void cooperativeRebalance(boolean enabled) {
+        listener().cooperativeRebalance = enabled;
+    }
+
     // to increase max message size, both producer and broker sides have size limitation
     // for broker
     // use "--override message.max.bytes=size", refer to https://kafka.apache.org/documentation/#message.max.bytes
@@ -153,6 +252,21 @@ public class KafkaConfig extends Config {
         maxRequestSize = size;
     }
 
+    // publishAll() blocks when bytes of unacknowledged messages reach the budget, to bound producer memory
+    public void maxInFlightBytes(int bytes) {
+        if (bytes <= 0) throw new Error("max in-flight bytes must be greater than 0, value=" + bytes);
+        if (producer != null) throw new Error("kafka().maxInFlightBytes() must be configured before adding publisher");
+        maxInFlightBytes = bytes;
+    }
+
+    // exactly-once read-process-write, each poll batch runs in one kafka transaction,
+    // messages published by handlers and consumed offsets are committed atomically, and listener only reads committed messages,
+    // publishers of this kafka() can only be used within its message handlers, not applicable to partitionPipeline()
+    public void transactional(boolean transactional) {
+        if (producer != null) throw new Error("kafka().transactional() must be configured before adding publisher");
+        this.transactional = transactional;
+    }
+
     public void longConsumerDelayThreshold(Duration threshold) {
         listener().longConsumerDelayThresholdInNano = threshold.toNanos();
     }
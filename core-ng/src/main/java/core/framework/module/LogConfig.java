@@ -2,14 +2,19 @@ package core.framework.module;
 
 import core.framework.internal.kafka.KafkaURI;
 import core.framework.internal.log.CollectStatTask;
-import core.framework.internal.log.appender.ConsoleAppender;
+import core.framework.internal.log.SpanExporter;
+import core.framework.internal.log.SpanSink;
+import core.framework.internal.log.appender.AsyncConsoleAppender;
+import core.framework.internal.log.appender.FileSpanSink;
 import core.framework.internal.log.appender.KafkaAppender;
+import core.framework.internal.log.appender.OTLPHTTPSpanSink;
 import core.framework.internal.module.Config;
 import core.framework.internal.module.ModuleContext;
 import core.framework.internal.module.ShutdownHook;
 import core.framework.log.LogAppender;
 import org.jspecify.annotations.Nullable;
 
+import java.nio.file.Path;
 import java.time.Duration;
 
 /**
@@ -17,6 +22,8 @@ import java.time.Duration;
  */
 public class LogConfig extends Config {
     private ModuleContext context;
+    @Nullable
+    private KafkaAppender kafkaAppender;
 
     @Override
     protected void initialize(ModuleContext context, @Nullable String name) {
@@ -24,21 +31,85 @@ public class LogConfig extends Config {
     }
 
     public void appendToConsole() {
-        appender(new ConsoleAppender());
+        appendToConsole(10_000);
+    }
+
+    // write to stdout/stderr asynchronously with one writer thread, buffers at most bufferCapacity logs, oldest info actions are dropped when buffer is full
+    public void appendToConsole(int bufferCapacity) {
+        if (bufferCapacity <= 0) throw new Error("buffer capacity must be greater than 0, value=" + bufferCapacity);
+        var appender = new AsyncConsoleAppender(bufferCapacity);
+        appender(appender);
+        context.startupHook.start.add(appender::start);
+        context.shutdownHook.add(ShutdownHook.STAGE_7, appender::stop);
+        context.collector.metrics.add(appender);
     }
 
     public void appendToKafka(String uri) {
-        var appender = new KafkaAppender(new KafkaURI(uri));
+        appendToKafka(uri, 10_000, 0.1);
+    }
+
+    // each of priority lane (warn/error actions and stats) and info lane buffers at most bufferCapacity records while kafka is slow or not available,
+    // info actions are sampled by infoSampleRate when info lane is over half full, overflowed records are spilled if spillToDisk() is configured, otherwise dropped
+    public void appendToKafka(String uri, int bufferCapacity, double infoSampleRate) {
+        if (bufferCapacity <= 0) throw new Error("buffer capacity must be greater than 0, value=" + bufferCapacity);
+        if (infoSampleRate < 0 || infoSampleRate > 1) throw new Error("info sample rate must be between 0 and 1, value=" + infoSampleRate);
+        var appender = new KafkaAppender(new KafkaURI(uri), bufferCapacity, infoSampleRate);
         appender(appender);
         context.startupHook.start.add(appender::start);
         context.shutdownHook.add(ShutdownHook.STAGE_7, appender::stop);
         context.collector.metrics.add(appender.producerMetrics);
+        context.collector.metrics.add(appender.forwarderMetrics);
+        kafkaAppender = appender;
+    }
+
+    // spill overflowed log records to local append-only file, and replay when kafka recovers, use persistent volume to replay after restart
+    public void spillToDisk(Path directory, long maxBytes) {
+        if (kafkaAppender == null) throw new Error("kafka log appender is not configured, please call appendToKafka() first");
+        kafkaAppender.spillToDisk(directory, maxBytes);
     }
 
     public void appender(LogAppender appender) {
         if (context.logManager.appender != null) throw new Error("log appender is already set, appender=" + context.logManager.appender.getClass().getSimpleName());
         context.logManager.appender = appender;
-        context.backgroundTask().scheduleWithFixedDelay(new CollectStatTask(appender, context.collector), Duration.ofSeconds(10));
+        context.backgroundTask().scheduleWithFixedDelay(new CollectStatTask(appender, context.collector, context.logManager.latencyRecorder), Duration.ofSeconds(10));
+    }
+
+    // for actions start with actionPrefix, only capture debug/info trace events of given rate of chains, the decision propagates to downstream actions via http/kafka headers,
+    // and keep trace of actions slower than slowThreshold, warn/error actions always keep trace
+    public void sampleTrace(String actionPrefix, double rate, Duration slowThreshold) {
+        if (rate < 0 || rate > 1) throw new Error("rate must be between 0 and 1, value=" + rate);
+        context.logManager.sampleTrace(actionPrefix, rate, slowThreshold.toNanos());
+    }
+
+    // export action logs as OTLP spans to OTLP/HTTP endpoint with json encoding, e.g. http://otel-collector:4318/v1/traces
+    public void exportSpans(String uri) {
+        exportSpans(new OTLPHTTPSpanSink(uri));
+    }
+
+    // export OTLP/JSON requests to local file, one request per line, e.g. for local test
+    public void exportSpans(Path file) {
+        exportSpans(new FileSpanSink(file));
+    }
+
+    private void exportSpans(SpanSink sink) {
+        if (context.logManager.spanExporter != null) throw new Error("span exporter is already set");
+        var exporter = new SpanExporter(sink, 10_000);
+        context.logManager.spanExporter = exporter;
+        context.startupHook.start.add(exporter::start);
+        context.shutdownHook.add(ShutdownHook.STAGE_7, exporter::stop);
+    }
+
+    // within every 10s window, only first maxOccurrences of warn events with same error code, logger and message template are kept as warning,
+    // the rest don't raise action result or print to console, and are reported in stat as suppressed_warnings with count and sample action ids,
+    // error events are never suppressed
+    public void aggregateWarnings(int maxOccurrences) {
+        if (maxOccurrences < 0) throw new Error("max occurrences must not be negative, value=" + maxOccurrences);
+        context.logManager.aggregateWarnings(null, maxOccurrences);
+    }
+
+    // override max occurrences for specific error code, negative value means never aggregate this error code
+    public void aggregateWarnings(String errorCode, int maxOccurrences) {
+        context.logManager.aggregateWarnings(errorCode, maxOccurrences);
     }
 
     public void maskFields(String... fields) {
@@ -4,11 +4,14 @@ import core.framework.async.Task;
 import core.framework.internal.module.Config;
 import core.framework.internal.module.ModuleContext;
 import core.framework.internal.module.ShutdownHook;
+import core.framework.internal.stat.Profiler;
+import core.framework.internal.stat.VirtualThreadMonitor;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -147,5 +150,24 @@ public abstract class Module {
         context.collector.highMemUsageThreshold = threshold;
     }
 
+    // continuous profiling with JFR streaming, the top stacks are attached to stat instead of thread dump on high cpu/heap usage, and available via /_sys/profile
+    public void profile() {
+        if (context.collector.profiler != null) throw new Error("profiler is already enabled");
+        var profiler = new Profiler();
+        context.collector.profiler = profiler;
+        context.startupHook.start.add(profiler::start);
+        context.shutdownHook.add(ShutdownHook.STAGE_7, timeout -> profiler.stop());
+    }
+
+    // record virtual thread pinning with stack sites and carrier scheduler usage into stat, pinned time is attached to action log, warn if pinned longer than threshold
+    public void monitorVirtualThreads(Duration pinnedTimeThreshold) {
+        if (context.logManager.virtualThreadMonitor != null) throw new Error("virtual thread monitor is already enabled");
+        var monitor = new VirtualThreadMonitor(pinnedTimeThreshold);
+        context.logManager.virtualThreadMonitor = monitor;
+        context.collector.metrics.add(monitor);
+        context.startupHook.start.add(monitor::start);
+        context.shutdownHook.add(ShutdownHook.STAGE_7, timeout -> monitor.stop());
+    }
+
     protected abstract void initialize();
 }
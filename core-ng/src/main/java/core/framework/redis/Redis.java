@@ -4,6 +4,7 @@ import org.jspecify.annotations.Nullable;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -35,6 +36,9 @@ public interface Redis {
 
     void multiSet(Map<String, String> values);
 
+    // pipelined set with expiration, return keys updated, e.g. with onlyIfAbsent, keys already exist are not returned
+    Set<String> multiSet(Map<String, String> values, Duration expiration, boolean onlyIfAbsent);
+
     void forEach(String pattern, Consumer<String> consumer);
 
     RedisHash hash();
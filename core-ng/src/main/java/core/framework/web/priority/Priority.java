@@ -0,0 +1,12 @@
+package core.framework.web.priority;
+
+/**
+ * when http server is overloaded, requests are shed from low priority first,
+ * HIGH can use all of concurrency limit, LOW up to 50%,
+ * NORMAL up to 90% if there is high priority route (10% of limit is reserved for HIGH), otherwise NORMAL can use all of limit
+ *
+ * @author neo
+ */
+public enum Priority {
+    HIGH, NORMAL, LOW
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package core.framework.web.priority;
+
+import org.jspecify.annotations.NullMarked;
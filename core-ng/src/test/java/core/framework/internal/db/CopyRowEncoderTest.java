@@ -0,0 +1,49 @@
+package core.framework.internal.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class CopyRowEncoderTest {
+    private CopyRowEncoder encoder;
+
+    @BeforeEach
+    void createCopyRowEncoder() {
+        var enumMapper = new EnumDBMapper();
+        enumMapper.registerEnumClass(TestEnum.class);
+        encoder = new CopyRowEncoder(enumMapper);
+    }
+
+    @Test
+    void encode() {
+        var builder = new StringBuilder();
+        encoder.encode(builder, new Object[]{"value", null, "", TestEnum.V1, 1, 2L, 1.5, new BigDecimal("86.99"), true});
+        assertThat(builder.toString()).isEqualTo("\"value\",,\"\",\"DB_V1\",1,2,1.5,86.99,t\n");
+    }
+
+    @Test
+    void encodeQuote() {
+        var builder = new StringBuilder();
+        encoder.encode(builder, new Object[]{"a \"quoted\", value\nnext line"});
+        assertThat(builder.toString()).isEqualTo("\"a \"\"quoted\"\", value\nnext line\"\n");
+    }
+
+    @Test
+    void encodeTime() {
+        var builder = new StringBuilder();
+        var uuid = UUID.randomUUID();
+        encoder.encode(builder, new Object[]{LocalDate.of(2026, 5, 5), LocalDateTime.of(2026, 5, 5, 10, 0, 1), ZonedDateTime.of(2026, 5, 5, 10, 0, 1, 0, ZoneOffset.UTC), uuid});
+        assertThat(builder.toString()).isEqualTo("2026-05-05,2026-05-05T10:00:01,2026-05-05T10:00:01Z," + uuid + "\n");
+    }
+}
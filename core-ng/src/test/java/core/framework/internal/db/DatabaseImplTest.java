@@ -233,6 +233,39 @@ class DatabaseImplTest {
             .containsEntry(CloudAuthProvider.Provider.CLOUD_AUTH, "true");
     }
 
+    @Test
+    void memoizeQueries() {
+        insertRow(1, "string1", TestEnum.V1);
+        database.memoizeQueries(true);
+        try {
+            var logManager = new LogManager();
+            logManager.run("test", null, actionLog -> {
+                String sql = "SELECT string_field as string_label, enum_field as enum_label FROM database_test where id = ?";
+                EntityView view1 = database.selectOne(sql, EntityView.class, 1).orElseThrow();
+                view1.stringField = "changed";
+                EntityView view2 = database.selectOne(sql, EntityView.class, 1).orElseThrow();
+                assertThat(view2).isNotSameAs(view1);
+                assertThat(view2.stringField).isEqualTo("string1");
+                assertThat(database.select(sql, EntityView.class, 1)).hasSize(1);
+                assertThat(database.select(sql, EntityView.class, 1)).hasSize(1);
+                assertThat(actionLog.stats).containsEntry("db_memo_hits", 2.0);
+
+                database.execute("UPDATE database_test SET string_field = ? WHERE id = ?", "string2", 1);
+                EntityView view3 = database.selectOne(sql, EntityView.class, 1).orElseThrow();
+                assertThat(view3.stringField).isEqualTo("string2");
+
+                try (Transaction transaction = database.beginTransaction()) {
+                    database.selectOne(sql, EntityView.class, 1);
+                    transaction.commit();
+                }
+                assertThat(actionLog.stats).containsEntry("db_memo_hits", 2.0);
+                return null;
+            });
+        } finally {
+            database.memoizeQueries(false);
+        }
+    }
+
     @Test
     void track() {
         var logManager = new LogManager();
@@ -20,6 +20,7 @@ class InsertQueryBuilderTest {
         assertThat(query.insertSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?)");
         assertThat(query.insertIgnoreSQL).isEqualTo("INSERT IGNORE INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?)");
         assertThat(query.upsertSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?) AS new ON DUPLICATE KEY UPDATE string_field = new.string_field, int_field = new.int_field, big_decimal_field = new.big_decimal_field, date_field = new.date_field, zoned_date_time_field = new.zoned_date_time_field");
+        assertThat(query.copySQL).isNull();
         assertThat(query.generatedColumn).isNull();
     }
 
@@ -33,6 +34,7 @@ class InsertQueryBuilderTest {
         assertThat(query.insertSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?)");
         assertThat(query.insertIgnoreSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING");
         assertThat(query.upsertSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET string_field = EXCLUDED.string_field, int_field = EXCLUDED.int_field, big_decimal_field = EXCLUDED.big_decimal_field, date_field = EXCLUDED.date_field, zoned_date_time_field = EXCLUDED.zoned_date_time_field");
+        assertThat(query.copySQL).isEqualTo("COPY assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) FROM STDIN WITH (FORMAT csv)");
         assertThat(query.generatedColumn).isNull();
     }
 
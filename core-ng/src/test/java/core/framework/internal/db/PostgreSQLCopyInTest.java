@@ -0,0 +1,69 @@
+package core.framework.internal.db;
+
+import core.framework.util.Strings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class PostgreSQLCopyInTest {
+    @Mock
+    PostgreSQLCopyIn.CopyOperation copyIn;
+    private CopyRowEncoder encoder;
+
+    @BeforeEach
+    void createCopyRowEncoder() {
+        encoder = new CopyRowEncoder(new EnumDBMapper());
+    }
+
+    @Test
+    void copyIn() throws SQLException {
+        when(copyIn.end()).thenReturn(2L);
+
+        long rows = PostgreSQLCopyIn.copyIn(copyIn, List.<Object[]>of(new Object[]{1, "value1"}, new Object[]{2, "value2"}).iterator(), encoder);
+
+        assertThat(rows).isEqualTo(2);
+        verify(copyIn).write(Strings.bytes("1,\"value1\"\n2,\"value2\"\n"));
+        verify(copyIn, never()).cancel();
+    }
+
+    @Test
+    void cancelWithFailure() throws SQLException {
+        when(copyIn.active()).thenReturn(true);
+        doThrow(new SQLException("failed to cancel")).when(copyIn).cancel();
+
+        Iterator<Object[]> rows = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Object[] next() {
+                throw new Error("validation failed");
+            }
+        };
+        assertThatThrownBy(() -> PostgreSQLCopyIn.copyIn(copyIn, rows, encoder))
+            .isInstanceOf(Error.class)
+            .hasMessage("validation failed")
+            .satisfies(e -> assertThat(e.getSuppressed()).singleElement().satisfies(suppressed -> assertThat(suppressed).hasMessage("failed to cancel")));
+        verify(copyIn, never()).write(any());
+    }
+}
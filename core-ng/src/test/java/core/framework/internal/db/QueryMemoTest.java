@@ -0,0 +1,34 @@
+package core.framework.internal.db;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class QueryMemoTest {
+    @Test
+    void copy() {
+        assertThat(QueryMemo.copy("value")).isEqualTo("value");
+
+        var entity = new JSONEntity();
+        entity.id = "id1";
+        entity.jsonField = new JSONEntity.TestJSON();
+        entity.jsonField.data = "data1";
+        entity.enumList = new ArrayList<>(List.of(JSONEntity.TestJSONEnum.V1));
+
+        JSONEntity copy = QueryMemo.copy(entity);
+        copy.jsonField.data = "changed";
+        copy.enumList.add(JSONEntity.TestJSONEnum.V2);
+
+        assertThat(copy).isNotSameAs(entity);
+        assertThat(copy.id).isEqualTo("id1");
+        assertThat(copy.intList).isNull();
+        assertThat(entity.jsonField.data).isEqualTo("data1");
+        assertThat(entity.enumList).containsExactly(JSONEntity.TestJSONEnum.V1);
+    }
+}
@@ -254,6 +254,20 @@ class RepositoryImplAssignedIdEntityTest {
             .hasMessageContaining("primaryKeys must not be empty");
     }
 
+    @Test
+    void bulkLoad() {
+        List<AssignedIdEntity> entities = Lists.newArrayList();
+        for (int i = 0; i < 2500; i++) {
+            AssignedIdEntity entity = entity(String.valueOf(i), "value" + i, i);
+            entities.add(entity);
+        }
+        long rows = repository.bulkLoad(entities);
+        assertThat(rows).isEqualTo(2500);
+
+        assertThat(repository.count(null)).isEqualTo(2500);
+        assertThat(repository.get("2499")).get().usingRecursiveComparison().isEqualTo(entities.get(2499));
+    }
+
     @Test
     void selectWithGroupBy() {
         List<AssignedIdEntity> entities = Lists.newArrayList();
@@ -0,0 +1,39 @@
+package core.framework.internal.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class AdaptiveConcurrencyTest {
+    private AdaptiveConcurrency concurrency;
+
+    @BeforeEach
+    void createAdaptiveConcurrency() {
+        concurrency = new AdaptiveConcurrency(16, 272);
+    }
+
+    @Test
+    void adjust() {
+        assertThat(concurrency.limit()).isEqualTo(16);
+        assertThat(concurrency.adjust(1000, 500)).as("no message processed").isEqualTo(16);
+
+        concurrency.record(100, false);
+        assertThat(concurrency.adjust(1000, 500)).as("lagging").isEqualTo(32);
+
+        concurrency.record(100, false);
+        assertThat(concurrency.adjust(1000, 500)).isEqualTo(48);
+
+        concurrency.record(100, true);
+        assertThat(concurrency.adjust(1000, 500)).as("saturated").isEqualTo(24);
+
+        concurrency.record(100, false);
+        assertThat(concurrency.adjust(0, 500)).as("caught up").isEqualTo(23);
+
+        concurrency.record(300, false);
+        assertThat(concurrency.adjust(1000, 500)).as("latency doubled").isEqualTo(16);
+    }
+}
@@ -0,0 +1,80 @@
+package core.framework.internal.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * @author neo
+ */
+class BatchWindowTest {
+    private BatchWindow window;
+
+    @BeforeEach
+    void createBatchWindow() {
+        window = new BatchWindow("topic", 3, 4, 100, 1000);
+    }
+
+    @Test
+    void ready() {
+        assertThat(window.ready(0)).isFalse();
+        assertThat(window.remainingTime(0)).isEqualTo(Long.MAX_VALUE);
+
+        window.add(List.of(message(0, 1, 10)), 0);
+        assertThat(window.ready(999)).isFalse();
+        assertThat(window.remainingTime(400)).isEqualTo(600);
+        assertThat(window.ready(1000)).isTrue();
+
+        window.add(List.of(message(0, 2, 10), message(0, 3, 10)), 500);
+        assertThat(window.ready(500)).isTrue();
+    }
+
+    @Test
+    void readyWithMaxBytes() {
+        window.add(List.of(message(0, 1, 100)), 0);
+        assertThat(window.ready(0)).isTrue();
+    }
+
+    @Test
+    void flush() {
+        window.add(List.of(message(0, 1, 10), message(0, 2, 10), message(0, 3, 10), message(0, 4, 10), message(0, 5, 10), message(0, 6, 91)), 0);
+        List<List<KafkaMessage>> batches = window.flush();
+
+        assertThat(batches).extracting(List::size).containsExactly(4, 1, 1);
+        assertThat(window.ready(2000)).isFalse();
+    }
+
+    @Test
+    void offsets() {
+        window.add(List.of(message(0, 5, 10), message(0, 6, 10), message(1, 3, 10)), 0);
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        offsets.put(new TopicPartition("topic", 0), new OffsetAndMetadata(7));
+        offsets.put(new TopicPartition("topic", 2), new OffsetAndMetadata(9));
+        window.offsets(offsets);
+
+        assertThat(offsets).containsOnly(entry(new TopicPartition("topic", 0), new OffsetAndMetadata(5)),
+            entry(new TopicPartition("topic", 2), new OffsetAndMetadata(9)));
+    }
+
+    @Test
+    void revoke() {
+        window.add(List.of(message(0, 5, 10), message(1, 3, 10), message(0, 6, 10)), 0);
+
+        assertThat(window.revoke(new TopicPartition("other", 0))).isNull();
+        assertThat(window.revoke(new TopicPartition("topic", 0))).isEqualTo(5);
+        assertThat(window.flush()).singleElement().satisfies(batch -> assertThat(batch).extracting(message -> message.offset).containsExactly(3L));
+    }
+
+    private KafkaMessage message(int partition, long offset, int size) {
+        return new KafkaMessage(new ConsumerRecord<>("topic", partition, offset, "key", new byte[size]));
+    }
+}
@@ -0,0 +1,91 @@
+package core.framework.internal.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class MessageCodecTest {
+    private MessageCodec<TestMessage> codec;
+
+    @BeforeEach
+    void createMessageCodec() {
+        codec = new MessageCodec<>(TestMessage.class);
+    }
+
+    @Test
+    void encode() {
+        var message = new TestMessage();
+        message.zonedDateTimeField = ZonedDateTime.of(2026, 5, 5, 10, 30, 0, 100, ZoneId.of("America/New_York"));
+        message.dateTimeField = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999);
+        message.stringField = "value 中文";
+        message.listField = List.of("v1", "v2");
+        message.mapField = Map.of("k1", "v1");
+        message.childField = new TestMessage.Child();
+        message.childField.booleanField = Boolean.TRUE;
+        var child = new TestMessage.Child();
+        child.booleanField = Boolean.FALSE;
+        message.childrenField = List.of(child, new TestMessage.Child());
+        message.enumField = TestMessage.TestEnum.VALUE2;
+
+        TestMessage decoded = codec.decode(codec.encode(message));
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(message);
+    }
+
+    @Test
+    void encodeNullFields() {
+        var message = new TestMessage();
+        message.stringField = "value";
+
+        TestMessage decoded = codec.decode(codec.encode(message));
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(message);
+    }
+
+    @Test
+    void fingerprint() {
+        assertThat(codec.fingerprint).hasSize(16)
+            .isEqualTo(new MessageCodec<>(TestMessage.class).fingerprint);
+        assertThat(new MessageCodec<>(TestMessage.Child.class).fingerprint).isNotEqualTo(codec.fingerprint);
+    }
+
+    @Test
+    void writeValues() {
+        var writer = new BinaryWriter(1);
+        writer.writeInteger(-1);
+        writer.writeLong(Long.MIN_VALUE);
+        writer.writeDouble(1.5);
+        writer.writeBigDecimal(new BigDecimal("-0.010"));
+        writer.writeLocalDate(LocalDate.of(2026, 5, 5));
+        writer.writeLocalTime(LocalTime.of(23, 59, 59, 1));
+        writer.writeInstant(Instant.ofEpochSecond(-1, 5));
+        writer.writeUUID(new UUID(-1, 1));
+        writer.writeInteger(null);
+        writer.writeBoolean(null);
+
+        var reader = new BinaryReader(writer.toByteArray());
+        assertThat(reader.readInteger()).isEqualTo(-1);
+        assertThat(reader.readLong()).isEqualTo(Long.MIN_VALUE);
+        assertThat(reader.readDouble()).isEqualTo(1.5);
+        assertThat(reader.readBigDecimal()).isEqualTo(new BigDecimal("-0.010"));
+        assertThat(reader.readLocalDate()).isEqualTo(LocalDate.of(2026, 5, 5));
+        assertThat(reader.readLocalTime()).isEqualTo(LocalTime.of(23, 59, 59, 1));
+        assertThat(reader.readInstant()).isEqualTo(Instant.ofEpochSecond(-1, 5));
+        assertThat(reader.readUUID()).isEqualTo(new UUID(-1, 1));
+        assertThat(reader.readInteger()).isNull();
+        assertThat(reader.readBoolean()).isNull();
+    }
+}
@@ -0,0 +1,84 @@
+package core.framework.internal.kafka;
+
+import core.framework.kafka.MessageIdempotencyStore;
+import core.framework.util.Strings;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageIdempotencyTest {
+    @Mock
+    MessageIdempotencyStore store;
+    @Mock
+    MessageIdempotencyStore.Handler handler;
+    private MessageIdempotency idempotency;
+
+    @BeforeEach
+    void createMessageIdempotency() {
+        idempotency = new MessageIdempotency("topic", store);
+    }
+
+    @Test
+    void markDuplicated() {
+        when(store.processed("topic", List.of("id1", "id2"))).thenReturn(Set.of("id2"));
+        List<KafkaMessage> messages = List.of(message("id1"), message("id2"), message(null));
+        idempotency.markDuplicated(messages);
+
+        assertThat(messages).extracting(message -> message.duplicated).containsExactly(false, true, false);
+    }
+
+    @Test
+    void markDuplicatedWithinBatch() {
+        when(store.processed("topic", List.of("id1"))).thenReturn(Set.of());
+        List<KafkaMessage> messages = List.of(message("id1"), message("id1"));
+        idempotency.markDuplicated(messages);
+
+        assertThat(messages).extracting(message -> message.duplicated).containsExactly(false, true);
+    }
+
+    @Test
+    void markDuplicatedWithoutMessageId() {
+        idempotency.markDuplicated(List.of(message(null)));
+
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void process() throws Exception {
+        idempotency.process(List.of(message("id1"), message(null)), handler);
+
+        verify(store).process(eq("topic"), eq(List.of("id1")), any());
+    }
+
+    @Test
+    void processWithoutMessageId() throws Exception {
+        idempotency.process(List.of(message(null)), handler);
+
+        verify(handler).handle();
+        verifyNoInteractions(store);
+    }
+
+    private KafkaMessage message(@Nullable String messageId) {
+        var record = new ConsumerRecord<>("topic", 0, 1, "key", Strings.bytes("{}"));
+        if (messageId != null) record.headers().add(KafkaMessage.HEADER_MESSAGE_ID, Strings.bytes(messageId));
+        return new KafkaMessage(record);
+    }
+}
@@ -22,6 +22,17 @@ class MessageListenerTest {
         assertThat(listener.threadName("name")).isEqualTo("kafka-listener-name");
     }
 
+    @Test
+    void retry() {
+        listener.subscribe("topic", TestMessage.class, (key, message) -> {
+        }, null);
+        listener.retry("topic", new MessageRetry(null, "topic", 3, 1000));
+
+        assertThat(listener.topics).containsOnly("topic", "topic-retry");
+        assertThat(listener.processes.get("topic-retry")).isSameAs(listener.processes.get("topic"));
+        assertThat(listener.retryTopics).containsOnly("topic-retry");
+    }
+
     @Test
     void createConsumer() {
         assertThat(listener.createConsumer()).isNotNull();
@@ -1,6 +1,8 @@
 package core.framework.internal.kafka;
 
+import core.framework.internal.log.LogManager;
 import core.framework.kafka.BulkMessageHandler;
+import core.framework.kafka.KafkaException;
 import core.framework.kafka.MessageHandler;
 import core.framework.util.Strings;
 import org.apache.kafka.clients.consumer.Consumer;
@@ -19,7 +21,12 @@ import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,6 +66,37 @@ class MessageListenerThreadProcessTest {
         thread.awaitTermination(1000);
     }
 
+    @Test
+    void rewindRetryFailed() throws Exception {
+        var producer = mock(MessageProducer.class);
+        doThrow(new KafkaException("timeout")).when(producer).sendAll(any(), any());
+        var listener = new MessageListener(null, null, new LogManager(), 300_000L);
+        listener.processes.put("topic1", new MessageProcess<>(messageHandler, TestMessage.class));
+        listener.retry("topic1", new MessageRetry(producer, "topic1", 3, 1000));
+        lenient().doThrow(new Error("test")).when(messageHandler).handle(any(), any());     // message may fail in validation before handling
+        var thread = new MessageListenerThread("kafka-listener", consumer, listener);
+
+        var messages = new KafkaMessages("topic1");
+        messages.addOrdered(new ConsumerRecord<>("topic1", 1, 5, "key1", Strings.bytes("{}")));
+        messages.addOrdered(new ConsumerRecord<>("topic1", 1, 6, "key1", Strings.bytes("{}")));
+        thread.processAll(List.of(messages));
+
+        verify(consumer).seek(topic("topic1"), 5);
+    }
+
+    @Test
+    void rollbackTransactionIfFailed() {
+        var producer = mock(MessageProducer.class);
+        var listener = new MessageListener(null, null, null, 300_000L);
+        listener.transactionalProducer = producer;
+        var thread = new MessageListenerThread("kafka-listener", consumer, listener);
+
+        assertThatThrownBy(() -> thread.processAll(List.of(new KafkaMessages("topic3"))))     // topic without handler
+            .isInstanceOf(NullPointerException.class);
+        verify(producer).beginTransaction();
+        verify(producer).abortTransaction();
+    }
+
     ConsumerRecord<String, byte[]> record(String topic, String key) {
         return new ConsumerRecord<>(topic, 1, 1, key, Strings.bytes("{}"));
     }
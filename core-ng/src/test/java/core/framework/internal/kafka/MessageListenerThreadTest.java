@@ -1,6 +1,5 @@
 package core.framework.internal.kafka;
 
-import core.framework.internal.json.JSONMapper;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogLevel;
 import core.framework.internal.log.LogManager;
@@ -17,8 +16,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,6 +25,7 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 /**
  * @author neo
@@ -48,13 +48,13 @@ class MessageListenerThreadTest {
     }
 
     @Test
-    void messages() throws IOException {
+    void messages() {
         var record = new ConsumerRecord<>("topic", 0, 1, "key", Strings.bytes("{}"));
         record.headers().add(KafkaMessage.HEADER_CLIENT, Strings.bytes("client"));
         record.headers().add(KafkaMessage.HEADER_REF_ID, Strings.bytes("refId"));
         record.headers().add(KafkaMessage.HEADER_CORRELATION_ID, Strings.bytes("correlationId"));
         var actionLog = new ActionLog(null, null);
-        List<Message<TestMessage>> messages = thread.messages(List.of(new KafkaMessage(record)), actionLog, JSONMapper.reader(TestMessage.class));
+        List<Message<TestMessage>> messages = thread.messages(List.of(new KafkaMessage(record)), actionLog, new MessageProcess<>(bulkMessageHandler, TestMessage.class));
 
         assertThat(messages).hasSize(1);
         assertThat(messages.getFirst().key).isEqualTo("key");
@@ -116,6 +116,15 @@ class MessageListenerThreadTest {
         verify(messageHandler).handle(isNull(), argThat(value -> "value".equals(value.stringField)));
     }
 
+    @Test
+    void handleSingleWithDuplicatedMessage() {
+        var message = new KafkaMessage(new ConsumerRecord<>("topic", 0, 0, "key", Strings.bytes("{}")));
+        message.duplicated = true;
+        thread.handleSingle("topic", new MessageProcess<>(messageHandler, TestMessage.class), message);
+
+        verifyNoInteractions(messageHandler);
+    }
+
     @Test
     void handleBulk() throws Exception {
         var key = "key";
@@ -131,6 +140,22 @@ class MessageListenerThreadTest {
                                                            && "value".equals(value.getFirst().value.stringField)));
     }
 
+    @Test
+    void groups() {
+        List<KafkaMessage> messages = List.of(message("key1", 0, 1), message("key2", 0, 2), message("key1", 0, 3), message(null, 1, 1), message(null, 2, 1));
+        var groups = new ArrayList<>(thread.groups(messages, 4));
+
+        assertThat(groups).hasSizeLessThanOrEqualTo(4);
+        assertThat(groups).flatExtracting(group -> group).hasSize(5);
+        assertThat(groups).filteredOn(group -> group.stream().anyMatch(message -> "key1".equals(message.key)))
+            .singleElement()    // same key in same group and keeps order
+            .satisfies(group -> assertThat(group).filteredOn(message -> "key1".equals(message.key)).extracting(message -> message.offset).containsExactly(1L, 3L));
+    }
+
+    private KafkaMessage message(String key, int partition, long offset) {
+        return new KafkaMessage(new ConsumerRecord<>("topic", partition, offset, key, Strings.bytes("{}")));
+    }
+
     @Test
     void shutdown() {
         thread.shutdown();
@@ -1,14 +1,23 @@
 package core.framework.internal.kafka;
 
 import core.framework.kafka.KafkaException;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author neo
@@ -18,7 +27,7 @@ class MessageProducerTest {
 
     @BeforeEach
     void createMessageProducer() {
-        producer = new MessageProducer(null, null, 1024);
+        producer = new MessageProducer(null, null, 1024, 1024);
     }
 
     @Test
@@ -28,6 +37,59 @@ class MessageProducerTest {
         producer.close(Duration.ZERO);
     }
 
+    @Test
+    void sendAll() throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        Producer<byte[], byte[]> kafkaProducer = mock(Producer.class);
+        when(kafkaProducer.send(any(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(1, Callback.class).onCompletion(null, null);
+            return CompletableFuture.completedFuture(null);
+        });
+        producer.producer = kafkaProducer;
+
+        List<ProducerRecord<byte[], byte[]>> records = List.of(new ProducerRecord<>("topic", new byte[1000]), new ProducerRecord<>("topic", new byte[2000]));
+        producer.sendAll(records, Duration.ofSeconds(1));    // in-flight bytes are released on ack
+        producer.sendAll(records, Duration.ofSeconds(1));
+        verify(kafkaProducer, times(4)).send(any(), any());
+    }
+
+    @Test
+    void sendAllWithFailure() {
+        @SuppressWarnings("unchecked")
+        Producer<byte[], byte[]> kafkaProducer = mock(Producer.class);
+        when(kafkaProducer.send(any(), any())).thenReturn(CompletableFuture.failedFuture(new KafkaException("unexpected")));
+        producer.producer = kafkaProducer;
+
+        assertThatThrownBy(() -> producer.sendAll(List.of(new ProducerRecord<>("topic", new byte[10])), Duration.ofSeconds(1)))
+            .isInstanceOf(KafkaException.class)
+            .hasMessageContaining("failed to publish messages");
+    }
+
+    @Test
+    void sendWithoutTransaction() {
+        producer.transactionalId = "id";
+        assertThatThrownBy(() -> producer.send(new ProducerRecord<>("topic", new byte[0])))
+            .hasMessageContaining("must be used within message handler");
+    }
+
+    @Test
+    void sendWithinTransaction() {
+        @SuppressWarnings("unchecked")
+        Producer<byte[], byte[]> kafkaProducer = mock(Producer.class);
+        producer.producer = kafkaProducer;
+        producer.transactionalId = "id";
+        producer.beginTransaction();
+
+        var record = new ProducerRecord<>("topic", new byte[0]);
+        assertThatThrownBy(() -> producer.send(record))     // not handler thread of transaction
+            .hasMessageContaining("must be used within message handler");
+
+        producer.enterTransaction();
+        producer.send(record);
+        producer.exitTransaction();
+        verify(kafkaProducer).send(any(), any());
+    }
+
     @Test
     void close() {
         producer.close(-1);
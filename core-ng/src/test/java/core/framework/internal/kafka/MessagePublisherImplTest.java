@@ -2,6 +2,8 @@ package core.framework.internal.kafka;
 
 import core.framework.internal.log.LogManager;
 import core.framework.internal.log.Trace;
+import core.framework.internal.log.TraceParent;
+import core.framework.kafka.Message;
 import core.framework.util.Strings;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,7 @@ import java.util.List;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.verify;
 
@@ -29,7 +32,7 @@ class MessagePublisherImplTest {
 
     @BeforeEach
     void createMessagePublisher() {
-        publisher = new MessagePublisherImpl<>(producer, "topic", TestMessage.class);
+        publisher = new MessagePublisherImpl<>(producer, "topic", TestMessage.class, null);
         logManager = new LogManager();
     }
 
@@ -48,6 +51,8 @@ class MessagePublisherImplTest {
                 assertThat(new String(record.headers().lastHeader(KafkaMessage.HEADER_CORRELATION_ID).value(), UTF_8)).isEqualTo("correlationId");
                 assertThat(new String(record.headers().lastHeader(KafkaMessage.HEADER_REF_ID).value(), UTF_8)).isEqualTo(actionLog.id);
                 assertThat(new String(record.headers().lastHeader(KafkaMessage.HEADER_TRACE).value(), UTF_8)).isEqualTo(Trace.CASCADE.name());
+                assertThat(record.headers().lastHeader(KafkaMessage.HEADER_MESSAGE_ID)).isNotNull();
+                assertThat(new String(record.headers().lastHeader(TraceParent.HEADER).value(), UTF_8)).isEqualTo(TraceParent.format(actionLog));
                 return true;
             }));
 
@@ -56,4 +61,19 @@ class MessagePublisherImplTest {
             return null;
         });
     }
+
+    @Test
+    void publishAll() throws InterruptedException {
+        var message = new TestMessage();
+        message.stringField = "value";
+        logManager.run("test", null, actionLog -> {
+            publisher.publishAll(List.of(new Message<>("key1", message), new Message<>(null, message)));
+            assertThat(actionLog.stats).containsKey("kafka_max_message_size");
+            return null;
+        });
+
+        verify(producer).sendAll(argThat(records -> records.size() == 2
+                                                    && Arrays.equals(Strings.bytes("key1"), records.getFirst().key())
+                                                    && records.get(1).key() == null), any());
+    }
 }
@@ -0,0 +1,82 @@
+package core.framework.internal.kafka;
+
+import core.framework.util.Strings;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import core.framework.kafka.KafkaException;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageRetryTest {
+    @Mock
+    MessageProducer producer;
+    private MessageRetry retry;
+
+    @BeforeEach
+    void createMessageRetry() {
+        retry = new MessageRetry(producer, "topic", 2, 1000);
+    }
+
+    @Test
+    void retry() throws InterruptedException {
+        var record = new ConsumerRecord<>("topic", 0, 1, "key", Strings.bytes("{}"));
+        record.headers().add(KafkaMessage.HEADER_CLIENT, Strings.bytes("client"));
+        assertThat(retry.retry(new KafkaMessage(record), new Error("test"))).isTrue();
+
+        ProducerRecord<byte[], byte[]> sent = send();
+        assertThat(sent.topic()).isEqualTo("topic-retry");
+        assertThat(new String(sent.headers().lastHeader(KafkaMessage.HEADER_CLIENT).value())).isEqualTo("client");
+        assertThat(new String(sent.headers().lastHeader(MessageRetry.HEADER_RETRY_ATTEMPTS).value())).isEqualTo("1");
+        assertThat(new String(sent.headers().lastHeader(MessageRetry.HEADER_ERROR).value())).isEqualTo("java.lang.Error: test");
+        assertThat(MessageRetry.retryAt(sent.headers())).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @Test
+    void deadLetter() throws InterruptedException {
+        var record = new ConsumerRecord<>("topic-retry", 0, 1, "key", Strings.bytes("{}"));
+        record.headers().add(MessageRetry.HEADER_RETRY_ATTEMPTS, Strings.bytes("2"));
+        record.headers().add(MessageRetry.HEADER_RETRY_AT, Strings.bytes("0"));
+        retry.retry(new KafkaMessage(record), new Error("test"));
+
+        ProducerRecord<byte[], byte[]> sent = send();
+        assertThat(sent.topic()).isEqualTo("topic-dlq");
+        assertThat(new String(sent.headers().lastHeader(MessageRetry.HEADER_TOPIC).value())).isEqualTo("topic");
+        assertThat(sent.headers().headers(MessageRetry.HEADER_RETRY_ATTEMPTS)).hasSize(1);
+        assertThat(sent.headers().lastHeader(MessageRetry.HEADER_RETRY_AT)).isNull();
+    }
+
+    @Test
+    void failedToRetry() throws InterruptedException {
+        doThrow(new KafkaException("timeout")).when(producer).sendAll(any(), any());
+        var record = new ConsumerRecord<>("topic", 0, 1, "key", Strings.bytes("{}"));
+
+        assertThat(retry.retry(new KafkaMessage(record), new Error("test"))).isFalse();
+    }
+
+    @Test
+    void errorMessage() {
+        assertThat(retry.errorMessage(new Error("x".repeat(2000)))).hasSize(1000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<byte[], byte[]> send() throws InterruptedException {
+        ArgumentCaptor<List<ProducerRecord<byte[], byte[]>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(producer).sendAll(captor.capture(), any());
+        return captor.getValue().getFirst();
+    }
+}
@@ -0,0 +1,48 @@
+package core.framework.internal.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class OffsetTrackerTest {
+    private OffsetTracker tracker;
+
+    @BeforeEach
+    void createOffsetTracker() {
+        tracker = new OffsetTracker();
+    }
+
+    @Test
+    void commitOffset() {
+        assertThat(tracker.commitOffset()).isEqualTo(-1);
+
+        tracker.add(10);
+        tracker.add(11);
+        tracker.add(12);
+        assertThat(tracker.commitOffset()).isEqualTo(10);
+        assertThat(tracker.commitOffset()).isEqualTo(-1);
+
+        tracker.complete(11);
+        assertThat(tracker.processedOffset()).isEqualTo(10);
+        assertThat(tracker.commitOffset()).isEqualTo(-1);
+
+        tracker.complete(10);
+        assertThat(tracker.commitOffset()).isEqualTo(12);
+
+        tracker.complete(12);
+        assertThat(tracker.commitOffset()).isEqualTo(13);
+    }
+
+    @Test
+    void processedOffsetWithGap() {
+        tracker.add(5);
+        tracker.add(8);     // compacted topic may have gaps between offsets
+        tracker.complete(5);
+        tracker.complete(8);
+        assertThat(tracker.processedOffset()).isEqualTo(9);
+    }
+}
@@ -0,0 +1,102 @@
+package core.framework.internal.kafka;
+
+import core.framework.util.Strings;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class PartitionLaneTest {
+    @Test
+    void process() throws InterruptedException {
+        List<Long> offsets = new CopyOnWriteArrayList<>();
+        var latch = new CountDownLatch(3);
+        var lane = new PartitionLane(new TopicPartition("topic", 0), false, messages -> {
+            offsets.add(messages.getFirst().offset);
+            latch.countDown();
+        }, Thread.ofVirtual());
+        lane.add(List.of(record(1), record(2), record(3)));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lane.drain(5000)).isTrue();
+        assertThat(offsets).containsExactly(1L, 2L, 3L);
+        assertThat(lane.tracker.commitOffset()).isEqualTo(4);
+    }
+
+    @Test
+    void processBulk() throws InterruptedException {
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        var latch = new CountDownLatch(1);
+        var lane = new PartitionLane(new TopicPartition("topic", 0), true, messages -> {
+            sizes.add(messages.size());
+            latch.countDown();
+        }, Thread.ofVirtual());
+        lane.add(List.of(record(1), record(2), record(3)));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lane.drain(5000)).isTrue();
+
+        assertThat(sizes).containsExactly(3);
+        assertThat(lane.tracker.commitOffset()).isEqualTo(4);
+    }
+
+    @Test
+    void retryFailed() throws InterruptedException {
+        List<Long> offsets = new CopyOnWriteArrayList<>();
+        var latch = new CountDownLatch(2);
+        var lane = new PartitionLane(new TopicPartition("topic", 0), false, messages -> {
+            KafkaMessage message = messages.getFirst();
+            offsets.add(message.offset);
+            if (message.offset == 2) message.retryFailed = true;
+            latch.countDown();
+        }, Thread.ofVirtual());
+        lane.add(List.of(record(1), record(2), record(3)));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lane.drain(5000)).isTrue();
+        assertThat(offsets).containsExactly(1L, 2L);
+        assertThat(lane.tracker.commitOffset()).isEqualTo(2);
+
+        lane.add(List.of(record(3)));   // ignored until rewind
+        assertThat(lane.pendingMessages()).isZero();
+        assertThat(lane.resetFailedOffset()).isEqualTo(2);
+        assertThat(lane.resetFailedOffset()).isEqualTo(-1);
+    }
+
+    @Test
+    void drainTimeout() throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var lane = new PartitionLane(new TopicPartition("topic", 0), false, messages -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+        }, Thread.ofVirtual());
+        lane.add(List.of(record(1), record(2)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(lane.drain(10)).isFalse();
+        assertThat(lane.idle()).isFalse();
+
+        release.countDown();
+        assertThat(lane.drain(5000)).isTrue();
+        assertThat(lane.idle()).isTrue();
+        assertThat(lane.tracker.commitOffset()).isEqualTo(2);   // offset 2 was discarded by drain
+    }
+
+    private KafkaMessage record(long offset) {
+        return new KafkaMessage(new ConsumerRecord<>("topic", 0, offset, "key", Strings.bytes("{}")));
+    }
+}
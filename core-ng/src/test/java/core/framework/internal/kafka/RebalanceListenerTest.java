@@ -0,0 +1,58 @@
+package core.framework.internal.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class RebalanceListenerTest {
+    @Mock
+    Consumer<String, byte[]> consumer;
+    private RebalanceListener listener;
+
+    @BeforeEach
+    void createRebalanceListener() {
+        listener = new RebalanceListener(consumer, List.of());
+    }
+
+    @Test
+    void onPartitionsRevoked() {
+        var partition = new TopicPartition("topic", 1);
+        when(consumer.position(partition)).thenReturn(10L);
+        listener.onPartitionsRevoked(List.of(partition));
+
+        verify(consumer).commitSync(Map.of(partition, new OffsetAndMetadata(10)));
+    }
+
+    @Test
+    void onPartitionsRevokedWithEmptyPartitions() {
+        listener.onPartitionsRevoked(List.of());
+
+        verifyNoInteractions(consumer);
+    }
+
+    @Test
+    void onPartitionsRevokedWithFailedCommit() {
+        var partition = new TopicPartition("topic", 1);
+        when(consumer.position(partition)).thenReturn(10L);
+        doThrow(new IllegalStateException("failed")).when(consumer).commitSync(anyMap());
+        listener.onPartitionsRevoked(List.of(partition));
+    }
+}
@@ -0,0 +1,66 @@
+package core.framework.internal.kafka;
+
+import core.framework.util.Strings;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class RetryDelayTest {
+    @Mock
+    Consumer<String, byte[]> consumer;
+    private RetryDelay delay;
+
+    @BeforeEach
+    void createRetryDelay() {
+        delay = new RetryDelay(Set.of("topic-retry"));
+    }
+
+    @Test
+    void due() {
+        var partition = new TopicPartition("topic-retry", 0);
+        List<ConsumerRecord<String, byte[]>> records = List.of(record(1, 100), record(2, 200), record(3, 300));
+
+        assertThat(delay.due(consumer, partition, records, 150)).hasSize(1);
+        verify(consumer).seek(partition, 2);
+        verify(consumer).pause(Set.of(partition));
+        assertThat(delay.paused(partition)).isTrue();
+        assertThat(delay.pollTimeout(Duration.ofSeconds(30), 150)).isEqualTo(Duration.ofMillis(50));
+
+        when(consumer.assignment()).thenReturn(Set.of(partition));
+        delay.resume(consumer, 200);
+        verify(consumer).resume(Set.of(partition));
+        assertThat(delay.paused(partition)).isFalse();
+        assertThat(delay.pollTimeout(Duration.ofSeconds(30), 200)).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void dueWithMainTopic() {
+        var partition = new TopicPartition("topic", 0);
+        List<ConsumerRecord<String, byte[]>> records = List.of(record(1, 100));
+
+        assertThat(delay.due(consumer, partition, records, 0)).isSameAs(records);
+    }
+
+    private ConsumerRecord<String, byte[]> record(long offset, long retryAt) {
+        var record = new ConsumerRecord<>("topic-retry", 0, offset, "key", Strings.bytes("{}"));
+        record.headers().add(MessageRetry.HEADER_RETRY_AT, Strings.bytes(String.valueOf(retryAt)));
+        return record;
+    }
+}
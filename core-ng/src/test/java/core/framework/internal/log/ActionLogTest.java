@@ -52,6 +52,16 @@ class ActionLogTest {
         assertThat(log.flushTraceLog()).isTrue();
     }
 
+    @Test
+    void processSuppressedWarning() {
+        var event = new LogEvent("logger", null, LogLevel.WARN, "warning", null, null);
+        event.suppressed = true;
+        log.process(event);
+
+        assertThat(log.result).isEqualTo(LogLevel.INFO);
+        assertThat(log.errorMessage).isNull();
+    }
+
     @Test
     void flushTraceLogWithWarning() {
         log.process(new LogEvent("logger", null, LogLevel.WARN, null, null, null));
@@ -64,6 +74,16 @@ class ActionLogTest {
         assertThat(log.flushTraceLog()).isFalse();
     }
 
+    @Test
+    void flushTraceLogWithSlowAction() {
+        log.slowTraceThresholdInNano = 100;
+        log.elapsed = 200;
+        assertThat(log.flushTraceLog()).isTrue();
+
+        log.elapsed = 50;
+        assertThat(log.flushTraceLog()).isFalse();
+    }
+
     @Test
     void result() {
         assertThat(log.result()).isEqualTo("OK");
@@ -135,6 +155,41 @@ class ActionLogTest {
         assertThat(trace).contains("WARN logger - warning");
     }
 
+    @Test
+    void processTraceEvent() {
+        log.process("logger", null, LogLevel.DEBUG, "debug-{}", new Object[]{1}, null);
+
+        assertThat(log.result).isEqualTo(LogLevel.INFO);
+        assertThat(log.trace()).contains("logger - debug-1");
+
+        log.sampled = Boolean.FALSE;
+        log.process("logger", null, LogLevel.DEBUG, "not-sampled", null, null);
+        assertThat(log.trace()).doesNotContain("not-sampled");
+    }
+
+    @Test
+    void traceWithoutSampled() {
+        log.sampled = Boolean.FALSE;
+        log.process(new LogEvent("logger", null, LogLevel.DEBUG, "debug", null, null));
+        log.process(new LogEvent("logger", null, LogLevel.WARN, "warning", null, null));
+
+        String trace = log.trace();
+        assertThat(trace).doesNotContain("debug")
+            .contains("WARN logger - warning");
+
+        log.trace = Trace.CURRENT;
+        log.process(new LogEvent("logger", null, LogLevel.DEBUG, "forced", null, null));
+        assertThat(log.trace()).contains("forced");
+    }
+
+    @Test
+    void end() {
+        log.end("end");
+
+        assertThat(log.elapsed).isGreaterThan(0);
+        assertThat(log.stats).containsKeys("cpu_time", "alloc_bytes");
+    }
+
     @Test
     void correlationIds() {
         assertThat(log.correlationIds()).containsExactly(log.id);
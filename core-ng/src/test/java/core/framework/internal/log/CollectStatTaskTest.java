@@ -26,7 +26,7 @@ class CollectStatTaskTest {
 
     @BeforeEach
     void createCollectStatTask() {
-        task = new CollectStatTask(appender, new StatCollector());
+        task = new CollectStatTask(appender, new StatCollector(), new LatencyRecorder());
     }
 
     @Test
@@ -4,6 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -27,6 +31,50 @@ class IdGeneratorTest {
         String id2 = generator.next(now);
         assertThat(id2).hasSize(20).startsWith("0000000001");
 
-        assertThat(id1.substring(5, 8)).as("machine identifier should be same").isEqualTo(id2.substring(5, 8));
+        assertThat(id1.substring(10, 16)).as("machine identifier should be same").isEqualTo(id2.substring(10, 16));
+        assertThat(id2).isGreaterThan(id1);
+    }
+
+    @Test
+    void sortableByTime() {
+        String id1 = generator.next(Instant.ofEpochMilli(0xFFFF));
+        String id2 = generator.next(Instant.ofEpochMilli(0x10000));
+        assertThat(id2).isGreaterThan(id1);
+    }
+
+    @Test
+    void monotonic() {
+        String last = generator.next(Instant.ofEpochMilli(1000));
+        for (int i = 0; i < 10000; i++) {     // exceed sequence space of 1ms, and clock goes backward
+            String id = generator.next(Instant.ofEpochMilli(i % 2 == 0 ? 1000 : 999));
+            assertThat(id).isGreaterThan(last);
+            last = id;
+        }
+    }
+
+    @Test
+    void nextValue() {
+        assertThat(generator.nextValue(0, 1)).isEqualTo(1 << 12);
+        assertThat(generator.nextValue(0, 1)).isEqualTo((1 << 12) + 1);
+        assertThat(generator.nextValue(0, 0)).isEqualTo((1 << 12) + 2);
+        assertThat(generator.nextValue(1, 0)).isZero();
+    }
+
+    @Test
+    void uniqueUnderContention() throws InterruptedException {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        Instant now = Instant.now();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int j = 0; j < 5000; j++) {
+                    ids.add(generator.next(now));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(ids).hasSize(32 * 5000);
     }
 }
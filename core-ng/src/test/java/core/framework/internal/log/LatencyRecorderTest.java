@@ -0,0 +1,40 @@
+package core.framework.internal.log;
+
+import core.framework.log.message.LatencyHistogramMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class LatencyRecorderTest {
+    private LatencyRecorder recorder;
+
+    @BeforeEach
+    void createLatencyRecorder() {
+        recorder = new LatencyRecorder();
+    }
+
+    @Test
+    void collect() {
+        var log = new ActionLog("begin", null);
+        log.action("api:get:/test");
+        log.track("db", 1_000_000, 1, 0, 0, 0);
+        log.end("end");
+        recorder.record(log);
+
+        List<LatencyHistogramMessage> messages = recorder.collect();
+        assertThat(messages).hasSize(2)
+            .allSatisfy(message -> {
+                assertThat(message.action).isEqualTo("api:get:/test");
+                assertThat(message.count).isEqualTo(1);
+            })
+            .extracting(message -> message.operation).containsExactlyInAnyOrder("elapsed", "db");
+
+        assertThat(recorder.collect()).isNull();
+    }
+}
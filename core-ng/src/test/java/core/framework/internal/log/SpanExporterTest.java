@@ -0,0 +1,66 @@
+package core.framework.internal.log;
+
+import core.framework.internal.log.appender.FileSpanSink;
+import core.framework.util.Files;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class SpanExporterTest {
+    private Path file;
+    private SpanExporter exporter;
+
+    @BeforeEach
+    void createSpanExporter() {
+        file = Files.tempFile();
+        exporter = new SpanExporter(new FileSpanSink(file), 1);
+    }
+
+    @AfterEach
+    void cleanup() {
+        Files.delete(file);
+    }
+
+    @Test
+    void export() {
+        var log = new ActionLog("begin", null);
+        log.action("api:get:/test");
+        log.track("db", 1000, 1, 0, 0, 0);
+        log.end("end");
+        exporter.export(log);
+        exporter.export(log);
+        assertThat(exporter.spans).hasSize(1);
+        assertThat(exporter.dropped.sum()).isEqualTo(1);
+
+        String spans = exporter.spans.peek();
+        assertThat(spans).contains("\"name\":\"api:get:/test\",\"kind\":2")
+            .contains("\"name\":\"db\",\"kind\":3")
+            .contains("\"parentSpanId\":\"" + TraceParent.spanId(log.id) + "\"");
+
+        exporter.stop(0);
+        assertThat(Files.text(file)).startsWith("{\"resourceSpans\":[{\"resource\":{\"attributes\":[{\"key\":\"service.name\"")
+            .contains(spans);
+    }
+
+    @Test
+    void request() {
+        String request = new String(exporter.request(List.of("{}", "{}")), UTF_8);
+        assertThat(request).endsWith("\"spans\":[{},{}]}]}]}");
+    }
+
+    @Test
+    void appendString() {
+        var builder = new StringBuilder();
+        SpanEncoder.appendString(builder, "\"value\"\n\u0001");
+        assertThat(builder.toString()).isEqualTo("\"\\\"value\\\"\\n\\u0001\"");
+    }
+}
@@ -0,0 +1,24 @@
+package core.framework.internal.log;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class ThreadUsageTest {
+    @Test
+    void used() {
+        assertThat(ThreadUsage.used(100, 150)).isEqualTo(50);
+        assertThat(ThreadUsage.used(-1, 150)).isEqualTo(-1);
+        assertThat(ThreadUsage.used(100, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void cpuTimeOfVirtualThread() throws InterruptedException {
+        long[] cpuTime = new long[1];
+        Thread.ofVirtual().start(() -> cpuTime[0] = ThreadUsage.cpuTime()).join();
+        assertThat(cpuTime[0]).isEqualTo(-1);
+    }
+}
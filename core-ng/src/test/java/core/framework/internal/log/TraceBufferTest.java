@@ -0,0 +1,82 @@
+package core.framework.internal.log;
+
+import core.framework.log.Markers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class TraceBufferTest {
+    private TraceBuffer buffer;
+
+    @BeforeEach
+    void createTraceBuffer() {
+        buffer = new TraceBuffer(System.nanoTime());
+    }
+
+    @Test
+    void render() {
+        buffer.add(new LogEvent("logger", Markers.errorCode("ERROR_CODE"), LogLevel.WARN, "message-{}", new Object[]{1}, new Error()));
+        buffer.add(new LogEvent("logger", null, LogLevel.DEBUG, "message", null, null));
+
+        String trace = buffer.render();
+        assertThat(trace).contains("WARN logger - [ERROR_CODE] message-1")
+            .contains("logger - message");
+    }
+
+    @Test
+    void renderMultipleChunks() {
+        int count = TraceBuffer.MAX_CHUNK_SIZE * 3;
+        for (int i = 0; i < count; i++) {
+            buffer.add(new LogEvent("logger", null, LogLevel.DEBUG, "message-{}", new Object[]{i}, null));
+        }
+
+        assertThat(buffer.size).isEqualTo(count);
+        String trace = buffer.render();
+        assertThat(trace).contains("message-0" + System.lineSeparator())
+            .contains("message-" + (count - 1) + System.lineSeparator());
+    }
+
+    @Test
+    void renderArgumentWhenCaptured() {
+        List<String> values = new ArrayList<>();
+        values.add("v1");
+        Object[] arguments = {values, 1};
+        buffer.add(System.nanoTime(), "logger", null, LogLevel.DEBUG, "values={}, value={}", arguments, null);
+        values.add("v2");
+
+        assertThat(buffer.render()).contains("values=[v1], value=1");
+        assertThat(arguments[0]).isSameAs(values);
+    }
+
+    @Test
+    void compact() {
+        assertThat(TraceBuffer.compact(null)).isNull();
+        Object[] arguments = {"value", 1, LogLevel.DEBUG, Instant.now(), Duration.ofSeconds(1), null};
+        assertThat(TraceBuffer.compact(arguments)).isSameAs(arguments);
+        assertThat(TraceBuffer.compact(new Object[]{"value", new int[]{1, 2}})).containsExactly("value", "[1, 2]");
+    }
+
+    @Test
+    void appendDuration() {
+        var builder = new StringBuilder();
+        TraceBuffer.appendDuration(builder, Duration.ofSeconds(34).plusMillis(145).toNanos());
+        assertThat(builder.toString()).isEqualTo("00:34.145000000");
+
+        builder = new StringBuilder();
+        TraceBuffer.appendDuration(builder, Duration.ofMinutes(5).plusNanos(34512300).toNanos());
+        assertThat(builder.toString()).isEqualTo("05:00.034512300");
+
+        builder = new StringBuilder();
+        TraceBuffer.appendDuration(builder, Duration.ofMinutes(30).plusSeconds(1).plusNanos(123).toNanos());
+        assertThat(builder.toString()).isEqualTo("30:01.000000123");
+    }
+}
@@ -0,0 +1,56 @@
+package core.framework.internal.log;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class TraceParentTest {
+    private ActionLog log;
+
+    @BeforeEach
+    void createActionLog() {
+        log = new ActionLog("begin", "0190A3B4C5D6E7F80001");
+    }
+
+    @Test
+    void format() {
+        assertThat(TraceParent.format(log)).isEqualTo("00-0000000000000190a3b4c5d6e7f80001-a3b4c5d6e7f80001-01");
+    }
+
+    @Test
+    void parse() {
+        TraceParent.parse(log, "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        assertThat(log.traceId).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(log.parentSpanId).isEqualTo("00f067aa0ba902b7");
+        assertThat(TraceParent.format(log)).startsWith("00-4bf92f3577b34da6a3ce929d0e0e4736-");
+    }
+
+    @Test
+    void parseInvalidValue() {
+        TraceParent.parse(log, "invalid");
+        TraceParent.parse(log, "00-00000000000000000000000000000000-00f067aa0ba902b7-01");
+        TraceParent.parse(log, "00-4bf92f3577b34da6a3ce929d0e0e473x-00f067aa0ba902b7-01");
+        assertThat(log.traceId).isNull();
+        assertThat(log.parentSpanId).isNull();
+    }
+
+    @Test
+    void traceId() {
+        assertThat(TraceParent.traceId("external-correlation-id")).hasSize(32)
+            .isEqualTo(TraceParent.traceId("external-correlation-id"));
+    }
+
+    @Test
+    void parentSpanId() {
+        assertThat(TraceParent.parentSpanId(log)).isNull();
+
+        log.refIds = List.of("0190A3B4C5D6E7F80000");
+        assertThat(TraceParent.parentSpanId(log)).isEqualTo("a3b4c5d6e7f80000");
+    }
+}
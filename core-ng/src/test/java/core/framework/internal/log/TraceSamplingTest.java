@@ -0,0 +1,35 @@
+package core.framework.internal.log;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class TraceSamplingTest {
+    private TraceSampling sampling;
+
+    @BeforeEach
+    void createTraceSampling() {
+        sampling = new TraceSampling();
+    }
+
+    @Test
+    void rule() {
+        sampling.add("api:get:/ajax/", 0, 100);
+        sampling.add("api:", 1, 0);
+
+        TraceSampling.Rule rule = sampling.rule("api:get:/ajax/product");
+        assertThat(rule).isNotNull();
+        assertThat(rule.slowThresholdInNano()).isEqualTo(100);
+        assertThat(rule.sample()).isFalse();
+
+        rule = sampling.rule("api:put:/product");
+        assertThat(rule).isNotNull();
+        assertThat(rule.sample()).isTrue();
+
+        assertThat(sampling.rule("topic:product-updated")).isNull();
+    }
+}
@@ -0,0 +1,78 @@
+package core.framework.internal.log;
+
+import core.framework.internal.stat.Stats;
+import core.framework.log.Markers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class WarningAggregatorTest {
+    private WarningAggregator aggregator;
+
+    @BeforeEach
+    void createWarningAggregator() {
+        aggregator = new WarningAggregator();
+    }
+
+    @Test
+    void suppress() {
+        aggregator.add("SLOW_QUERY", 2);
+        LogEvent event = warning("SLOW_QUERY");
+        long now = System.currentTimeMillis();
+
+        assertThat(aggregator.suppress(event, "id1", now)).isFalse();
+        assertThat(aggregator.suppress(event, "id2", now)).isFalse();
+        assertThat(aggregator.suppress(event, "id3", now)).isTrue();
+        assertThat(aggregator.suppress(event, "id4", now + WarningAggregator.WINDOW_IN_MS)).isFalse();     // new window
+
+        assertThat(aggregator.suppress(warning("OTHER_ERROR"), "id5", now)).isFalse();
+        assertThat(aggregator.suppress(new LogEvent("logger", null, LogLevel.INFO, "info", null, null), "id6", now)).isFalse();
+        assertThat(aggregator.suppress(new LogEvent("logger", Markers.errorCode("SLOW_QUERY"), LogLevel.ERROR, "slow query", null, null), "id7", now)).isFalse();   // error is never suppressed
+    }
+
+    @Test
+    void suppressWithDefaultRule() {
+        aggregator.add(null, 0);
+        aggregator.add("IMPORTANT_ERROR", -1);
+        long now = System.currentTimeMillis();
+
+        assertThat(aggregator.suppress(warning("SLOW_QUERY"), "id1", now)).isTrue();
+        assertThat(aggregator.suppress(warning("IMPORTANT_ERROR"), "id2", now)).isFalse();
+    }
+
+    @Test
+    void collect() {
+        aggregator.add(null, 1);
+        LogEvent event = warning("SLOW_QUERY");
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            aggregator.suppress(event, "id" + i, now);
+        }
+
+        var stats = new Stats();
+        aggregator.collect(stats);
+        assertThat(stats.stats).containsEntry("log_suppressed_warnings", 9.0);
+        assertThat(stats.info.get("suppressed_warnings"))
+            .isEqualTo("error_code=SLOW_QUERY, logger=logger, message=slow query, suppressed=9, sample_action_ids=[id1, id2, id3, id4, id5]\n");
+
+        stats = new Stats();
+        aggregator.collect(stats);
+        assertThat(stats.stats).containsEntry("log_suppressed_warnings", 0.0);
+        assertThat(stats.info).isNull();
+    }
+
+    @Test
+    void collectWithoutRules() {
+        var stats = new Stats();
+        aggregator.collect(stats);
+        assertThat(stats.stats).isEmpty();
+    }
+
+    private LogEvent warning(String errorCode) {
+        return new LogEvent("logger", Markers.errorCode(errorCode), LogLevel.WARN, "slow query", null, null);
+    }
+}
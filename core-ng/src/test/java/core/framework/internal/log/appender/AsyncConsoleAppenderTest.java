@@ -0,0 +1,75 @@
+package core.framework.internal.log.appender;
+
+import core.framework.internal.stat.Stats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class AsyncConsoleAppenderTest {
+    private AsyncConsoleAppender appender;
+
+    @BeforeEach
+    void createAsyncConsoleAppender() {
+        appender = new AsyncConsoleAppender(2);
+    }
+
+    @Test
+    void dropOldestInfo() {
+        assertThat(appender.offer(entry("info1", false))).isTrue();
+        assertThat(appender.offer(entry("warn1", true))).isTrue();
+        assertThat(appender.offer(entry("info2", false))).isTrue();
+
+        assertThat(appender.entries).extracting(entry -> new String(entry.value(), UTF_8)).containsExactly("warn1", "info2");
+        assertThat(appender.dropped.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void offerWhenFullOfPriority() {
+        appender.offer(entry("warn1", true));
+        appender.offer(entry("warn2", true));
+
+        assertThat(appender.offer(entry("warn3", true))).isFalse();
+        assertThat(appender.offer(entry("info1", false))).isTrue();
+        assertThat(appender.entries).hasSize(2);
+        assertThat(appender.dropped.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void poll() throws InterruptedException {
+        assertThat(appender.poll(0)).isEmpty();
+
+        appender.offer(entry("info1", false));
+        appender.offer(entry("warn1", true));
+        assertThat(appender.poll(0)).hasSize(2);
+        assertThat(appender.entries).isEmpty();
+    }
+
+    @Test
+    void collect() {
+        appender.offer(entry("info1", false));
+        appender.dropped.increment();
+
+        var stats = new Stats();
+        appender.collect(stats);
+        assertThat(stats.stats).containsEntry("console_log_buffered", 1.0).containsEntry("console_log_dropped", 1.0);
+        assertThat(appender.dropped.sum()).isZero();
+    }
+
+    @Test
+    void stop() {
+        appender.start();
+        appender.add(entry("info1", false));
+        appender.stop(1000);
+
+        assertThat(appender.entries).isEmpty();
+    }
+
+    private AsyncConsoleAppender.Entry entry(String value, boolean priority) {
+        return new AsyncConsoleAppender.Entry(value.getBytes(UTF_8), false, priority);
+    }
+}
@@ -22,7 +22,7 @@ class KafkaAppenderTest {
 
     @BeforeEach
     void createKafkaAppender() {
-        appender = new KafkaAppender(new KafkaURI("localhost"));
+        appender = new KafkaAppender(new KafkaURI("localhost"), 2, 0);
     }
 
     @Test
@@ -40,9 +40,20 @@ class KafkaAppenderTest {
     @Test
     void onCompletion() {
         var callback = appender.new KafkaCallback();
-        appender.records.add(new ProducerRecord<>("topic", new byte[0]));
+        appender.records.offer(new ProducerRecord<>("topic", new byte[0]), false);
         callback.onCompletion(null, new KafkaException("unexpected"));
-        assertThat(appender.records).isEmpty();
+        assertThat(appender.records.size()).isEqualTo(1);     // records are kept until kafka recovers
+    }
+
+    @Test
+    void append() {
+        appender.append(actionLog("OK"));
+        appender.append(actionLog("OK"));
+        appender.append(actionLog("OK"));   // sampled out, as info lane is full
+        appender.append(actionLog("ERROR"));
+
+        assertThat(appender.records.size()).isEqualTo(3);
+        assertThat(appender.forwarderMetrics.dropped.sum()).isEqualTo(1);
     }
 
     @Test
@@ -56,6 +67,14 @@ class KafkaAppenderTest {
         assertThat(appender.resolveURI(new KafkaURI("notExistedHost"))).isFalse();
     }
 
+    private ActionLogMessage actionLog(String result) {
+        var message = new ActionLogMessage();
+        message.id = "id";
+        message.result = result;
+        message.context = new HashMap<>();
+        return message;
+    }
+
     @Test
     void truncateContext() {
         var message = new ActionLogMessage();
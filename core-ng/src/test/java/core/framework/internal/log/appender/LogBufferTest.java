@@ -0,0 +1,49 @@
+package core.framework.internal.log.appender;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class LogBufferTest {
+    private LogBuffer buffer;
+
+    @BeforeEach
+    void createLogBuffer() {
+        buffer = new LogBuffer(2);
+    }
+
+    @Test
+    void offer() throws InterruptedException {
+        assertThat(buffer.offer(record("info1"), false)).isTrue();
+        assertThat(buffer.offer(record("info2"), false)).isTrue();
+        assertThat(buffer.offer(record("info3"), false)).isFalse();
+        assertThat(buffer.normalUsage()).isEqualTo(1);
+        assertThat(buffer.offer(record("error1"), true)).isTrue();
+        assertThat(buffer.size()).isEqualTo(3);
+
+        assertThat(buffer.poll(0).topic()).isEqualTo("error1");
+        assertThat(buffer.poll(0).topic()).isEqualTo("info1");
+        assertThat(buffer.offer(record("info3"), false)).isTrue();
+        assertThat(buffer.poll(0).topic()).isEqualTo("info2");
+        assertThat(buffer.poll(0).topic()).isEqualTo("info3");
+        assertThat(buffer.poll(0)).isNull();
+    }
+
+    @Test
+    void drain() {
+        buffer.offer(record("info1"), false);
+        buffer.offer(record("error1"), true);
+
+        assertThat(buffer.drain()).extracting(ProducerRecord::topic).containsExactly("error1", "info1");
+        assertThat(buffer.size()).isZero();
+    }
+
+    private ProducerRecord<byte[], byte[]> record(String topic) {
+        return new ProducerRecord<>(topic, new byte[0]);
+    }
+}
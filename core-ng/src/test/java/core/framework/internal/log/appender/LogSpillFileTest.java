@@ -0,0 +1,105 @@
+package core.framework.internal.log.appender;
+
+import core.framework.util.Files;
+import core.framework.util.Strings;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class LogSpillFileTest {
+    private Path directory;
+    private LogSpillFile spillFile;
+
+    @BeforeEach
+    void createLogSpillFile() {
+        directory = Files.tempDir();
+        spillFile = new LogSpillFile(directory, 100);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        spillFile.close();
+        Files.deleteDir(directory);
+    }
+
+    @Test
+    void replay() throws IOException {
+        assertThat(spillFile.hasRecords()).isFalse();
+        assertThat(spillFile.append(new ProducerRecord<>("topic1", Strings.bytes("value1")))).isTrue();
+        assertThat(spillFile.append(new ProducerRecord<>("topic2", Strings.bytes("value2")))).isTrue();
+        assertThat(spillFile.append(new ProducerRecord<>("topic3", new byte[100]))).isFalse();
+        assertThat(spillFile.hasRecords()).isTrue();
+
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>();
+        assertThat(spillFile.replay(10, records::addAll)).isEqualTo(2);
+        assertThat(records).extracting(ProducerRecord::topic).containsExactly("topic1", "topic2");
+        assertThat(new String(records.get(1).value())).isEqualTo("value2");
+        assertThat(spillFile.hasRecords()).isFalse();
+
+        assertThat(spillFile.append(new ProducerRecord<>("topic3", new byte[50]))).isTrue();
+    }
+
+    @Test
+    void replayInBatches() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            assertThat(spillFile.append(new ProducerRecord<>("topic" + i, Strings.bytes("value" + i)))).isTrue();
+        }
+
+        assertThat(spillFile.replay(2, batch -> false)).isZero();   // kafka is not available, keep position
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>();
+        assertThat(spillFile.replay(2, records::addAll)).isEqualTo(2);
+        assertThat(spillFile.hasRecords()).isTrue();
+        assertThat(spillFile.replay(2, records::addAll)).isEqualTo(1);
+        assertThat(records).extracting(ProducerRecord::topic).containsExactly("topic1", "topic2", "topic3");
+        assertThat(spillFile.replay(2, records::addAll)).isZero();
+        assertThat(spillFile.hasRecords()).isFalse();
+    }
+
+    @Test
+    void appendAfterPartialRecord() throws IOException {
+        assertThat(spillFile.append(new ProducerRecord<>("topic1", Strings.bytes("value1")))).isTrue();
+        spillFile.close();
+        appendPartialRecord(directory.resolve("log-spill"));    // process died in middle of appending
+
+        spillFile = new LogSpillFile(directory, 100);
+        assertThat(spillFile.append(new ProducerRecord<>("topic2", Strings.bytes("value2")))).isTrue();
+
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>();
+        assertThat(spillFile.replay(10, records::addAll)).isEqualTo(2);
+        assertThat(records).extracting(ProducerRecord::topic).containsExactly("topic1", "topic2");
+        assertThat(spillFile.hasRecords()).isFalse();
+    }
+
+    @Test
+    void replayWithPartialRecord() throws IOException {
+        assertThat(spillFile.append(new ProducerRecord<>("topic1", Strings.bytes("value1")))).isTrue();
+        assertThat(spillFile.replay(10, batch -> false)).isZero();  // move spill file to replay file
+        appendPartialRecord(directory.resolve("log-spill.replay"));
+
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>();
+        assertThat(spillFile.replay(10, records::addAll)).isEqualTo(1);
+        assertThat(records).extracting(ProducerRecord::topic).containsExactly("topic1");
+        assertThat(spillFile.hasRecords()).isFalse();
+    }
+
+    private void appendPartialRecord(Path path) throws IOException {
+        try (var output = new DataOutputStream(java.nio.file.Files.newOutputStream(path, StandardOpenOption.APPEND))) {
+            output.writeUTF("topic3");
+            output.writeInt(10);
+            output.write(new byte[3]);
+        }
+    }
+}
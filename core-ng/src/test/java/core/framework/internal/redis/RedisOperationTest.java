@@ -7,6 +7,7 @@ import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static core.framework.internal.redis.RedisEncodings.encode;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -107,6 +108,19 @@ class RedisOperationTest extends AbstractRedisOperationTest {
                             + "*5\r\n$3\r\nSET\r\n$2\r\nk2\r\n$2\r\nv2\r\n$2\r\nPX\r\n$5\r\n60000\r\n");
     }
 
+    @Test
+    void multiSetIfAbsent() {
+        response("+OK\r\n$-1\r\n");
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("k1", "v1");
+        values.put("k2", "v2");
+        Set<String> updatedKeys = redis.multiSet(values, Duration.ofMinutes(1), true);
+
+        assertThat(updatedKeys).containsOnly("k1");
+        assertRequestEquals("*6\r\n$3\r\nSET\r\n$2\r\nk1\r\n$2\r\nv1\r\n$2\r\nNX\r\n$2\r\nPX\r\n$5\r\n60000\r\n"
+                            + "*6\r\n$3\r\nSET\r\n$2\r\nk2\r\n$2\r\nv2\r\n$2\r\nNX\r\n$2\r\nPX\r\n$5\r\n60000\r\n");
+    }
+
     @Test
     void increaseBy() {
         response(":1\r\n");
@@ -0,0 +1,72 @@
+package core.framework.internal.stat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author neo
+ */
+class LatencyHistogramTest {
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    void createLatencyHistogram() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    void index() {
+        assertThat(LatencyHistogram.index(0)).isZero();
+        assertThat(LatencyHistogram.index(15)).isEqualTo(15);
+        assertThat(LatencyHistogram.index(16)).isEqualTo(16);
+        assertThat(LatencyHistogram.index(32)).isEqualTo(32);
+        assertThat(LatencyHistogram.index(LatencyHistogram.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+
+        int last = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.index(value);
+            assertThat(index).isBetween(last, last + 1);
+            last = index;
+        }
+    }
+
+    @Test
+    void value() {
+        for (long value : new long[]{1, 100, 1000, 12345, 1_000_000, 60_000_000}) {
+            long bucketValue = LatencyHistogram.value(LatencyHistogram.index(value));
+            assertThat((double) bucketValue).isCloseTo(value * 1000, within(value * 1000 / 16.0));
+        }
+    }
+
+    @Test
+    void snapshot() {
+        histogram.record(1_000_000);
+        histogram.record(1_000_000);
+        histogram.record(5_000_000);
+        histogram.record(-1);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count()).isEqualTo(4);
+        assertThat(snapshot.buckets()).hasSize(3).isSorted();
+        assertThat(snapshot.counts()).containsExactly(1L, 2L, 1L);
+
+        assertThat(histogram.snapshot().count()).isZero();
+    }
+
+    @Test
+    void percentile() {
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);   // 1ms to 1000ms
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat((double) LatencyHistogram.percentile(snapshot.buckets(), snapshot.counts(), 0.5)).isCloseTo(500_000_000, within(500_000_000 / 16.0));
+        assertThat((double) LatencyHistogram.percentile(snapshot.buckets(), snapshot.counts(), 0.99)).isCloseTo(990_000_000, within(990_000_000 / 16.0));
+        assertThat(LatencyHistogram.percentile(List.of(), List.of(), 0.99)).isZero();
+    }
+}
@@ -0,0 +1,47 @@
+package core.framework.internal.stat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class ProfilerTest {
+    private Profiler profiler;
+
+    @BeforeEach
+    void createProfiler() {
+        profiler = new Profiler();
+    }
+
+    @Test
+    void summary() {
+        String summary = profiler.summary(10);
+        assertThat(summary).contains("# jdk.ExecutionSample, stacks=0")
+            .contains("# jdk.VirtualThreadPinned, stacks=0");
+    }
+
+    @Test
+    void startAndStop() {
+        profiler.start();
+        profiler.stop();
+    }
+
+    @Test
+    void profileWindow() {
+        var window = new Profiler.ProfileWindow();
+        window.add("a;b", 1);
+        window.add("a;b", 2);
+        window.add("a;c", 5);
+
+        Map<String, Long> stacks = new HashMap<>();
+        stacks.put("a;b", 10L);
+        window.mergeTo(stacks);
+        assertThat(stacks).containsEntry("a;b", 13L).containsEntry("a;c", 5L);
+    }
+}
@@ -0,0 +1,78 @@
+package core.framework.internal.stat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class VirtualThreadMonitorTest {
+    private VirtualThreadMonitor monitor;
+
+    @BeforeEach
+    void createVirtualThreadMonitor() {
+        monitor = new VirtualThreadMonitor(Duration.ofMillis(50));
+    }
+
+    @Test
+    void pinnedTime() {
+        long now = System.currentTimeMillis();
+        monitor.record(100, "java.lang.Object.wait0", 10_000_000, now - 100, now);
+        monitor.record(100, "java.lang.Object.wait0", 20_000_000, now - 50, now);
+
+        assertThat(monitor.pinnedTime(100, now - 200)).isEqualTo(30_000_000);
+        assertThat(monitor.pinnedTime(100, now - 200)).isZero();
+        assertThat(monitor.pinnedTime(200, now - 200)).isZero();
+    }
+
+    @Test
+    void pinnedTimeOfPreviousAction() {
+        long now = System.currentTimeMillis();
+        monitor.record(100, "site1", 10_000_000, now - 2000, now);    // flushed late, from previous action on same thread
+        monitor.record(100, "site1", 20_000_000, now - 50, now);
+
+        assertThat(monitor.pinnedTime(100, now - 1000)).isEqualTo(20_000_000);
+    }
+
+    @Test
+    void collect() {
+        long now = System.currentTimeMillis();
+        monitor.record(100, "site1", 10_000_000, now, now);
+        monitor.record(101, "site2", 20_000_000, now, now);
+
+        var stats = new Stats();
+        monitor.collect(stats);
+        assertThat(stats.stats).containsEntry("virtual_thread_pinned_count", 2.0)
+            .containsEntry("virtual_thread_pinned_time", 30_000_000.0)
+            .containsEntry("virtual_thread_pinned_max", 20_000_000.0);
+        assertThat(stats.errorCode).isNull();
+        assertThat(monitor.sites).isEmpty();
+    }
+
+    @Test
+    void collectWithLongPinning() {
+        long now = System.currentTimeMillis();
+        monitor.record(100, "site1", 10_000_000, now, now);
+        monitor.record(101, "site2", 60_000_000, now, now);
+
+        var stats = new Stats();
+        monitor.collect(stats);
+        assertThat(stats.errorCode).isEqualTo("VIRTUAL_THREAD_PINNED");
+        assertThat(stats.info.get("pinned_sites"))
+            .startsWith("count=1, pinnedTime=PT0.06S\n\tat site2\n")
+            .contains("at site1");
+    }
+
+    @Test
+    void expirePinnedTime() {
+        long time = System.currentTimeMillis() - Duration.ofMinutes(2).toMillis();
+        monitor.record(100, "site1", 10_000_000, time, time);
+        monitor.collect(new Stats());
+
+        assertThat(monitor.pinnedTimes).isEmpty();
+    }
+}
@@ -0,0 +1,153 @@
+package core.framework.internal.web;
+
+import core.framework.web.priority.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class ConcurrencyLimiterTest {
+    private ConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void createConcurrencyLimiter() {
+        limiter = new ConcurrencyLimiter(10, 5, 20);
+        limiter.maxQueueTimeInNano = 0;
+    }
+
+    @Test
+    void acquire() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.acquire(Priority.HIGH, true)).isTrue();
+        }
+        assertThat(limiter.acquire(Priority.HIGH, true)).isFalse();
+        assertThat(limiter.rejected[Priority.HIGH.ordinal()].sum()).isEqualTo(1);
+
+        limiter.release(1_000_000);
+        assertThat(limiter.inFlight.get()).isEqualTo(9);
+        assertThat(limiter.acquire(Priority.HIGH, true)).isTrue();
+    }
+
+    @Test
+    void acquireWithPriority() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.acquire(Priority.LOW, true)).isTrue();
+        }
+        assertThat(limiter.acquire(Priority.LOW, true)).isFalse();
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.acquire(Priority.NORMAL, true)).isTrue();
+        }
+        assertThat(limiter.acquire(Priority.NORMAL, true)).isFalse();
+        assertThat(limiter.acquire(Priority.HIGH, true)).isTrue();
+
+        assertThat(limiter.rejected[Priority.LOW.ordinal()].sum()).isEqualTo(1);
+        assertThat(limiter.rejected[Priority.NORMAL.ordinal()].sum()).isEqualTo(1);
+    }
+
+    @Test
+    void threshold() {
+        assertThat(ConcurrencyLimiter.threshold(100, Priority.HIGH, true)).isEqualTo(100);
+        assertThat(ConcurrencyLimiter.threshold(100, Priority.NORMAL, true)).isEqualTo(90);
+        assertThat(ConcurrencyLimiter.threshold(100, Priority.NORMAL, false)).isEqualTo(100);   // not to reserve if there is no high priority route
+        assertThat(ConcurrencyLimiter.threshold(100, Priority.LOW, true)).isEqualTo(50);
+        assertThat(ConcurrencyLimiter.threshold(1, Priority.LOW, false)).isEqualTo(1);
+    }
+
+    @Test
+    void increaseLimitWithStableLatency() {
+        window(1_000_000, 10);     // first window sets baseline
+        assertThat(limiter.limit()).isEqualTo(10);
+        window(1_000_000, 10);
+        assertThat(limiter.limit()).isEqualTo(11);
+    }
+
+    @Test
+    void increaseLimitWithMixedLatency() {
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < ConcurrencyLimiter.WINDOW_SIZE; j++) {
+                limiter.update(j % 2 == 0 ? 500_000 : 200_000_000, limiter.limit());  // fast and slow routes share one limit
+            }
+        }
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void decreaseLimitWithGrowingLatency() {
+        window(1_000_000, 10);
+        window(3_000_000, 10);
+        assertThat(limiter.limit()).isEqualTo(9);
+
+        for (int i = 0; i < 3; i++) {
+            window(10_000_000, 10);
+        }
+        assertThat(limiter.limit()).isEqualTo(6);
+
+        for (int i = 0; i < 30; i++) {     // baseline adapts to sustained latency
+            window(10_000_000, 10);
+        }
+        assertThat(limiter.limit()).isGreaterThan(6);
+    }
+
+    @Test
+    void notIncreaseLimitIfAppLimited() {
+        window(1_000_000, 2);
+        window(1_000_000, 2);
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void acquireAfterQueued() throws InterruptedException {
+        limiter.maxQueueTimeInNano = TimeUnit.SECONDS.toNanos(5);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.acquire(Priority.HIGH, true)).isTrue();
+        }
+        var acquired = new AtomicBoolean();
+        Thread thread = Thread.ofVirtual().start(() -> acquired.set(limiter.acquire(Priority.HIGH, true)));
+        limiter.release(1_000_000);
+        thread.join();
+
+        assertThat(acquired).isTrue();
+        assertThat(limiter.inFlight.get()).isEqualTo(10);
+    }
+
+    @Test
+    void acquireAfterQueuedWithMixedPriority() throws InterruptedException {
+        limiter.maxQueueTimeInNano = TimeUnit.MILLISECONDS.toNanos(500);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.acquire(Priority.HIGH, true)).isTrue();
+        }
+        var lowAcquired = new AtomicBoolean(true);
+        Thread low = Thread.ofVirtual().start(() -> lowAcquired.set(limiter.acquire(Priority.LOW, true)));
+        awaitWaiters(1);
+        var highAcquired = new AtomicBoolean();
+        Thread high = Thread.ofVirtual().start(() -> highAcquired.set(limiter.acquire(Priority.HIGH, true)));
+        awaitWaiters(2);
+
+        limiter.release(1_000_000);     // low waiter is still over its threshold, released slot must go to high waiter
+        high.join();
+        low.join();
+
+        assertThat(highAcquired).isTrue();
+        assertThat(lowAcquired).isFalse();
+        assertThat(limiter.inFlight.get()).isEqualTo(10);
+        assertThat(limiter.rejected[Priority.LOW.ordinal()].sum()).isEqualTo(1);
+    }
+
+    private void awaitWaiters(int waiters) throws InterruptedException {
+        while (limiter.waiters.get() < waiters) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void window(long rtt, int inFlight) {
+        for (int i = 0; i < ConcurrencyLimiter.WINDOW_SIZE; i++) {
+            limiter.update(rtt, inFlight);
+        }
+    }
+}
@@ -2,9 +2,11 @@ package core.framework.internal.web;
 
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.Trace;
+import core.framework.web.priority.Priority;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderMap;
 import io.undertow.util.Headers;
+import io.undertow.util.Methods;
 import io.undertow.util.Protocols;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,13 +29,28 @@ class HTTPHandlerTest {
         var actionLog = new ActionLog(null, null);
         var headers = new HeaderMap();
         headers.put(HTTPHandler.HEADER_TRACE, "true");
+        headers.put(HTTPHandler.HEADER_TRACE_SAMPLED, "false");
         headers.put(HTTPHandler.HEADER_CLIENT, "client");
         handler.linkContext(actionLog, headers);
 
         assertThat(actionLog.trace).isEqualTo(Trace.CURRENT);
+        assertThat(actionLog.sampled).isFalse();
         assertThat(actionLog.clients).containsExactly("client");
     }
 
+    @Test
+    void priority() {
+        var exchange = new HttpServerExchange(null);
+        exchange.setRequestMethod(Methods.GET);
+        assertThat(handler.priority(exchange, "/ajax/report")).isEqualTo(Priority.NORMAL);
+
+        exchange.getRequestHeaders().put(HTTPHandler.HEADER_REQUEST_PRIORITY, "low");
+        assertThat(handler.priority(exchange, "/ajax/report")).isEqualTo(Priority.LOW);
+
+        exchange.getRequestHeaders().put(HTTPHandler.HEADER_REQUEST_PRIORITY, "high");  // not allow to raise priority
+        assertThat(handler.priority(exchange, "/ajax/report")).isEqualTo(Priority.NORMAL);
+    }
+
     @Test
     void maxProcessTime() {
         assertThat(handler.maxProcessTime("invalid")).isEqualTo(handler.maxProcessTimeInNano);
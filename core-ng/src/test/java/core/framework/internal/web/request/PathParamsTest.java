@@ -4,6 +4,7 @@ import core.framework.web.exception.BadRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
@@ -26,4 +27,31 @@ class PathParamsTest {
         assertThatThrownBy(() -> pathParams.put("id", "invalidURIValue%"))
                 .isInstanceOf(BadRequestException.class);
     }
+
+    @Test
+    void putByOffset() {
+        String path = "/path/hello%20world/value";
+        pathParams.put("id", path, 6, 19);
+        pathParams.put("id2", path, 20, 25);
+        assertThat(pathParams.get("id")).isEqualTo("hello world");
+        assertThat(pathParams.get("id2")).isEqualTo("value");
+
+        assertThatThrownBy(() -> pathParams.put("id", path, 6, 6))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("path param must not be empty");
+    }
+
+    @Test
+    void getInvalidPathParam() {
+        pathParams.put("id", "/invalidURIValue%", 1, 17);   // decoded lazily
+        assertThatThrownBy(() -> pathParams.get("id"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void getNotFound() {
+        assertThatThrownBy(() -> pathParams.get("id"))
+                .isInstanceOf(Error.class)
+                .hasMessageContaining("path param not found");
+    }
 }
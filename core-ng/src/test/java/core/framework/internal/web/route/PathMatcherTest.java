@@ -0,0 +1,192 @@
+package core.framework.internal.web.route;
+
+import core.framework.internal.web.request.PathParams;
+import core.framework.web.exception.BadRequestException;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class PathMatcherTest {
+    private static final String[] PATTERN_SEGMENTS = {"a", "b", "path", ":id", ":name", ":url(*)"};
+    private static final String[] PATH_SEGMENTS = {"a", "b", "path", "value", "", "%20x", "c%2Fd", "%"};
+
+    private PathNode root;
+
+    @BeforeEach
+    void createPathNode() {
+        root = new PathNode(null);
+    }
+
+    @Test
+    void rootPath() {
+        URLHandler rootHandler = root.register("/");
+
+        assertThat(PathMatcher.compile(root).find("/", new PathParams())).isSameAs(rootHandler);
+    }
+
+    @Test
+    void dynamicPathPattern() {
+        URLHandler handler1 = root.register("/:var1");
+        URLHandler handler2 = root.register("/path1/:var1");
+        URLHandler handler3 = root.register("/path1/:var1/path2");
+        URLHandler handler4 = root.register("/path1/:var1/:var2");
+        PathMatcher matcher = PathMatcher.compile(root);
+
+        var pathParams = new PathParams();
+        assertThat(matcher.find("/value", pathParams)).isSameAs(handler1);
+        assertThat(pathParams.get("var1")).isEqualTo("value");
+
+        pathParams = new PathParams();
+        assertThat(matcher.find("/path1/value", pathParams)).isSameAs(handler2);
+        assertThat(pathParams.get("var1")).isEqualTo("value");
+
+        pathParams = new PathParams();
+        assertThat(matcher.find("/path1/value/path2", pathParams)).isSameAs(handler3);
+        assertThat(pathParams.get("var1")).isEqualTo("value");
+
+        pathParams = new PathParams();
+        assertThat(matcher.find("/path1/value1/value2", pathParams)).isSameAs(handler4);
+        assertThat(pathParams.get("var1")).isEqualTo("value1");
+        assertThat(pathParams.get("var2")).isEqualTo("value2");
+    }
+
+    @Test
+    void dynamicPathPatternNotMatchTrailingSlash() {
+        root.register("/path1/:var1");
+
+        assertThat(PathMatcher.compile(root).find("/path1/", new PathParams())).isNull();
+    }
+
+    @Test
+    void dynamicPathPatternsWithTrailingSlash() {
+        URLHandler handler1 = root.register("/path1/:var");
+        URLHandler handler2 = root.register("/path1/:var/");
+        PathMatcher matcher = PathMatcher.compile(root);
+
+        var pathParams = new PathParams();
+        assertThat(matcher.find("/path1/value", pathParams)).isSameAs(handler1);
+        assertThat(pathParams.get("var")).isEqualTo("value");
+
+        pathParams = new PathParams();
+        assertThat(matcher.find("/path1/value/", pathParams)).isSameAs(handler2);
+        assertThat(pathParams.get("var")).isEqualTo("value");
+    }
+
+    @Test
+    void emptyDynamicPathParam() {
+        root.register("/path1/:var/path2");
+
+        assertThatThrownBy(() -> PathMatcher.compile(root).find("/path1//path2", new PathParams()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("path param must not be empty");
+    }
+
+    @Test
+    void wildcardPathPattern() {
+        root.register("/:var1");
+        root.register("/path1/path2/path3/path4/:var1");
+        URLHandler handler = root.register("/path1/path2/:url(*)");
+        PathMatcher matcher = PathMatcher.compile(root);
+
+        var pathParams = new PathParams();
+        assertThat(matcher.find("/path1/path2/path3/value", pathParams)).isSameAs(handler);
+        assertThat(pathParams.get("url")).isEqualTo("path3/value");
+
+        pathParams = new PathParams();
+        assertThat(matcher.find("/path1/path2/path3/value/", pathParams)).isSameAs(handler);
+        assertThat(pathParams.get("url")).isEqualTo("path3/value/");
+
+        pathParams = new PathParams();
+        assertThat(matcher.find("/path1/path2/", pathParams)).isSameAs(handler);
+        assertThat(pathParams.get("url")).isEqualTo("/");
+    }
+
+    // compare with PathNode.find() as reference implementation, with random route tables and request paths
+    @Test
+    void matchSameAsPathNode() {
+        var random = new Random(20_261_019);
+        for (int i = 0; i < 200; i++) {
+            var node = new PathNode(null);
+            int routes = 1 + random.nextInt(8);
+            for (int j = 0; j < routes; j++) {
+                register(node, randomPath(random, PATTERN_SEGMENTS));
+            }
+            PathMatcher matcher = PathMatcher.compile(node);
+            for (int j = 0; j < 100; j++) {
+                String path = randomPath(random, PATH_SEGMENTS);
+                String expected = result(() -> {
+                    var params = new PathParams();
+                    return new Result(node.find(path, params), params);
+                });
+                String actual = result(() -> {
+                    var params = new PathParams();
+                    return new Result(matcher.find(path, params), params);
+                });
+                assertThat(actual).as("path=%s", path).isEqualTo(expected);
+            }
+        }
+    }
+
+    // skip invalid or conflicted patterns, which are rejected during startup
+    private void register(PathNode node, String pathPattern) {
+        try {
+            new PathPatternValidator(pathPattern, true).validate();
+            node.register(pathPattern);
+        } catch (Error e) {
+            assertThat(e.getMessage()).containsAnyOf("duplicate param name", "conflict", "wildcard path variable must be the last");
+        }
+    }
+
+    private String randomPath(Random random, String[] segments) {
+        var builder = new StringBuilder();
+        int size = random.nextInt(5);
+        for (int i = 0; i < size; i++) {
+            builder.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        if (size == 0 || random.nextInt(4) == 0) builder.append('/');
+        return builder.toString();
+    }
+
+    // handler with all param values, or exception thrown during find or reading params (path params are decoded lazily by matcher)
+    private String result(Finder finder) {
+        try {
+            Result result = finder.find();
+            if (result.handler == null) return "not found";
+            var builder = new StringBuilder(result.handler.pathPattern);
+            for (String name : paramNames(result.handler.pathPattern)) {
+                builder.append(", ").append(name).append('=').append(result.params.get(name));
+            }
+            return builder.toString();
+        } catch (BadRequestException e) {
+            return "bad request";
+        }
+    }
+
+    private List<String> paramNames(String pathPattern) {
+        List<String> names = new ArrayList<>();
+        for (String segment : pathPattern.split("/")) {
+            if (segment.startsWith(":")) {
+                int index = segment.indexOf('(');
+                names.add(segment.substring(1, index > 0 ? index : segment.length()));
+            }
+        }
+        return names;
+    }
+
+    interface Finder {
+        Result find();
+    }
+
+    record Result(@Nullable URLHandler handler, PathParams params) {
+    }
+}
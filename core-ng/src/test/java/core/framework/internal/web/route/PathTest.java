@@ -61,4 +61,10 @@ class PathTest {
         assertEquals("path2/", path.next.next.subPath());
         assertEquals("/", path.next.next.next.subPath());
     }
+
+    @Test
+    void subPathWithSingleCharSegment() {
+        assertEquals("a/b", Path.parse("/a/b").next.subPath());
+        assertEquals("a//b/", Path.parse("/a//b/").next.subPath());
+    }
 }
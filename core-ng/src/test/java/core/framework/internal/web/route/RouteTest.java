@@ -0,0 +1,47 @@
+package core.framework.internal.web.route;
+
+import core.framework.http.HTTPMethod;
+import core.framework.internal.web.controller.ControllerHolder;
+import core.framework.web.Controller;
+import core.framework.web.Request;
+import core.framework.web.Response;
+import core.framework.web.priority.Priority;
+import core.framework.web.priority.RequestPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class RouteTest {
+    private Route route;
+
+    @BeforeEach
+    void createRoute() {
+        route = new Route();
+    }
+
+    @Test
+    void priority() throws NoSuchMethodException {
+        assertThat(route.priority("/report/:id", "GET")).isEqualTo(Priority.NORMAL);
+
+        var controller = new TestController();
+        route.add(HTTPMethod.GET, "/report/:id", new ControllerHolder(controller, TestController.class.getMethod("execute", Request.class), "controller", "action", false));
+
+        assertThat(route.priority("/report/1", "GET")).isEqualTo(Priority.LOW);
+        assertThat(route.priority("/report/1", "POST")).isEqualTo(Priority.NORMAL);
+        assertThat(route.priority("/report/1", "INVALID")).isEqualTo(Priority.NORMAL);
+        assertThat(route.priority("/order", "GET")).isEqualTo(Priority.NORMAL);
+        assertThat(route.highPriority()).isFalse();
+    }
+
+    public static class TestController implements Controller {
+        @RequestPriority(Priority.LOW)
+        @Override
+        public Response execute(Request request) {
+            return Response.empty();
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package core.framework.internal.web.sys;
 
+import core.framework.api.http.HTTPStatus;
 import core.framework.http.ContentType;
+import core.framework.internal.stat.Profiler;
+import core.framework.internal.stat.StatCollector;
 import core.framework.web.Request;
 import core.framework.web.Response;
+import core.framework.web.exception.BadRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 /**
@@ -19,12 +26,14 @@ import static org.mockito.Mockito.when;
 class DiagnosticControllerTest {
     @Mock
     Request request;
+    private StatCollector collector;
     private DiagnosticController controller;
 
     @BeforeEach
     void createDiagnosticController() {
         when(request.clientIP()).thenReturn("127.0.0.1");
-        controller = new DiagnosticController();
+        collector = new StatCollector();
+        controller = new DiagnosticController(collector);
     }
 
     @Test
@@ -51,6 +60,26 @@ class DiagnosticControllerTest {
         assertThat(response.contentType()).hasValue(ContentType.TEXT_PLAIN);
     }
 
+    @Test
+    void profileNotEnabled() {
+        Response response = controller.profile(request);
+        assertThat(response.status()).isEqualTo(HTTPStatus.NOT_FOUND);
+    }
+
+    @Test
+    void profileWithInvalidTop() {
+        collector.profiler = new Profiler();
+        when(request.queryParams()).thenReturn(Map.of("top", "abc"));
+
+        assertThatThrownBy(() -> controller.profile(request))
+            .isInstanceOf(BadRequestException.class)
+            .hasMessageContaining("top must be number");
+        assertThatThrownBy(() -> controller.topN("0"))
+            .isInstanceOf(BadRequestException.class)
+            .hasMessageContaining("top must be greater than 0");
+        assertThat(controller.topN(null)).isEqualTo(50);
+    }
+
     @Test
     void proc() {
         Response response = controller.proc(request);
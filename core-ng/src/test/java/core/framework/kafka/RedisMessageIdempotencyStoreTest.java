@@ -0,0 +1,83 @@
+package core.framework.kafka;
+
+import core.framework.redis.Redis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisMessageIdempotencyStoreTest {
+    @Mock
+    Redis redis;
+    @Mock
+    MessageIdempotencyStore.Handler handler;
+    private RedisMessageIdempotencyStore store;
+
+    @BeforeEach
+    void createRedisMessageIdempotencyStore() {
+        store = new RedisMessageIdempotencyStore(redis, Duration.ofDays(1), Duration.ofMinutes(5));
+    }
+
+    @Test
+    void processed() {
+        when(redis.multiGet("message:topic:id1", "message:topic:id2", "message:topic:id3"))
+            .thenReturn(Map.of("message:topic:id1", "processed", "message:topic:id2", "processing"));
+
+        assertThat(store.processed("topic", List.of("id1", "id2", "id3"))).containsExactly("id1");
+    }
+
+    @Test
+    void process() throws Exception {
+        when(redis.multiSet(Map.of("message:topic:id1", "processing"), Duration.ofMinutes(5), true)).thenReturn(Set.of("message:topic:id1"));
+
+        store.process("topic", List.of("id1"), handler);
+
+        verify(handler).handle();
+        verify(redis).multiSet(Map.of("message:topic:id1", "processed"), Duration.ofDays(1), false);
+    }
+
+    @Test
+    void processWithFailure() throws Exception {
+        when(redis.multiSet(Map.of("message:topic:id1", "processing"), Duration.ofMinutes(5), true)).thenReturn(Set.of("message:topic:id1"));
+        doThrow(new Error("failed")).when(handler).handle();
+
+        assertThatThrownBy(() -> store.process("topic", List.of("id1"), handler))
+            .isInstanceOf(Error.class)
+            .hasMessage("failed");
+        verify(redis).del("message:topic:id1");
+        verify(redis, never()).multiSet(Map.of("message:topic:id1", "processed"), Duration.ofDays(1), false);
+    }
+
+    @Test
+    void processRedeliveredAfterCrash() {
+        // consumer crashed during handling, its claim is kept until process timeout, redelivered message must not be skipped
+        when(redis.multiGet("message:topic:id1")).thenReturn(Map.of("message:topic:id1", "processing"));
+        assertThat(store.processed("topic", List.of("id1"))).isEmpty();
+
+        when(redis.multiSet(Map.of("message:topic:id1", "processing"), Duration.ofMinutes(5), true)).thenReturn(Set.of());
+        assertThatThrownBy(() -> store.process("topic", List.of("id1"), handler))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("being processed by other consumer");
+        verifyNoInteractions(handler);
+        verify(redis, never()).del(any(String[].class));
+    }
+}
@@ -9,6 +9,7 @@ import core.framework.module.App;
 import core.framework.search.module.SearchConfig;
 import core.log.domain.ActionDocument;
 import core.log.domain.EventDocument;
+import core.log.domain.LatencyDocument;
 import core.log.domain.StatDocument;
 import core.log.domain.TraceDocument;
 import core.log.job.CleanupOldIndexJob;
@@ -86,6 +87,7 @@ public class LogProcessorApp extends App {
         search.type(TraceDocument.class);
         search.type(StatDocument.class);
         search.type(EventDocument.class);
+        search.type(LatencyDocument.class);
     }
 
     private void configureJob() {
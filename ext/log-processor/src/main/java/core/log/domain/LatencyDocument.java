@@ -0,0 +1,44 @@
+package core.log.domain;
+
+import core.framework.api.json.Property;
+import core.framework.search.Index;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @author neo
+ */
+@Index(name = "latency")
+public class LatencyDocument {
+    @Property(name = "@timestamp")
+    public Instant timestamp;
+    @Property(name = "app")
+    public String app;
+    @Property(name = "action")
+    public String action;
+    @Property(name = "operation")
+    public String operation;
+    @Property(name = "count")
+    public Long count;
+    @Property(name = "p50")
+    public Long p50;
+    @Property(name = "p90")
+    public Long p90;
+    @Property(name = "p99")
+    public Long p99;
+    @Property(name = "p999")
+    public Long p999;
+    @Property(name = "max")
+    public Long max;
+    @Property(name = "histogram")
+    public Histogram histogram;     // percentiles above are of one processing batch, aggregate percentiles across documents with histogram field
+
+    // elasticsearch histogram field, values must be in ascending order
+    public static class Histogram {
+        @Property(name = "values")
+        public List<Double> values;
+        @Property(name = "counts")
+        public List<Integer> counts;
+    }
+}
@@ -1,18 +1,27 @@
 package core.log.kafka;
 
 import core.framework.inject.Inject;
+import core.framework.internal.log.LogManager;
+import core.framework.internal.stat.LatencyHistogram;
 import core.framework.kafka.BulkMessageHandler;
 import core.framework.kafka.Message;
+import core.framework.log.message.LatencyHistogramMessage;
 import core.framework.log.message.StatMessage;
 import core.framework.search.BulkIndexRequest;
 import core.framework.search.ElasticSearchType;
 import core.framework.util.Maps;
+import core.log.domain.LatencyDocument;
 import core.log.domain.StatDocument;
 import core.log.service.IndexService;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * @author neo
@@ -22,6 +31,8 @@ public class StatMessageHandler implements BulkMessageHandler<StatMessage> {
     IndexService indexService;
     @Inject
     ElasticSearchType<StatDocument> statType;
+    @Inject
+    ElasticSearchType<LatencyDocument> latencyType;
 
     @Override
     public void handle(List<Message<StatMessage>> messages) {
@@ -37,6 +48,35 @@ public class StatMessageHandler implements BulkMessageHandler<StatMessage> {
         request.index = indexService.indexName("stat", now);
         request.sources = stats;
         statType.bulkIndex(request);
+
+        indexLatencies(messages, now);
+    }
+
+    // merge histograms of all hosts by app/action/operation/minute within batch, and index as percentile documents,
+    // same minute may span multiple batches, so bucket counts are indexed as histogram field, to aggregate percentiles across documents
+    private void indexLatencies(List<Message<StatMessage>> messages, LocalDate now) {
+        Map<String, LatencyHistograms> histograms = new HashMap<>();
+        for (Message<StatMessage> message : messages) {
+            StatMessage stat = message.value;
+            if (stat.histograms == null) continue;
+            Instant minute = stat.date.truncatedTo(ChronoUnit.MINUTES);
+            for (LatencyHistogramMessage histogram : stat.histograms) {
+                String key = stat.app + "/" + histogram.action + "/" + histogram.operation + "/" + minute;
+                histograms.computeIfAbsent(key, k -> new LatencyHistograms(minute, stat.app, histogram.action, histogram.operation))
+                    .merge(histogram);
+            }
+        }
+        if (histograms.isEmpty()) return;
+
+        Map<String, LatencyDocument> latencies = Maps.newHashMapWithExpectedSize(histograms.size());
+        Instant date = Instant.now();
+        for (LatencyHistograms value : histograms.values()) {
+            latencies.put(LogManager.ID_GENERATOR.next(date), value.document());
+        }
+        BulkIndexRequest<LatencyDocument> request = new BulkIndexRequest<>();
+        request.index = indexService.indexName("latency", now);
+        request.sources = latencies;
+        latencyType.bulkIndex(request);
     }
 
     private StatDocument stat(StatMessage message) {
@@ -51,4 +91,54 @@ public class StatMessageHandler implements BulkMessageHandler<StatMessage> {
         stat.info = message.info;
         return stat;
     }
+
+    static final class LatencyHistograms {
+        final Instant timestamp;
+        final String app;
+        final String action;
+        final String operation;
+        final Map<Integer, Long> counts = new TreeMap<>();
+
+        LatencyHistograms(Instant timestamp, String app, String action, String operation) {
+            this.timestamp = timestamp;
+            this.app = app;
+            this.action = action;
+            this.operation = operation;
+        }
+
+        void merge(LatencyHistogramMessage message) {
+            for (int i = 0; i < message.buckets.size(); i++) {
+                counts.merge(message.buckets.get(i), message.counts.get(i), Long::sum);
+            }
+        }
+
+        LatencyDocument document() {
+            List<Integer> buckets = new ArrayList<>(counts.keySet());
+            List<Long> values = new ArrayList<>(counts.values());
+            var document = new LatencyDocument();
+            document.timestamp = timestamp;
+            document.app = app;
+            document.action = action;
+            document.operation = operation;
+            document.count = values.stream().mapToLong(Long::longValue).sum();
+            document.p50 = LatencyHistogram.percentile(buckets, values, 0.5);
+            document.p90 = LatencyHistogram.percentile(buckets, values, 0.9);
+            document.p99 = LatencyHistogram.percentile(buckets, values, 0.99);
+            document.p999 = LatencyHistogram.percentile(buckets, values, 0.999);
+            document.max = LatencyHistogram.value(buckets.getLast());
+            document.histogram = histogram(buckets, values);
+            return document;
+        }
+
+        private LatencyDocument.Histogram histogram(List<Integer> buckets, List<Long> counts) {
+            var histogram = new LatencyDocument.Histogram();
+            histogram.values = new ArrayList<>(buckets.size());
+            histogram.counts = new ArrayList<>(buckets.size());
+            for (int i = 0; i < buckets.size(); i++) {
+                histogram.values.add((double) LatencyHistogram.value(buckets.get(i)));     // bucket values are ascending as buckets are sorted
+                histogram.counts.add((int) Math.min(counts.get(i), Integer.MAX_VALUE));   // elasticsearch histogram count is integer
+            }
+            return histogram;
+        }
+    }
 }
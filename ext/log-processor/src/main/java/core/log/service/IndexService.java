@@ -26,6 +26,7 @@ public class IndexService {
         search.putIndexTemplate("trace", template("index/trace-index-template.json"));
         search.putIndexTemplate("stat", template("index/stat-index-template.json"));
         search.putIndexTemplate("event", template("index/event-index-template.json"));
+        search.putIndexTemplate("latency", template("index/latency-index-template.json"));
     }
 
     public String indexName(String name, LocalDate now) {
@@ -1,11 +1,14 @@
 package core.log.kafka;
 
 import core.framework.inject.Inject;
+import core.framework.internal.stat.LatencyHistogram;
 import core.framework.kafka.Message;
+import core.framework.log.message.LatencyHistogramMessage;
 import core.framework.log.message.StatMessage;
 import core.framework.search.ElasticSearchType;
 import core.framework.search.GetRequest;
 import core.log.IntegrationTest;
+import core.log.domain.LatencyDocument;
 import core.log.domain.StatDocument;
 import core.log.service.IndexService;
 import org.junit.jupiter.api.Test;
@@ -44,6 +47,31 @@ class StatMessageHandlerTest extends IntegrationTest {
         assertThat(stat.info).isEqualTo(message.info);
     }
 
+    @Test
+    void mergeLatencyHistograms() {
+        var histograms = new StatMessageHandler.LatencyHistograms(Instant.now(), "app", "api:get:/test", "elapsed");
+        histograms.merge(histogram(List.of(10, 20), List.of(98L, 1L)));
+        histograms.merge(histogram(List.of(20, 30), List.of(1L, 1L)));
+
+        LatencyDocument document = histograms.document();
+        assertThat(document.count).isEqualTo(101);
+        assertThat(document.p50).isEqualTo(LatencyHistogram.value(10));
+        assertThat(document.p99).isEqualTo(LatencyHistogram.value(20));
+        assertThat(document.max).isEqualTo(LatencyHistogram.value(30));
+        assertThat(document.histogram.values).containsExactly((double) LatencyHistogram.value(10), (double) LatencyHistogram.value(20), (double) LatencyHistogram.value(30));
+        assertThat(document.histogram.counts).containsExactly(98, 2, 1);
+    }
+
+    private LatencyHistogramMessage histogram(List<Integer> buckets, List<Long> counts) {
+        var message = new LatencyHistogramMessage();
+        message.action = "api:get:/test";
+        message.operation = "elapsed";
+        message.buckets = buckets;
+        message.counts = counts;
+        message.count = counts.stream().mapToLong(Long::longValue).sum();
+        return message;
+    }
+
     private StatDocument get(LocalDate now, String id) {
         var request = new GetRequest();
         request.index = indexService.indexName("stat", now);